@@ -2,6 +2,7 @@ package com.example.ChatApp_Internal;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /*
  * Fix loi /refresh  thi revoke luon refresh token
@@ -10,6 +11,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * */
 
 @SpringBootApplication
+@EnableScheduling
 public class ChatAppInternalApplication {
 
     public static void main(String[] args) {
@@ -1,12 +1,16 @@
 package com.example.ChatApp_Internal.config;
 
+import com.example.ChatApp_Internal.service.S3MultipartUploader;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.SdkEventLoopGroup;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 
@@ -19,6 +23,19 @@ public class AwsS3Config {
     private String region;
     private String bucketName;
     private String baseUrl;
+    private Async async = new Async();
+
+    /**
+     * Limits for {@link S3AsyncClient}: requests beyond {@code maxInFlight} wait
+     * up to {@code acquireTimeoutMs} and are then refused.
+     */
+    @Data
+    public static class Async {
+        private int maxInFlight;
+        private long acquireTimeoutMs;
+        private int eventLoopThreads;
+        private int callbackThreads;
+    }
 
     @Bean
     public S3Client s3Client() {
@@ -30,6 +47,29 @@ public class AwsS3Config {
                 .build();
     }
 
+    /**
+     * Non-blocking client on a fixed Netty event loop, so threads stay flat however
+     * many transfers are in flight. Its connection pool matches the in-flight
+     * limit, so admitted requests never queue for a connection.
+     */
+    @Bean
+    public S3AsyncClient s3AsyncClient() {
+        AwsBasicCredentials credentials = AwsBasicCredentials.create(accessKey, secretKey);
+
+        SdkEventLoopGroup.Builder eventLoop = SdkEventLoopGroup.builder();
+        if (async.getEventLoopThreads() > 0) {
+            eventLoop.numberOfThreads(async.getEventLoopThreads());
+        }
+
+        return S3AsyncClient.builder()
+                .region(Region.of(region))
+                .credentialsProvider(StaticCredentialsProvider.create(credentials))
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                        .maxConcurrency(async.getMaxInFlight())
+                        .eventLoopGroupBuilder(eventLoop))
+                .build();
+    }
+
     @Bean
     public S3Presigner s3Presigner() {
         AwsBasicCredentials credentials = AwsBasicCredentials.create(accessKey, secretKey);
@@ -39,4 +79,12 @@ public class AwsS3Config {
                 .credentialsProvider(StaticCredentialsProvider.create(credentials))
                 .build();
     }
+
+    @Bean
+    public S3MultipartUploader s3MultipartUploader(S3Client s3Client, UploadConfig uploadConfig) {
+        return new S3MultipartUploader(s3Client,
+                uploadConfig.getMultipartPartSize(),
+                uploadConfig.getMultipartParallelParts(),
+                uploadConfig.getMultipartThreads());
+    }
 }
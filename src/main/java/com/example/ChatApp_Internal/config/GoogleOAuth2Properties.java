@@ -11,4 +11,8 @@ public class GoogleOAuth2Properties {
     private String clientId;
     private String clientSecret;
     private String redirectUri;
+    private String tokenUrl;
+    private String userinfoUrl;
+    private String certsUrl;
+    private long keyRefreshAheadMs;
 }
@@ -1,12 +1,19 @@
 package com.example.ChatApp_Internal.config;
 
-import com.example.ChatApp_Internal.repository.BlacklistedTokenRepository;
+import com.example.ChatApp_Internal.security.AccountStateCache;
 import com.example.ChatApp_Internal.security.AuthTokenFilter;
+import com.example.ChatApp_Internal.security.BoundedPasswordEncoder;
 import com.example.ChatApp_Internal.security.CustomUserDetailsService;
 import com.example.ChatApp_Internal.security.JwtService;
+import com.example.ChatApp_Internal.security.TokenRevocationIndex;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -16,7 +23,6 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
@@ -34,11 +40,26 @@ public class SecurityConfig {
 
     private final CustomUserDetailsService userDetailsService;
     private final JwtService jwtService;
-    private final BlacklistedTokenRepository blacklistedTokenRepository;
+    private final TokenRevocationIndex revocationIndex;
+    private final AccountStateCache accountStateCache;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.jwt.stateless-auth}")
+    private boolean statelessAuth;
+
+    @Value("${app.security.password-hashing.pool-size}")
+    private int hashingPoolSize;
+
+    @Value("${app.security.password-hashing.queue-capacity}")
+    private int hashingQueueCapacity;
+
+    @Value("${app.security.password-hashing.timeout-ms}")
+    private long hashingTimeoutMs;
 
     @Bean
     public AuthTokenFilter authenticationJwtTokenFilter() {
-        return new AuthTokenFilter(jwtService, userDetailsService, blacklistedTokenRepository);
+        return new AuthTokenFilter(jwtService, userDetailsService, revocationIndex,
+                accountStateCache, statelessAuth, meterRegistry);
     }
 
     @Bean
@@ -56,11 +77,39 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder() {
+        int poolSize = hashingPoolSize > 0 ? hashingPoolSize : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), poolSize,
+                hashingQueueCapacity, hashingTimeoutMs);
+    }
+
+    /**
+     * Actuator endpoints, on whichever port they are served. Only health is
+     * public; metrics and the Prometheus scrape need an ADMIN token, so nothing
+     * leaks if the management port ends up reachable from outside.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain actuatorFilterChain(HttpSecurity http) throws Exception {
+        http
+                .securityMatcher(EndpointRequest.toAnyEndpoint())
+                .csrf(AbstractHttpConfigurer::disable)
+                .sessionManagement(session ->
+                        session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .authorizeHttpRequests(auth -> auth
+                        .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+                        .anyRequest().hasRole("ADMIN")
+                );
+
+        http.authenticationProvider(authenticationProvider());
+        http.addFilterBefore(authenticationJwtTokenFilter(),
+                UsernamePasswordAuthenticationFilter.class);
+
+        return http.build();
     }
 
     @Bean
+    @Order(2)
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
                 .csrf(AbstractHttpConfigurer::disable)
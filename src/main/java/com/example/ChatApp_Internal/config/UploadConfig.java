@@ -15,6 +15,13 @@ public class UploadConfig {
     private Long maxRequestSize;
     private String allowedExtensions;
     private String allowedImageExtensions;
+    /** Limit for bodies streamed to S3, which are never held in memory whole */
+    private Long streamMaxFileSize;
+    /** S3 accepts parts of at least 5MB, except the last */
+    private Integer multipartPartSize;
+    /** Parts of one upload in flight at once, which is also its buffer count */
+    private Integer multipartParallelParts;
+    private Integer multipartThreads;
 
     public List<String> getAllowedExtensionsList() {
         return Arrays.asList(allowedExtensions.split(","));
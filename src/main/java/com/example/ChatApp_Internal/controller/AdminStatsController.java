@@ -1,7 +1,9 @@
 package com.example.ChatApp_Internal.controller;
 
 import com.example.ChatApp_Internal.dto.response.ApiResponse;
+import com.example.ChatApp_Internal.dto.response.CacheStatsResponse;
 import com.example.ChatApp_Internal.dto.response.SystemStatsResponse;
+import com.example.ChatApp_Internal.security.UserDetailsCache;
 import com.example.ChatApp_Internal.service.AdminStatsService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -10,6 +12,8 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/admin/stats")
 @RequiredArgsConstructor
@@ -17,10 +21,16 @@ import org.springframework.web.bind.annotation.RestController;
 public class AdminStatsController {
 
     private final AdminStatsService adminStatsService;
+    private final UserDetailsCache userDetailsCache;
 
     @GetMapping
     public ResponseEntity<ApiResponse<SystemStatsResponse>> getSystemStats() {
         SystemStatsResponse stats = adminStatsService.getSystemStats();
         return ResponseEntity.ok(ApiResponse.success(stats));
     }
+
+    @GetMapping("/caches")
+    public ResponseEntity<ApiResponse<List<CacheStatsResponse>>> getCacheStats() {
+        return ResponseEntity.ok(ApiResponse.success(List.of(userDetailsCache.getStats())));
+    }
 }
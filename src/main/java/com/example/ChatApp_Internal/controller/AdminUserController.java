@@ -1,10 +1,13 @@
 package com.example.ChatApp_Internal.controller;
 
+import com.example.ChatApp_Internal.dto.request.BulkUserOperationRequest;
 import com.example.ChatApp_Internal.dto.request.UpdateUserRolesRequest;
 import com.example.ChatApp_Internal.dto.response.AdminUserResponse;
 import com.example.ChatApp_Internal.dto.response.ApiResponse;
+import com.example.ChatApp_Internal.dto.response.BulkOperationResponse;
 import com.example.ChatApp_Internal.dto.response.PageResponse;
 import com.example.ChatApp_Internal.dto.response.UserInfo;
+import com.example.ChatApp_Internal.service.AdminBulkService;
 import com.example.ChatApp_Internal.service.AdminService;
 import com.example.ChatApp_Internal.service.ProfileService;
 import jakarta.validation.Valid;
@@ -13,8 +16,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/admin/users")
 @RequiredArgsConstructor
@@ -22,6 +23,7 @@ import java.util.List;
 public class AdminUserController {
 
     private final AdminService adminService;
+    private final AdminBulkService adminBulkService;
     private final ProfileService profileService;
 
     @GetMapping
@@ -29,9 +31,14 @@ public class AdminUserController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
 
-        PageResponse<AdminUserResponse> users = adminService.getAllUsers(page, size, sortBy, sortDir);
+        // Any cursor parameter, even empty for the first page, selects newest-first keyset paging
+        PageResponse<AdminUserResponse> users = cursor != null
+                ? adminService.getUsersByCursor(cursor, size, includeTotal)
+                : adminService.getAllUsers(page, size, sortBy, sortDir);
         return ResponseEntity.ok(ApiResponse.success(users));
     }
 
@@ -42,9 +49,11 @@ public class AdminUserController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<ApiResponse<List<AdminUserResponse>>> searchUsers(
-            @RequestParam String keyword) {
-        List<AdminUserResponse> users = adminService.searchUsers(keyword);
+    public ResponseEntity<ApiResponse<PageResponse<AdminUserResponse>>> searchUsers(
+            @RequestParam String keyword,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        PageResponse<AdminUserResponse> users = adminService.searchUsers(keyword, page, size);
         return ResponseEntity.ok(ApiResponse.success(users));
     }
 
@@ -74,6 +83,14 @@ public class AdminUserController {
         return ResponseEntity.ok(ApiResponse.success("User email verified successfully", user));
     }
 
+    @PostMapping("/bulk")
+    public ResponseEntity<ApiResponse<BulkOperationResponse>> bulkOperation(
+            @Valid @RequestBody BulkUserOperationRequest request) {
+        UserInfo userInfo = profileService.getCurrentUserInfo();
+        BulkOperationResponse result = adminBulkService.apply(request, userInfo.getAccountId());
+        return ResponseEntity.ok(ApiResponse.success("Bulk operation completed", result));
+    }
+
     @DeleteMapping("/{accountId}")
     public ResponseEntity<ApiResponse<Void>> deleteUser(@PathVariable Long accountId) {
         UserInfo userInfo = profileService.getCurrentUserInfo();
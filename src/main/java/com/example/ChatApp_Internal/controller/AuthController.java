@@ -42,10 +42,11 @@ public class AuthController {
     @PostMapping("/login")
     public ResponseEntity<ApiResponse<AuthResponse>> login(
             @Valid @RequestBody LoginRequest request,
+            HttpServletRequest httpRequest,
             HttpServletResponse httpResponse) {
 
         log.info("Login request for email: {}", request.getEmail());
-        AuthResponse response = authService.login(request, httpResponse);
+        AuthResponse response = authService.login(request, httpRequest.getRemoteAddr(), httpResponse);
 
         String refreshToken = response.getRefreshToken();
         cookieUtil.addRefreshTokenCookie(httpResponse, refreshToken);
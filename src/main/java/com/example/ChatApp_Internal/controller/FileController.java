@@ -0,0 +1,140 @@
+package com.example.ChatApp_Internal.controller;
+
+import com.example.ChatApp_Internal.dto.request.InitiateUploadRequest;
+import com.example.ChatApp_Internal.dto.response.ApiResponse;
+import com.example.ChatApp_Internal.dto.response.FileResponse;
+import com.example.ChatApp_Internal.dto.response.PageResponse;
+import com.example.ChatApp_Internal.dto.response.UploadTicketResponse;
+import com.example.ChatApp_Internal.service.AwsS3AsyncService;
+import com.example.ChatApp_Internal.service.AwsS3Service;
+import com.example.ChatApp_Internal.service.FileDownload;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/api/files")
+@RequiredArgsConstructor
+@PreAuthorize("isAuthenticated()")
+public class FileController {
+
+    private final AwsS3Service awsS3Service;
+    private final AwsS3AsyncService awsS3AsyncService;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<PageResponse<FileResponse>>> listFiles(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        PageResponse<FileResponse> files = awsS3Service.listFiles(cursor, size, includeTotal);
+        return ResponseEntity.ok(ApiResponse.success(files));
+    }
+
+    /**
+     * Multipart form upload. The request thread is released while the file is
+     * sent to S3.
+     */
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public CompletableFuture<ResponseEntity<ApiResponse<FileResponse>>> uploadFile(
+            @RequestParam("file") MultipartFile file) {
+        return awsS3AsyncService.uploadFile(file, "files")
+                .thenApply(uploaded -> ResponseEntity.ok(ApiResponse.success("File uploaded successfully", uploaded)));
+    }
+
+    /**
+     * Starts a direct-to-S3 upload. The client PUTs the file to the returned URL
+     * and then calls the complete endpoint.
+     */
+    @PostMapping("/uploads")
+    public ResponseEntity<ApiResponse<UploadTicketResponse>> initiateUpload(
+            @Valid @RequestBody InitiateUploadRequest request) {
+        return ResponseEntity.ok(ApiResponse.success(awsS3Service.initiateUpload(request, "files")));
+    }
+
+    @PostMapping("/uploads/{fileId}/complete")
+    public ResponseEntity<ApiResponse<FileResponse>> completeUpload(@PathVariable Long fileId) {
+        FileResponse file = awsS3Service.mapToFileResponse(awsS3Service.completeUpload(fileId, "files"));
+        return ResponseEntity.ok(ApiResponse.success("File uploaded successfully", file));
+    }
+
+    @GetMapping("/{fileId}/url")
+    public ResponseEntity<ApiResponse<String>> getPresignedUrl(
+            @PathVariable Long fileId,
+            @RequestParam(defaultValue = "60") int expirationMinutes) {
+        return ResponseEntity.ok(ApiResponse.success(awsS3Service.generatePresignedUrl(fileId, expirationMinutes)));
+    }
+
+    /**
+     * Presigned URLs for many files at once, keyed by file id.
+     */
+    @GetMapping("/urls")
+    public ResponseEntity<ApiResponse<Map<Long, String>>> getPresignedUrls(
+            @RequestParam List<Long> ids,
+            @RequestParam(defaultValue = "60") int expirationMinutes) {
+        return ResponseEntity.ok(ApiResponse.success(awsS3Service.generatePresignedUrls(ids, expirationMinutes)));
+    }
+
+    /**
+     * Takes the file as the raw request body and streams it to S3, for files too
+     * large for the multipart form endpoint.
+     */
+    @PutMapping("/stream")
+    public ResponseEntity<ApiResponse<FileResponse>> uploadStream(
+            @RequestParam String fileName,
+            HttpServletRequest request) throws IOException {
+        FileResponse file = awsS3Service.uploadStream(request.getInputStream(), fileName,
+                request.getContentType(), "files");
+        return ResponseEntity.ok(ApiResponse.success("File uploaded successfully", file));
+    }
+
+    /**
+     * Streams the file body on the request thread. Supports a single
+     * {@code Range} for resuming, and {@code If-None-Match} against the ETag.
+     */
+    @GetMapping("/{fileId}/content")
+    public void downloadFile(
+            @PathVariable Long fileId,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            HttpServletResponse response) throws IOException {
+        try (FileDownload download = awsS3Service.openDownload(fileId, range, ifNoneMatch)) {
+            response.setStatus(download.status());
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+            if (download.eTag() != null) {
+                response.setHeader(HttpHeaders.ETAG, download.eTag());
+            }
+            if (download.contentRange() != null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, download.contentRange());
+            }
+            if (!download.hasBody()) {
+                return;
+            }
+
+            response.setContentType(download.contentType());
+            response.setContentLengthLong(download.contentLength());
+            if (download.fileName() != null) {
+                response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(download.fileName(), StandardCharsets.UTF_8)
+                        .build()
+                        .toString());
+            }
+            download.transferTo(response.getOutputStream());
+        }
+    }
+}
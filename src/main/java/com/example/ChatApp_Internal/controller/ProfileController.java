@@ -1,9 +1,11 @@
 package com.example.ChatApp_Internal.controller;
 
 import com.example.ChatApp_Internal.dto.request.ChangePasswordRequest;
+import com.example.ChatApp_Internal.dto.request.InitiateUploadRequest;
 import com.example.ChatApp_Internal.dto.request.UpdateProfileRequest;
 import com.example.ChatApp_Internal.dto.request.UpdateStatusRequest;
 import com.example.ChatApp_Internal.dto.response.ApiResponse;
+import com.example.ChatApp_Internal.dto.response.UploadTicketResponse;
 import com.example.ChatApp_Internal.dto.response.UserInfo;
 import com.example.ChatApp_Internal.service.ProfileService;
 import jakarta.validation.Valid;
@@ -41,6 +43,22 @@ public class ProfileController {
         return ResponseEntity.ok(ApiResponse.success("Avatar updated successfully", userInfo));
     }
 
+    /**
+     * Starts a direct-to-S3 avatar upload; finish it with the complete endpoint.
+     */
+    @PostMapping("/avatar/uploads")
+    public ResponseEntity<ApiResponse<UploadTicketResponse>> initiateAvatarUpload(
+            @Valid @RequestBody InitiateUploadRequest request) {
+        UploadTicketResponse ticket = profileService.initiateAvatarUpload(request);
+        return ResponseEntity.ok(ApiResponse.success(ticket));
+    }
+
+    @PostMapping("/avatar/uploads/{fileId}/complete")
+    public ResponseEntity<ApiResponse<UserInfo>> completeAvatarUpload(@PathVariable Long fileId) {
+        UserInfo userInfo = profileService.updateAvatarFromUpload(fileId);
+        return ResponseEntity.ok(ApiResponse.success("Avatar updated successfully", userInfo));
+    }
+
     @PatchMapping("/status")
     public ResponseEntity<ApiResponse<UserInfo>> updateStatus(
             @Valid @RequestBody UpdateStatusRequest request) {
@@ -41,6 +41,7 @@ public class UserController {
                 .username(profile != null ? profile.getUsername() : null)
                 .displayName(profile != null ? profile.getDisplayName() : null)
                 .avatarUrl(profile != null ? profile.getAvatarUrl() : null)
+                .avatarThumbnailUrl(profile != null ? profile.getAvatarThumbnailUrl() : null)
                 .bio(profile != null ? profile.getBio() : null)
                 .status(profile != null ? profile.getStatus() : null)
                 .roles(account.getRoles().stream()
@@ -66,6 +67,7 @@ public class UserController {
                 .username(profile != null ? profile.getUsername() : null)
                 .displayName(profile != null ? profile.getDisplayName() : null)
                 .avatarUrl(profile != null ? profile.getAvatarUrl() : null)
+                .avatarThumbnailUrl(profile != null ? profile.getAvatarThumbnailUrl() : null)
                 .bio(profile != null ? profile.getBio() : null)
                 .status(profile != null ? profile.getStatus() : null)
                 .roles(account.getRoles().stream()
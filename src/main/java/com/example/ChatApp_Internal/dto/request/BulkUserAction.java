@@ -0,0 +1,9 @@
+package com.example.ChatApp_Internal.dto.request;
+
+public enum BulkUserAction {
+    ACTIVATE,
+    DEACTIVATE,
+    VERIFY,
+    ASSIGN_ROLES,
+    DELETE
+}
@@ -0,0 +1,29 @@
+package com.example.ChatApp_Internal.dto.request;
+
+import com.example.ChatApp_Internal.entity.AuthProvider;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Selects accounts for a bulk operation. Unset fields match everything, but at
+ * least one field must be set.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUserFilter {
+    private AuthProvider provider;
+    private Boolean isActive;
+    private Boolean isVerified;
+    private String role;
+    private String emailDomain;
+
+    public boolean isEmpty() {
+        return provider == null && isActive == null && isVerified == null
+                && (role == null || role.isBlank())
+                && (emailDomain == null || emailDomain.isBlank());
+    }
+}
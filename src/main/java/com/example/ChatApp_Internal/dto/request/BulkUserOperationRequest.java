@@ -0,0 +1,31 @@
+package com.example.ChatApp_Internal.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Either {@code accountIds} or {@code filter} selects the accounts;
+ * {@code roles} is required for {@link BulkUserAction#ASSIGN_ROLES}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUserOperationRequest {
+    @NotNull(message = "Action is required")
+    private BulkUserAction action;
+
+    private List<Long> accountIds;
+
+    @Valid
+    private BulkUserFilter filter;
+
+    private Set<String> roles;
+}
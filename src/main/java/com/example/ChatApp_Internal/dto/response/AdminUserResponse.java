@@ -19,6 +19,8 @@ public class AdminUserResponse {
     private String username;
     private String displayName;
     private String avatarUrl;
+    /** Small square rendition for lists; null until generated or for external avatars */
+    private String avatarThumbnailUrl;
     private AuthProvider provider;
     private Boolean isVerified;
     private Boolean isActive;
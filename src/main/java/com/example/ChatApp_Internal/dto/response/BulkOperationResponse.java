@@ -0,0 +1,38 @@
+package com.example.ChatApp_Internal.dto.response;
+
+import com.example.ChatApp_Internal.dto.request.BulkUserAction;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOperationResponse {
+    private BulkUserAction action;
+    private int requested;
+    private int updated;
+    private int unchanged;
+    private int notFound;
+    private int skipped;
+    private List<Result> results;
+
+    public enum Status {
+        UPDATED,
+        UNCHANGED,
+        NOT_FOUND,
+        SKIPPED
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Result {
+        private Long accountId;
+        private Status status;
+    }
+}
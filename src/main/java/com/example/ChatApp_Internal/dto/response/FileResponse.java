@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Map;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -17,5 +19,7 @@ public class FileResponse {
     private String fileType;
     private String url;
     private Long createdAt;
+    /** Square thumbnail URLs by edge length in pixels; empty until generated */
+    private Map<Integer, String> thumbnails;
 }
 
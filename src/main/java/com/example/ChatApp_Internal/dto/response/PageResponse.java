@@ -7,15 +7,20 @@ import lombok.NoArgsConstructor;
 
 import java.util.List;
 
+/**
+ * A page of results. Offset pages fill in the page number and totals; cursor
+ * pages fill in {@code nextCursor} and leave the totals null unless requested.
+ */
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class PageResponse<T> {
     private List<T> content;
-    private int pageNumber;
+    private Integer pageNumber;
     private int pageSize;
-    private long totalElements;
-    private int totalPages;
+    private Long totalElements;
+    private Integer totalPages;
     private boolean last;
+    private String nextCursor;
 }
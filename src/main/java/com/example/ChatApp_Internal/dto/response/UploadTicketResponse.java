@@ -0,0 +1,24 @@
+package com.example.ChatApp_Internal.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Where and how the client uploads a file itself. The request must carry
+ * exactly {@code headers}, since they are part of the signature.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadTicketResponse {
+    private Long fileId;
+    private String uploadUrl;
+    private String method;
+    private Map<String, String> headers;
+    private Long expiresAt;
+}
@@ -19,6 +19,8 @@ public class UserInfo {
     private String username;
     private String displayName;
     private String avatarUrl;
+    /** Small square rendition for lists; null until generated or for external avatars */
+    private String avatarThumbnailUrl;
     private String bio;
     private UserStatus status;
     private Set<String> roles;
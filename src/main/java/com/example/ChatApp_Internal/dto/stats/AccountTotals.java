@@ -0,0 +1,7 @@
+package com.example.ChatApp_Internal.dto.stats;
+
+/**
+ * Account counts computed in one aggregate query. Sums are null when there are no accounts.
+ */
+public record AccountTotals(Long total, Long active, Long verified, Long local, Long google, Long sso) {
+}
@@ -0,0 +1,9 @@
+package com.example.ChatApp_Internal.dto.stats;
+
+/**
+ * Count of completed files (deleted ones included) and the size of those not
+ * deleted. Direct uploads still pending are left out.
+ * {@code liveBytes} is null when there are no files.
+ */
+public record FileTotals(Long total, Long liveBytes) {
+}
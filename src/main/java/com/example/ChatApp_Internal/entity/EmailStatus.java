@@ -0,0 +1,6 @@
+package com.example.ChatApp_Internal.entity;
+
+public enum EmailStatus {
+    PENDING,
+    FAILED
+}
@@ -0,0 +1,42 @@
+package com.example.ChatApp_Internal.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * One stored S3 object, shared by every {@link FileMetadata} row with the same
+ * content. The object is deleted when {@code refCount} drops to zero.
+ */
+@Entity
+@Table(name = "file_blobs")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FileBlob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "blob_id")
+    private Long blobId;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String sha256;
+
+    @Column(name = "s3_key", nullable = false, unique = true, length = 500)
+    private String s3Key;
+
+    @Column(name = "file_size", nullable = false)
+    private Long fileSize;
+
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount;
+
+    @Column(name = "created_at")
+    private Long createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.ChatApp_Internal.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * A square, downscaled rendition of an image file, stored under its own key so
+ * list views can fetch a few kilobytes instead of the original.
+ */
+@Entity
+@Table(name = "file_derivatives",
+        uniqueConstraints = @UniqueConstraint(name = "uk_file_derivatives_file_size", columnNames = {"file_id", "size_px"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FileDerivative {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "derivative_id")
+    private Long derivativeId;
+
+    @Column(name = "file_id", nullable = false)
+    private Long fileId;
+
+    @Column(name = "size_px", nullable = false)
+    private Integer sizePx;
+
+    @Column(name = "s3_key", nullable = false, length = 500)
+    private String s3Key;
+
+    @Column(name = "content_type", nullable = false, length = 100)
+    private String contentType;
+
+    @Column(name = "byte_size", nullable = false)
+    private Long byteSize;
+
+    @Column(name = "created_at")
+    private Long createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = System.currentTimeMillis();
+    }
+}
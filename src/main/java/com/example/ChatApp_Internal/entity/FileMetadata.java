@@ -20,9 +20,13 @@ public class FileMetadata {
     @JoinColumn(name = "account_id", nullable = false)
     private Account account;
 
-    @Column(name = "s3_key", unique = true, nullable = false, length = 500)
+    @Column(name = "s3_key", nullable = false, length = 500)
     private String s3Key;
 
+    /** The shared object this file points at; null for files stored before deduplication */
+    @Column(name = "blob_id")
+    private Long blobId;
+
     @Column(name = "original_file_name", length = 255)
     private String originalFileName;
 
@@ -38,6 +42,11 @@ public class FileMetadata {
     @Column(length = 1000)
     private String url;
 
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private FileStatus status = FileStatus.READY;
+
     @Column(name = "is_deleted", nullable = false)
     private Boolean isDeleted = false;
 
@@ -0,0 +1,7 @@
+package com.example.ChatApp_Internal.entity;
+
+public enum FileStatus {
+    /** Metadata recorded, client still uploading straight to S3 */
+    PENDING,
+    READY
+}
@@ -29,6 +29,13 @@ public class Profile {
     @Column(name = "avatar_url", length = 255)
     private String avatarUrl;
 
+    /** The uploaded file behind {@code avatarUrl}, if it is one of ours */
+    @Column(name = "avatar_file_id")
+    private Long avatarFileId;
+
+    @Column(name = "avatar_thumbnail_url", length = 1000)
+    private String avatarThumbnailUrl;
+
     @Column(columnDefinition = "TEXT")
     private String bio;
 
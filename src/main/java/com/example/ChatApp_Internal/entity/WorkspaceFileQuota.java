@@ -0,0 +1,30 @@
+package com.example.ChatApp_Internal.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Storage limit and running total of file bytes for a workspace. The total is
+ * only changed through conditional updates, never recomputed on upload.
+ */
+@Entity
+@Table(name = "workspace_file_quota")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WorkspaceFileQuota {
+    @Id
+    @Column(name = "workspace_id")
+    private Long workspaceId;
+
+    @Column(name = "max_storage_bytes", nullable = false)
+    private Long maxStorageBytes;
+
+    @Column(name = "current_used_bytes")
+    private Long currentUsedBytes;
+
+    @Column(name = "updated_at")
+    private Long updatedAt;
+}
@@ -0,0 +1,8 @@
+package com.example.ChatApp_Internal.event;
+
+/**
+ * Published whenever an account's security-relevant state (roles, status,
+ * credentials) changes or the account is removed.
+ */
+public record AccountChangedEvent(Long accountId, String email) {
+}
@@ -0,0 +1,14 @@
+package com.example.ChatApp_Internal.event;
+
+import java.util.List;
+
+/**
+ * Bulk form of {@link AccountChangedEvent}, published once per chunk of a bulk
+ * admin operation so listeners can refresh their state in one pass.
+ */
+public record AccountsChangedEvent(List<AccountChangedEvent> changes) {
+
+    public List<Long> accountIds() {
+        return changes.stream().map(AccountChangedEvent::accountId).toList();
+    }
+}
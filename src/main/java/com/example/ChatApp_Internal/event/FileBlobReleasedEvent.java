@@ -0,0 +1,7 @@
+package com.example.ChatApp_Internal.event;
+
+/**
+ * Published when the last file referencing a stored object goes away.
+ */
+public record FileBlobReleasedEvent(String s3Key) {
+}
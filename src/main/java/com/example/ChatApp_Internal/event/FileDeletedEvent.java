@@ -0,0 +1,7 @@
+package com.example.ChatApp_Internal.event;
+
+/**
+ * Published when a file is soft-deleted by its owner.
+ */
+public record FileDeletedEvent(Long fileId) {
+}
@@ -0,0 +1,10 @@
+package com.example.ChatApp_Internal.event;
+
+import java.util.List;
+
+/**
+ * Published when stored objects that no blob tracks lose their file, such as
+ * thumbnails and pending uploads of a deleted account.
+ */
+public record FileObjectsReleasedEvent(List<String> s3Keys) {
+}
@@ -0,0 +1,8 @@
+package com.example.ChatApp_Internal.event;
+
+/**
+ * Published when a file becomes {@code READY}, whether uploaded through the
+ * API or completed after a direct upload.
+ */
+public record FileUploadedEvent(Long fileId, String s3Key, String contentType) {
+}
@@ -0,0 +1,7 @@
+package com.example.ChatApp_Internal.event;
+
+/**
+ * Published when an access token is blacklisted, e.g. on logout.
+ */
+public record TokenRevokedEvent(String token, long expiresAt) {
+}
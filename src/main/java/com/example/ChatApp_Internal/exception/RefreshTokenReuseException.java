@@ -0,0 +1,12 @@
+package com.example.ChatApp_Internal.exception;
+
+/**
+ * Thrown when a refresh token is presented after it has already been rotated
+ * or revoked, including the losing side of two concurrent refreshes.
+ */
+public class RefreshTokenReuseException extends RuntimeException {
+
+    public RefreshTokenReuseException(String message) {
+        super(message);
+    }
+}
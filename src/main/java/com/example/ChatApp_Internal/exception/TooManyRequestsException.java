@@ -0,0 +1,11 @@
+package com.example.ChatApp_Internal.exception;
+
+/**
+ * Thrown when a request is shed because a rate limit or a bounded work queue is full.
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.ChatApp_Internal.exception;
+
+/**
+ * Thrown without calling an upstream service whose circuit breaker is open.
+ */
+public class UpstreamUnavailableException extends RuntimeException {
+
+    public UpstreamUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.ChatApp_Internal.metrics;
+
+import com.example.ChatApp_Internal.security.AccountStateCache;
+import com.example.ChatApp_Internal.security.BoundedPasswordEncoder;
+import com.example.ChatApp_Internal.security.LoginRateLimiter;
+import com.example.ChatApp_Internal.security.TokenRevocationIndex;
+import com.example.ChatApp_Internal.security.UserDetailsCache;
+import com.example.ChatApp_Internal.service.AwsS3AsyncService;
+import com.example.ChatApp_Internal.service.EmailOutboxDispatcher;
+import com.example.ChatApp_Internal.service.GoogleApiClient;
+import com.example.ChatApp_Internal.service.ImageDerivativeService;
+import com.example.ChatApp_Internal.service.S3MultipartUploader;
+import com.example.ChatApp_Internal.service.TokenCleanupService;
+import com.example.ChatApp_Internal.util.CircuitBreaker;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exposes the in-process caches, the password hashing pool and the background
+ * jobs as gauges and counters.
+ */
+@Component
+@RequiredArgsConstructor
+public class ApplicationMetrics implements MeterBinder {
+
+    private final UserDetailsCache userDetailsCache;
+    private final AccountStateCache accountStateCache;
+    private final TokenRevocationIndex revocationIndex;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final LoginRateLimiter loginRateLimiter;
+    private final TokenCleanupService tokenCleanupService;
+    private final EmailOutboxDispatcher emailOutboxDispatcher;
+    private final GoogleApiClient googleApiClient;
+    private final S3MultipartUploader multipartUploader;
+    private final ImageDerivativeService imageDerivativeService;
+    private final AwsS3AsyncService awsS3AsyncService;
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder("app.cache.size", userDetailsCache, cache -> cache.getStats().getSize())
+                .tag("cache", "userDetails")
+                .register(registry);
+        FunctionCounter.builder("app.cache.hits", userDetailsCache, cache -> cache.getStats().getHits())
+                .tag("cache", "userDetails")
+                .register(registry);
+        FunctionCounter.builder("app.cache.misses", userDetailsCache, cache -> cache.getStats().getMisses())
+                .tag("cache", "userDetails")
+                .register(registry);
+        FunctionCounter.builder("app.cache.evictions", userDetailsCache, cache -> cache.getStats().getEvictions())
+                .tag("cache", "userDetails")
+                .register(registry);
+        Gauge.builder("app.cache.size", accountStateCache, AccountStateCache::size)
+                .tag("cache", "accountState")
+                .register(registry);
+        Gauge.builder("app.cache.size", revocationIndex, TokenRevocationIndex::size)
+                .tag("cache", "revokedTokens")
+                .register(registry);
+
+        Gauge.builder("app.password.hashing.queued", passwordEncoder, BoundedPasswordEncoder::getQueueDepth)
+                .description("Hash operations waiting for a pool thread")
+                .register(registry);
+        Gauge.builder("app.password.hashing.active", passwordEncoder, BoundedPasswordEncoder::getActiveCount)
+                .register(registry);
+        FunctionTimer.builder("app.password.hashing", passwordEncoder,
+                        BoundedPasswordEncoder::getHashCount, BoundedPasswordEncoder::getHashNanos,
+                        TimeUnit.NANOSECONDS)
+                .register(registry);
+        FunctionCounter.builder("app.password.hashing.rejected", passwordEncoder,
+                        BoundedPasswordEncoder::getRejectedCount)
+                .register(registry);
+        FunctionCounter.builder("app.auth.login.throttled", loginRateLimiter, LoginRateLimiter::getRejectedCount)
+                .register(registry);
+
+        Gauge.builder("app.cleanup.last.removed", tokenCleanupService, TokenCleanupService::getLastRemovedRows)
+                .register(registry);
+        Gauge.builder("app.cleanup.last.duration", tokenCleanupService, TokenCleanupService::getLastRunMs)
+                .baseUnit("milliseconds")
+                .register(registry);
+
+        FunctionCounter.builder("app.mail.outbox.sent", emailOutboxDispatcher, EmailOutboxDispatcher::getSentCount)
+                .register(registry);
+        FunctionCounter.builder("app.mail.outbox.failed", emailOutboxDispatcher, EmailOutboxDispatcher::getFailedCount)
+                .description("Failed delivery attempts")
+                .register(registry);
+        Gauge.builder("app.mail.outbox.pending", emailOutboxDispatcher, EmailOutboxDispatcher::getPendingCount)
+                .register(registry);
+
+        Gauge.builder("app.google.http.in.flight", googleApiClient, GoogleApiClient::getInFlight)
+                .register(registry);
+        Gauge.builder("app.google.http.circuit.open", googleApiClient,
+                        client -> client.getCircuitState() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                .description("1 while calls to Google are being refused or trialled")
+                .register(registry);
+
+        Gauge.builder("app.s3.upload.parts.active", multipartUploader, S3MultipartUploader::getActiveParts)
+                .register(registry);
+        FunctionCounter.builder("app.s3.upload.parts", multipartUploader, S3MultipartUploader::getUploadedParts)
+                .register(registry);
+        FunctionCounter.builder("app.s3.upload.aborted", multipartUploader, S3MultipartUploader::getAbortedUploads)
+                .register(registry);
+        Gauge.builder("app.s3.async.in.flight", awsS3AsyncService, AwsS3AsyncService::getInFlight)
+                .register(registry);
+        FunctionCounter.builder("app.s3.async.rejected", awsS3AsyncService, AwsS3AsyncService::getRejectedCount)
+                .description("Transfers refused because the in-flight limit was reached")
+                .register(registry);
+
+        Gauge.builder("app.files.thumbnails.queued", imageDerivativeService, ImageDerivativeService::getQueueDepth)
+                .register(registry);
+        FunctionCounter.builder("app.files.thumbnails.generated", imageDerivativeService,
+                        ImageDerivativeService::getGeneratedCount)
+                .register(registry);
+        FunctionCounter.builder("app.files.thumbnails.failed", imageDerivativeService,
+                        ImageDerivativeService::getFailedCount)
+                .register(registry);
+        FunctionCounter.builder("app.files.thumbnails.rejected", imageDerivativeService,
+                        ImageDerivativeService::getRejectedCount)
+                .description("Images skipped because the thumbnail queue was full")
+                .register(registry);
+    }
+}
@@ -1,13 +1,18 @@
 package com.example.ChatApp_Internal.repository;
 
+import com.example.ChatApp_Internal.dto.stats.AccountTotals;
 import com.example.ChatApp_Internal.entity.Account;
 import com.example.ChatApp_Internal.entity.AuthProvider;
+import com.example.ChatApp_Internal.search.UserSearchDocument;
+import com.example.ChatApp_Internal.security.AccountState;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,8 +22,64 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
 
     boolean existsByEmail(String email);
 
+    @Query("SELECT new com.example.ChatApp_Internal.security.AccountState(a.updatedAt, a.isActive) " +
+            "FROM Account a WHERE a.email = :email")
+    Optional<AccountState> findStateByEmail(String email);
+
+    @Query("SELECT new com.example.ChatApp_Internal.search.UserSearchDocument(" +
+            "a.accountId, a.email, p.username, p.displayName) FROM Account a LEFT JOIN a.profile p")
+    List<UserSearchDocument> findAllSearchDocuments();
+
+    @Query("SELECT new com.example.ChatApp_Internal.search.UserSearchDocument(" +
+            "a.accountId, a.email, p.username, p.displayName) FROM Account a LEFT JOIN a.profile p " +
+            "WHERE a.accountId = :accountId")
+    Optional<UserSearchDocument> findSearchDocument(Long accountId);
+
+    @Query("SELECT new com.example.ChatApp_Internal.search.UserSearchDocument(" +
+            "a.accountId, a.email, p.username, p.displayName) FROM Account a LEFT JOIN a.profile p " +
+            "WHERE a.accountId IN :accountIds")
+    List<UserSearchDocument> findSearchDocuments(Collection<Long> accountIds);
+
     Page<Account> findAll(Pageable pageable);
 
+    /**
+     * One page of ids in the requested order, without a count query.
+     */
+    @Query("SELECT a.accountId FROM Account a")
+    List<Long> findPageIds(Pageable pageable);
+
+    @Query("SELECT a.accountId FROM Account a ORDER BY a.createdAt DESC, a.accountId DESC")
+    List<Long> findNewestIds(Limit limit);
+
+    /**
+     * Keyset page: the ids that sort after ({@code createdAt}, {@code accountId})
+     * in newest-first order. The leading {@code createdAt <=} bound lets the
+     * database seek into the (created_at, account_id) index instead of scanning it.
+     */
+    @Query("SELECT a.accountId FROM Account a " +
+            "WHERE a.createdAt <= :createdAt AND (a.createdAt < :createdAt OR a.accountId < :accountId) " +
+            "ORDER BY a.createdAt DESC, a.accountId DESC")
+    List<Long> findNewestIdsAfter(Long createdAt, Long accountId, Limit limit);
+
+    @Query("SELECT DISTINCT a FROM Account a LEFT JOIN FETCH a.profile LEFT JOIN FETCH a.roles " +
+            "WHERE a.accountId IN :ids")
+    List<Account> findAllWithProfileAndRolesByIdIn(Collection<Long> ids);
+
+    /**
+     * Ids matching a bulk-operation filter; null arguments match everything.
+     * {@code emailSuffix} is a LIKE pattern whose literal characters are escaped with {@code !}.
+     */
+    @Query("SELECT a.accountId FROM Account a " +
+            "WHERE (:provider IS NULL OR a.provider = :provider) " +
+            "AND (:active IS NULL OR a.isActive = :active) " +
+            "AND (:verified IS NULL OR a.isVerified = :verified) " +
+            "AND (:emailSuffix IS NULL OR a.email LIKE :emailSuffix ESCAPE '!') " +
+            "AND (:role IS NULL OR a.accountId IN " +
+            "(SELECT ra.accountId FROM Account ra JOIN ra.roles r WHERE r.roleName = :role)) " +
+            "ORDER BY a.accountId")
+    List<Long> findIdsByFilter(AuthProvider provider, Boolean active, Boolean verified,
+                               String emailSuffix, String role, Limit limit);
+
     @Query("SELECT a FROM Account a WHERE a.isActive = true")
     List<Account> findAllActiveAccounts();
 
@@ -27,4 +88,13 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
 
     @Query("SELECT COUNT(a) FROM Account a WHERE a.provider = :provider")
     long countByProvider(AuthProvider provider);
+
+    @Query("SELECT new com.example.ChatApp_Internal.dto.stats.AccountTotals(COUNT(a), " +
+            "SUM(CASE WHEN a.isActive = true THEN 1L ELSE 0L END), " +
+            "SUM(CASE WHEN a.isVerified = true THEN 1L ELSE 0L END), " +
+            "SUM(CASE WHEN a.provider = com.example.ChatApp_Internal.entity.AuthProvider.LOCAL THEN 1L ELSE 0L END), " +
+            "SUM(CASE WHEN a.provider = com.example.ChatApp_Internal.entity.AuthProvider.GOOGLE THEN 1L ELSE 0L END), " +
+            "SUM(CASE WHEN a.provider = com.example.ChatApp_Internal.entity.AuthProvider.SSO THEN 1L ELSE 0L END)) " +
+            "FROM Account a")
+    AccountTotals getAccountTotals();
 }
@@ -2,10 +2,28 @@ package com.example.ChatApp_Internal.repository;
 
 import com.example.ChatApp_Internal.entity.BlacklistedToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 @Repository
 public interface BlacklistedTokenRepository extends JpaRepository<BlacklistedToken, Long> {
     boolean existsByToken(String token);
 
-}
\ No newline at end of file
+    @Query("SELECT b FROM BlacklistedToken b WHERE b.expiresAt IS NULL OR b.expiresAt > :now")
+    List<BlacklistedToken> findActive(Long now);
+
+    /**
+     * Deletes the oldest expired rows, at most {@code batchSize}. The ids are picked
+     * through a derived table so MySQL allows the {@code LIMIT} and H2 can run it too.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM blacklisted_tokens WHERE id IN (SELECT id FROM (SELECT id FROM blacklisted_tokens " +
+            "WHERE expires_at < :now ORDER BY expires_at LIMIT :batchSize) batch)", nativeQuery = true)
+    int deleteExpiredBatch(long now, int batchSize);
+
+}
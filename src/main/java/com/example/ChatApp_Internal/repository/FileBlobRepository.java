@@ -0,0 +1,52 @@
+package com.example.ChatApp_Internal.repository;
+
+import com.example.ChatApp_Internal.entity.FileBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface FileBlobRepository extends JpaRepository<FileBlob, Long> {
+    String LIVE_BLOB_IDS_OF_ACCOUNTS = "SELECT f.blobId FROM FileMetadata f " +
+            "WHERE f.account.accountId IN :accountIds AND f.isDeleted = false";
+
+    Optional<FileBlob> findBySha256(String sha256);
+
+    /**
+     * Fails (returns 0) once the blob is unreferenced, as it is about to be deleted.
+     */
+    @Modifying
+    @Query("UPDATE FileBlob b SET b.refCount = b.refCount + 1 WHERE b.blobId = :blobId AND b.refCount > 0")
+    int incrementIfReferenced(Long blobId);
+
+    @Modifying
+    @Query("UPDATE FileBlob b SET b.refCount = b.refCount - 1 WHERE b.blobId = :blobId AND b.refCount > 0")
+    int decrement(Long blobId);
+
+    @Modifying
+    @Query("DELETE FROM FileBlob b WHERE b.blobId = :blobId AND b.refCount = 0")
+    int deleteIfUnreferenced(Long blobId);
+
+    /**
+     * Drops one reference per live file of these accounts, grouped by blob.
+     */
+    @Modifying
+    @Query("UPDATE FileBlob b SET b.refCount = b.refCount - (SELECT COUNT(f) FROM FileMetadata f " +
+            "WHERE f.blobId = b.blobId AND f.account.accountId IN :accountIds AND f.isDeleted = false) " +
+            "WHERE b.blobId IN (" + LIVE_BLOB_IDS_OF_ACCOUNTS + ")")
+    int decrementForAccounts(Collection<Long> accountIds);
+
+    @Query("SELECT b.s3Key FROM FileBlob b " +
+            "WHERE b.refCount = 0 AND b.blobId IN (" + LIVE_BLOB_IDS_OF_ACCOUNTS + ")")
+    List<String> findUnreferencedKeysForAccounts(Collection<Long> accountIds);
+
+    @Modifying
+    @Query("DELETE FROM FileBlob b " +
+            "WHERE b.refCount = 0 AND b.blobId IN (" + LIVE_BLOB_IDS_OF_ACCOUNTS + ")")
+    int deleteUnreferencedForAccounts(Collection<Long> accountIds);
+}
@@ -0,0 +1,27 @@
+package com.example.ChatApp_Internal.repository;
+
+import com.example.ChatApp_Internal.entity.FileDerivative;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface FileDerivativeRepository extends JpaRepository<FileDerivative, Long> {
+    List<FileDerivative> findByFileId(Long fileId);
+
+    List<FileDerivative> findByFileIdIn(Collection<Long> fileIds);
+
+    @Query("SELECT d.s3Key FROM FileDerivative d, FileMetadata f " +
+            "WHERE d.fileId = f.fileId AND f.account.accountId IN :accountIds")
+    List<String> findKeysByAccountIds(Collection<Long> accountIds);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM FileDerivative d WHERE d.fileId = :fileId")
+    int deleteByFileId(Long fileId);
+}
@@ -1,23 +1,77 @@
 package com.example.ChatApp_Internal.repository;
 
+import com.example.ChatApp_Internal.dto.stats.FileTotals;
 import com.example.ChatApp_Internal.entity.FileMetadata;
+import com.example.ChatApp_Internal.entity.FileStatus;
+import com.example.ChatApp_Internal.service.FileKey;
+import com.example.ChatApp_Internal.service.PendingUpload;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
 @Repository
 public interface FileMetadataRepository extends JpaRepository<FileMetadata, Long> {
-    Optional<FileMetadata> findByS3Key(String s3Key);
+    List<FileMetadata> findByS3Key(String s3Key);
 
     Page<FileMetadata> findByAccountAccountIdAndIsDeletedFalse(Long accountId, Pageable pageable);
 
+    @Query("SELECT f FROM FileMetadata f WHERE f.account.accountId = :accountId AND f.isDeleted = false " +
+            "AND f.status = com.example.ChatApp_Internal.entity.FileStatus.READY " +
+            "ORDER BY f.createdAt DESC, f.fileId DESC")
+    List<FileMetadata> findNewestLiveFiles(Long accountId, Limit limit);
+
+    @Query("SELECT f FROM FileMetadata f WHERE f.account.accountId = :accountId AND f.isDeleted = false " +
+            "AND f.status = com.example.ChatApp_Internal.entity.FileStatus.READY " +
+            "AND f.createdAt <= :createdAt AND (f.createdAt < :createdAt OR f.fileId < :fileId) " +
+            "ORDER BY f.createdAt DESC, f.fileId DESC")
+    List<FileMetadata> findNewestLiveFilesAfter(Long accountId, Long createdAt, Long fileId, Limit limit);
+
+    long countByAccountAccountIdAndStatusAndIsDeletedFalse(Long accountId, FileStatus status);
+
     List<FileMetadata> findByAccountAccountIdAndFileTypeAndIsDeletedFalse(Long accountId, String fileType);
 
     @Query("SELECT SUM(f.fileSize) FROM FileMetadata f WHERE f.account.accountId = :accountId AND f.isDeleted = false")
     Long getTotalFileSizeByAccountId(Long accountId);
-}
\ No newline at end of file
+
+    @Query("SELECT COALESCE(SUM(f.fileSize), 0) FROM FileMetadata f " +
+            "WHERE f.account.accountId IN :accountIds AND f.isDeleted = false")
+    long sumLiveFileSizeByAccountIds(Collection<Long> accountIds);
+
+    /**
+     * Objects owned by one file rather than a shared blob: pending direct
+     * uploads, and files stored before uploads were deduplicated.
+     */
+    @Query("SELECT f.s3Key FROM FileMetadata f " +
+            "WHERE f.account.accountId IN :accountIds AND f.isDeleted = false AND f.blobId IS NULL")
+    List<String> findLiveUnsharedKeysByAccountIds(Collection<Long> accountIds);
+
+    @Query("SELECT new com.example.ChatApp_Internal.dto.stats.FileTotals(COUNT(f), " +
+            "SUM(CASE WHEN f.isDeleted = false THEN f.fileSize ELSE 0L END)) FROM FileMetadata f " +
+            "WHERE f.status = com.example.ChatApp_Internal.entity.FileStatus.READY")
+    FileTotals getFileTotals();
+
+    @Query("SELECT new com.example.ChatApp_Internal.service.FileKey(f.fileId, f.s3Key) FROM FileMetadata f " +
+            "WHERE f.fileId IN :fileIds AND f.account.accountId = :accountId AND f.isDeleted = false " +
+            "AND f.status = com.example.ChatApp_Internal.entity.FileStatus.READY")
+    List<FileKey> findLiveKeys(Collection<Long> fileIds, Long accountId);
+
+    @Query("SELECT new com.example.ChatApp_Internal.service.PendingUpload(f.fileId, f.s3Key, f.fileSize) " +
+            "FROM FileMetadata f " +
+            "WHERE f.status = com.example.ChatApp_Internal.entity.FileStatus.PENDING AND f.createdAt < :cutoff " +
+            "ORDER BY f.createdAt")
+    List<PendingUpload> findPendingCreatedBefore(Long cutoff, Limit limit);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM FileMetadata f WHERE f.fileId IN :fileIds " +
+            "AND f.status = com.example.ChatApp_Internal.entity.FileStatus.PENDING")
+    int deletePending(Collection<Long> fileIds);
+}
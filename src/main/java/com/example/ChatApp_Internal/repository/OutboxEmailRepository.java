@@ -0,0 +1,31 @@
+package com.example.ChatApp_Internal.repository;
+
+import com.example.ChatApp_Internal.entity.EmailStatus;
+import com.example.ChatApp_Internal.entity.OutboxEmail;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxEmailRepository extends JpaRepository<OutboxEmail, Long> {
+
+    /**
+     * {@code SELECT ... FOR UPDATE SKIP LOCKED}: rows another node is claiming
+     * right now are skipped instead of waited for or read twice.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEmail e WHERE e.status = :status AND e.nextAttemptAt <= :now " +
+            "ORDER BY e.nextAttemptAt, e.id")
+    List<OutboxEmail> lockDue(@Param("status") EmailStatus status, @Param("now") Long now, Pageable pageable);
+
+    long countByStatus(EmailStatus status);
+}
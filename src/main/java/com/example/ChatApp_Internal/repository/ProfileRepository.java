@@ -2,7 +2,10 @@ package com.example.ChatApp_Internal.repository;
 
 import com.example.ChatApp_Internal.entity.Profile;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -11,4 +14,25 @@ public interface ProfileRepository extends JpaRepository<Profile, Long> {
     Optional<Profile> findByUsername(String username);
 
     boolean existsByUsername(String username);
+
+    /**
+     * The taken name with the highest number among {@code base} and {@code base}
+     * followed by up to nine digits; names like "johnny" for "john" never leave
+     * the database. Without leading zeros the longest such name is the highest,
+     * and among equal lengths the last in order. {@code base} must hold only
+     * letters and digits, as it goes into the pattern as is.
+     */
+    @Query(value = "SELECT username FROM profiles WHERE username LIKE CONCAT(:base, '%') " +
+            "AND username REGEXP CONCAT('^', :base, '([1-9][0-9]{0,8})?$') " +
+            "ORDER BY CHAR_LENGTH(username) DESC, username DESC LIMIT 1", nativeQuery = true)
+    Optional<String> findHighestNumberedUsername(String base);
+
+    /**
+     * Only touches profiles still showing this file, so a thumbnail finished
+     * after the user changed avatar again is not applied.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Profile p SET p.avatarThumbnailUrl = :thumbnailUrl WHERE p.avatarFileId = :fileId")
+    int setAvatarThumbnail(Long fileId, String thumbnailUrl);
 }
@@ -1,5 +1,6 @@
 package com.example.ChatApp_Internal.repository;
 
+import com.example.ChatApp_Internal.entity.Account;
 import com.example.ChatApp_Internal.entity.RefreshContext;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
@@ -14,6 +15,18 @@ import java.util.Optional;
 public interface RefreshContextRepository extends JpaRepository<RefreshContext, Long> {
     Optional<RefreshContext> findByContextId(String contextId);
 
+    /**
+     * Compare-and-set revocation: only one caller can flip an active context.
+     */
+    @Modifying
+    @Query("UPDATE RefreshContext r SET r.revoked = true " +
+            "WHERE r.contextId = :contextId AND r.revoked = false AND r.expiryDate > :now")
+    int revokeIfActive(String contextId, Long now);
+
+    @Query("SELECT a FROM RefreshContext r JOIN r.account a " +
+            "LEFT JOIN FETCH a.profile LEFT JOIN FETCH a.roles WHERE r.contextId = :contextId")
+    Optional<Account> findAccountByContextId(String contextId);
+
     @Modifying
     @Transactional // ⚠️ cần thêm khi update/delete
     @Query("UPDATE RefreshContext r SET r.revoked = true WHERE r.account.accountId = :accountId AND r.revoked = false")
@@ -23,4 +36,21 @@ public interface RefreshContextRepository extends JpaRepository<RefreshContext,
     @Modifying
     @Query("UPDATE RefreshContext r SET r.revoked = true WHERE r.account.accountId = :accountId")
     void revokeAllByAccountId(Long accountId);
+
+    /**
+     * Same shape as {@link BlacklistedTokenRepository#deleteExpiredBatch}: the oldest
+     * rows first, at most {@code batchSize}.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM refresh_contexts WHERE id IN (SELECT id FROM (SELECT id FROM refresh_contexts " +
+            "WHERE expiry_date < :now ORDER BY expiry_date LIMIT :batchSize) batch)", nativeQuery = true)
+    int deleteExpiredBatch(long now, int batchSize);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM refresh_contexts WHERE id IN (SELECT id FROM (SELECT id FROM refresh_contexts " +
+            "WHERE revoked = true AND created_at < :cutoff ORDER BY created_at LIMIT :batchSize) batch)",
+            nativeQuery = true)
+    int deleteRevokedBatch(long cutoff, int batchSize);
 }
@@ -0,0 +1,42 @@
+package com.example.ChatApp_Internal.repository;
+
+import com.example.ChatApp_Internal.entity.WorkspaceFileQuota;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Updates run in their own transaction so the quota row is locked only for
+ * the update itself, not for the whole upload.
+ */
+@Repository
+public interface WorkspaceFileQuotaRepository extends JpaRepository<WorkspaceFileQuota, Long> {
+
+    /**
+     * @return 0 if the bytes don't fit, or there is no quota row
+     */
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query("UPDATE WorkspaceFileQuota q SET q.currentUsedBytes = q.currentUsedBytes + :bytes, q.updatedAt = :now " +
+            "WHERE q.workspaceId = :workspaceId AND q.currentUsedBytes + :bytes <= q.maxStorageBytes")
+    int tryReserve(Long workspaceId, long bytes, long now);
+
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query("UPDATE WorkspaceFileQuota q SET q.currentUsedBytes = " +
+            "CASE WHEN q.currentUsedBytes > :bytes THEN q.currentUsedBytes - :bytes ELSE 0L END, " +
+            "q.updatedAt = :now WHERE q.workspaceId = :workspaceId")
+    int release(Long workspaceId, long bytes, long now);
+
+    /**
+     * Plain insert, so a row created concurrently fails instead of being overwritten.
+     */
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(value = "INSERT INTO workspace_file_quota (workspace_id, max_storage_bytes, current_used_bytes, updated_at) " +
+            "VALUES (:workspaceId, :maxStorageBytes, 0, :now)", nativeQuery = true)
+    int create(Long workspaceId, long maxStorageBytes, long now);
+}
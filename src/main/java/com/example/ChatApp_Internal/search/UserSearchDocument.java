@@ -0,0 +1,7 @@
+package com.example.ChatApp_Internal.search;
+
+/**
+ * The searchable fields of one account.
+ */
+public record UserSearchDocument(Long accountId, String email, String username, String displayName) {
+}
@@ -0,0 +1,326 @@
+package com.example.ChatApp_Internal.search;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory trigram index over account email, username and display name.
+ * Queries of three or more characters only visit accounts containing every
+ * trigram of the query; shorter queries scan the indexed documents, which is
+ * still far cheaper than loading accounts from the database.
+ * <p>
+ * Documents are numbered in insertion order, so every posting list stays sorted
+ * and lists can be intersected by merging. An update appends a new number and
+ * leaves a tombstone; the index compacts itself once a quarter of it is
+ * tombstones. Searches share a read lock, updates take the write lock.
+ */
+public class UserSearchIndex {
+
+    private static final int MIN_COMPACT_TOMBSTONES = 1024;
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private static final Comparator<Hit> RANKING = Comparator.comparingInt(Hit::score).reversed()
+            .thenComparing(Hit::username)
+            .thenComparingLong(Hit::accountId);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private List<Entry> entries = new ArrayList<>();
+    private Map<Long, Integer> ordinals = new HashMap<>();
+    private Map<Long, IntList> postings = new HashMap<>();
+    private int tombstones;
+
+    public void replaceAll(Collection<UserSearchDocument> documents) {
+        List<Entry> newEntries = new ArrayList<>(documents.size());
+        Map<Long, Integer> newOrdinals = new HashMap<>(documents.size() * 2);
+        Map<Long, IntList> newPostings = new HashMap<>();
+        for (UserSearchDocument document : documents) {
+            Integer previous = newOrdinals.get(document.accountId());
+            if (previous != null) {
+                newEntries.set(previous, null);
+            }
+            append(Entry.of(document), newEntries, newOrdinals, newPostings);
+        }
+
+        lock.writeLock().lock();
+        try {
+            entries = newEntries;
+            ordinals = newOrdinals;
+            postings = newPostings;
+            tombstones = newEntries.size() - newOrdinals.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void upsert(UserSearchDocument document) {
+        Entry entry = Entry.of(document);
+        lock.writeLock().lock();
+        try {
+            removeLocked(document.accountId());
+            append(entry, entries, ordinals, postings);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long accountId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(accountId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Matches ranked by where the query occurs: exact username or email, then
+     * prefixes, then the start of a word in the display name, then anywhere.
+     */
+    public UserSearchResult search(String query, int offset, int limit) {
+        String q = normalize(query).trim();
+        if (q.isEmpty()) {
+            return UserSearchResult.empty();
+        }
+        int from = Math.max(offset, 0);
+        int capacity = Math.addExact(from, Math.max(limit, 0));
+        TopHits top;
+
+        lock.readLock().lock();
+        try {
+            top = new TopHits(capacity, entries.size(), " " + q);
+            if (q.length() < 3) {
+                for (int ordinal = 0; ordinal < entries.size(); ordinal++) {
+                    top.offer(entries.get(ordinal), q);
+                }
+            } else {
+                for (int ordinal : candidates(q)) {
+                    top.offer(entries.get(ordinal), q);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Hit> ranked = top.ranked();
+        List<Long> page = ranked.subList(Math.min(from, ranked.size()), ranked.size()).stream()
+                .map(Hit::accountId)
+                .toList();
+        return new UserSearchResult(page, top.total);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lower-cased with diacritics removed, so "nguyen" finds "Nguyễn".
+     */
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(value.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").replace('đ', 'd');
+    }
+
+    private int[] candidates(String q) {
+        List<IntList> lists = new ArrayList<>();
+        for (long trigram : trigrams(q)) {
+            IntList list = postings.get(trigram);
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+
+        int[] result = Arrays.copyOf(lists.get(0).values, lists.get(0).size);
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = intersect(result, lists.get(i));
+        }
+        return result;
+    }
+
+    private static int[] intersect(int[] sorted, IntList other) {
+        int[] result = new int[Math.min(sorted.length, other.size)];
+        int count = 0;
+        if (other.size > sorted.length * 16) {
+            // Much longer list (a common trigram): probe it instead of walking it
+            for (int value : sorted) {
+                if (Arrays.binarySearch(other.values, 0, other.size, value) >= 0) {
+                    result[count++] = value;
+                }
+            }
+            return Arrays.copyOf(result, count);
+        }
+
+        int i = 0;
+        int j = 0;
+        while (i < sorted.length && j < other.size) {
+            int a = sorted[i];
+            int b = other.values[j];
+            if (a == b) {
+                result[count++] = a;
+                i++;
+                j++;
+            } else if (a < b) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static int score(Entry entry, String q, String wordPrefix) {
+        if (entry.username.equals(q) || entry.email.equals(q)) {
+            return 100;
+        }
+        if (entry.username.startsWith(q)) {
+            return 80;
+        }
+        if (entry.email.startsWith(q)) {
+            return 70;
+        }
+        if (entry.displayName.startsWith(q)) {
+            return 60;
+        }
+        if (entry.displayName.contains(wordPrefix)) {
+            return 50;
+        }
+        if (entry.username.contains(q)) {
+            return 30;
+        }
+        if (entry.email.contains(q) || entry.displayName.contains(q)) {
+            return 20;
+        }
+        return 0;
+    }
+
+    private void removeLocked(Long accountId) {
+        Integer ordinal = ordinals.remove(accountId);
+        if (ordinal != null) {
+            entries.set(ordinal, null);
+            tombstones++;
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (tombstones < MIN_COMPACT_TOMBSTONES || tombstones * 4 < entries.size()) {
+            return;
+        }
+        List<Entry> live = entries.stream().filter(Objects::nonNull).toList();
+        entries = new ArrayList<>(live.size());
+        ordinals = new HashMap<>(live.size() * 2);
+        postings = new HashMap<>();
+        tombstones = 0;
+        live.forEach(entry -> append(entry, entries, ordinals, postings));
+    }
+
+    private static void append(Entry entry, List<Entry> entries, Map<Long, Integer> ordinals,
+                               Map<Long, IntList> postings) {
+        int ordinal = entries.size();
+        entries.add(entry);
+        ordinals.put(entry.accountId, ordinal);
+
+        Set<Long> trigrams = new HashSet<>();
+        trigrams.addAll(trigrams(entry.email));
+        trigrams.addAll(trigrams(entry.username));
+        trigrams.addAll(trigrams(entry.displayName));
+        for (long trigram : trigrams) {
+            postings.computeIfAbsent(trigram, key -> new IntList()).add(ordinal);
+        }
+    }
+
+    private static Set<Long> trigrams(String value) {
+        Set<Long> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= value.length(); i++) {
+            trigrams.add(((long) value.charAt(i) << 32) | ((long) value.charAt(i + 1) << 16) | value.charAt(i + 2));
+        }
+        return trigrams;
+    }
+
+    private record Entry(long accountId, String email, String username, String displayName) {
+
+        static Entry of(UserSearchDocument document) {
+            return new Entry(document.accountId(), normalize(document.email()),
+                    normalize(document.username()), normalize(document.displayName()));
+        }
+    }
+
+    private record Hit(long accountId, int score, String username) {
+    }
+
+    /**
+     * Keeps only the best {@code capacity} hits, worst at the head of the heap,
+     * while counting every match.
+     */
+    private static final class TopHits {
+        private final int capacity;
+        private final String wordPrefix;
+        private final PriorityQueue<Hit> heap;
+        private int total;
+
+        TopHits(int capacity, int entries, String wordPrefix) {
+            this.capacity = capacity;
+            this.wordPrefix = wordPrefix;
+            // Never sized beyond what could match, however large the requested page
+            this.heap = new PriorityQueue<>(Math.max(Math.min(capacity, entries), 1), RANKING.reversed());
+        }
+
+        void offer(Entry entry, String q) {
+            if (entry == null) {
+                return;
+            }
+            int score = score(entry, q, wordPrefix);
+            if (score == 0) {
+                return;
+            }
+            total++;
+            if (capacity == 0) {
+                return;
+            }
+            if (heap.size() < capacity) {
+                heap.add(new Hit(entry.accountId, score, entry.username));
+                return;
+            }
+            Hit worst = heap.peek();
+            if (score < worst.score()) {
+                return;
+            }
+            Hit hit = new Hit(entry.accountId, score, entry.username);
+            if (RANKING.compare(hit, worst) < 0) {
+                heap.poll();
+                heap.add(hit);
+            }
+        }
+
+        List<Hit> ranked() {
+            List<Hit> ranked = new ArrayList<>(heap);
+            ranked.sort(RANKING);
+            return ranked;
+        }
+    }
+
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.ChatApp_Internal.search;
+
+import java.util.List;
+
+/**
+ * One page of matching account ids, best match first, and the total number of matches.
+ */
+public record UserSearchResult(List<Long> accountIds, int total) {
+
+    public static UserSearchResult empty() {
+        return new UserSearchResult(List.of(), 0);
+    }
+}
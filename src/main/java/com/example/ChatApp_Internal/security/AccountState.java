@@ -0,0 +1,12 @@
+package com.example.ChatApp_Internal.security;
+
+/**
+ * Minimal account snapshot used to decide whether the claims in an access token
+ * can still be trusted.
+ */
+public record AccountState(Long version, Boolean active) {
+
+    public boolean isActive() {
+        return Boolean.TRUE.equals(active);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.ChatApp_Internal.security;
+
+import com.example.ChatApp_Internal.event.AccountChangedEvent;
+import com.example.ChatApp_Internal.event.AccountsChangedEvent;
+import com.example.ChatApp_Internal.repository.AccountRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived cache of {@link AccountState} keyed by email.
+ * A lookup only reaches the database once per TTL window per account.
+ */
+@Slf4j
+@Component
+public class AccountStateCache {
+
+    private final AccountRepository accountRepository;
+    private final long ttlMs;
+    private final int maxEntries;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public AccountStateCache(
+            AccountRepository accountRepository,
+            @Value("${app.jwt.account-state-ttl-ms}") long ttlMs,
+            @Value("${app.jwt.account-state-max-entries}") int maxEntries) {
+        this.accountRepository = accountRepository;
+        this.ttlMs = ttlMs;
+        this.maxEntries = maxEntries;
+    }
+
+    public Optional<AccountState> get(String email) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(email);
+        if (entry != null && entry.loadedAt + ttlMs > now) {
+            return Optional.ofNullable(entry.state);
+        }
+
+        AccountState state = accountRepository.findStateByEmail(email).orElse(null);
+        if (entries.size() >= maxEntries) {
+            // Entries are cheap to rebuild; dropping everything keeps the map bounded
+            entries.clear();
+            log.debug("Account state cache reached {} entries and was cleared", maxEntries);
+        }
+        entries.put(email, new Entry(state, now));
+        return Optional.ofNullable(state);
+    }
+
+    public void evict(String email) {
+        entries.remove(email);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountChanged(AccountChangedEvent event) {
+        evict(event.email());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountsChanged(AccountsChangedEvent event) {
+        event.changes().forEach(this::onAccountChanged);
+    }
+
+    private record Entry(AccountState state, long loadedAt) {
+    }
+}
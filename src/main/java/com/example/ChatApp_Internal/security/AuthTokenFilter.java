@@ -1,6 +1,8 @@
 package com.example.ChatApp_Internal.security;
 
-import com.example.ChatApp_Internal.repository.BlacklistedTokenRepository;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,20 +10,29 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 
 @RequiredArgsConstructor
 public class AuthTokenFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final CustomUserDetailsService userDetailsService;
-    private final BlacklistedTokenRepository blacklistedTokenRepository;
+    private final TokenRevocationIndex revocationIndex;
+    private final AccountStateCache accountStateCache;
+    private final boolean statelessAuth;
+    private final MeterRegistry meterRegistry;
 
     @Override
     protected void doFilterInternal(
@@ -29,33 +40,76 @@ public class AuthTokenFilter extends OncePerRequestFilter {
             @NonNull HttpServletResponse response,
             @NonNull FilterChain filterChain) throws ServletException, IOException {
 
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "anonymous";
         try {
             String jwt = parseJwt(request);
+            Optional<Claims> claims = jwt != null ? jwtService.parseToken(jwt) : Optional.empty();
 
-            if (jwt != null && jwtService.validateToken(jwt)
-                    && !blacklistedTokenRepository.existsByToken(jwt)) {
+            if (claims.isPresent() && !revocationIndex.isRevoked(jwt)) {
 
-                String email = jwtService.getEmailFromToken(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+                UserDetails userDetails = statelessAuth
+                        ? loadFromClaims(claims.get())
+                        : userDetailsService.loadUserByUsername(claims.get().getSubject());
 
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(
-                                userDetails,
-                                null,
-                                userDetails.getAuthorities());
+                if (userDetails != null) {
+                    UsernamePasswordAuthenticationToken authentication =
+                            new UsernamePasswordAuthenticationToken(
+                                    userDetails,
+                                    null,
+                                    userDetails.getAuthorities());
 
-                authentication.setDetails(
-                        new WebAuthenticationDetailsSource().buildDetails(request));
+                    authentication.setDetails(
+                            new WebAuthenticationDetailsSource().buildDetails(request));
 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                    outcome = "authenticated";
+                }
+            }
+            if (jwt != null && !"authenticated".equals(outcome)) {
+                outcome = "rejected";
             }
         } catch (Exception e) {
+            outcome = "error";
             logger.error("Cannot set user authentication: {}", e);
         }
+        sample.stop(meterRegistry.timer("app.auth.filter", "outcome", outcome));
 
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Build the principal from the token claims. The database is only consulted
+     * (through the user details service) when the cached account state no longer
+     * matches the version the token was issued with.
+     */
+    private UserDetails loadFromClaims(Claims claims) {
+        if (!jwtService.isAccessToken(claims)) {
+            return null;
+        }
+
+        String email = claims.getSubject();
+        AccountState state = accountStateCache.get(email).orElse(null);
+
+        if (state == null || !state.isActive()) {
+            return null;
+        }
+
+        if (!Objects.equals(state.version(), jwtService.getStateVersion(claims))) {
+            return userDetailsService.loadUserByUsername(email);
+        }
+
+        List<GrantedAuthority> authorities = jwtService.getRoles(claims).stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority("ROLE_" + role))
+                .toList();
+
+        return User.builder()
+                .username(email)
+                .password("")
+                .authorities(authorities)
+                .build();
+    }
+
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
 
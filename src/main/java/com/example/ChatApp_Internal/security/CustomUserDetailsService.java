@@ -10,7 +10,6 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -20,10 +19,19 @@ import java.util.stream.Collectors;
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final AccountRepository accountRepository;
+    private final UserDetailsCache userDetailsCache;
 
+    /**
+     * Not transactional on purpose: a cache hit must not borrow a pooled
+     * connection. Roles are fetched eagerly with the account.
+     */
     @Override
-    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+        UserDetails cached = userDetailsCache.get(email);
+        if (cached != null) {
+            return cached;
+        }
+
         Account account = accountRepository.findByEmail(email)
                 .orElseThrow(() ->
                         new UsernameNotFoundException("User not found with email: " + email));
@@ -36,7 +44,7 @@ public class CustomUserDetailsService implements UserDetailsService {
                 .map(role -> new SimpleGrantedAuthority("ROLE_" + role.getRoleName()))
                 .collect(Collectors.toList());
 
-        return User.builder()
+        UserDetails userDetails = User.builder()
                 .username(account.getEmail())
                 .password(account.getPassword() != null ? account.getPassword() : "")
                 .authorities(authorities)
@@ -45,5 +53,8 @@ public class CustomUserDetailsService implements UserDetailsService {
                 .credentialsExpired(false)
                 .disabled(!account.getIsActive())
                 .build();
+
+        userDetailsCache.put(userDetails);
+        return userDetails;
     }
 }
@@ -0,0 +1,79 @@
+package com.example.ChatApp_Internal.security;
+
+import com.example.ChatApp_Internal.config.GoogleOAuth2Properties;
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
+import com.google.api.client.googleapis.auth.oauth2.GooglePublicKeysManager;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.gson.GsonFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.List;
+
+/**
+ * One long-lived Google ID token verifier. Google's signing certificates are
+ * fetched in the background and swapped in before the cached set expires
+ * (per the certs response's Cache-Control max-age), so verifying a token is
+ * only a local signature and claims check.
+ * <p>
+ * If a background refresh fails, the current verifier refreshes itself on
+ * the next verification once its keys have actually expired.
+ */
+@Slf4j
+@Component
+public class GoogleTokenVerifier {
+
+    private final HttpTransport transport = new NetHttpTransport();
+    private final JsonFactory jsonFactory = GsonFactory.getDefaultInstance();
+    private final GoogleOAuth2Properties properties;
+    private volatile GoogleIdTokenVerifier current;
+
+    public GoogleTokenVerifier(GoogleOAuth2Properties properties) {
+        this.properties = properties;
+        this.current = newVerifier(newKeysManager());
+    }
+
+    /**
+     * @return the parsed token, or null if its signature or claims are invalid
+     */
+    public GoogleIdToken verify(String idToken) throws GeneralSecurityException, IOException {
+        return current.verify(idToken);
+    }
+
+    public long getKeysExpireAt() {
+        return current.getExpirationTimeMilliseconds();
+    }
+
+    @Scheduled(fixedDelayString = "${google.oauth2.key-refresh-check-ms}")
+    public void refreshKeysIfExpiring() {
+        if (current.getExpirationTimeMilliseconds() - System.currentTimeMillis() > properties.getKeyRefreshAheadMs()) {
+            return;
+        }
+        try {
+            // Fetch into a fresh manager so verifications never wait on the download
+            GooglePublicKeysManager keysManager = newKeysManager().refresh();
+            current = newVerifier(keysManager);
+            log.debug("Refreshed Google signing keys, valid until {}", keysManager.getExpirationTimeMilliseconds());
+        } catch (GeneralSecurityException | IOException e) {
+            log.warn("Could not refresh Google signing keys: {}", e.getMessage());
+        }
+    }
+
+    private GooglePublicKeysManager newKeysManager() {
+        return new GooglePublicKeysManager.Builder(transport, jsonFactory)
+                .setPublicCertsEncodedUrl(properties.getCertsUrl())
+                .build();
+    }
+
+    private GoogleIdTokenVerifier newVerifier(GooglePublicKeysManager keysManager) {
+        return new GoogleIdTokenVerifier.Builder(keysManager)
+                .setAudience(List.of(properties.getClientId()))
+                .build();
+    }
+}
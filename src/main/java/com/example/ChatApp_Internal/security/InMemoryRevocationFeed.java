@@ -0,0 +1,29 @@
+package com.example.ChatApp_Internal.security;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Single-JVM feed: revocations are delivered synchronously to local listeners.
+ * Multi-node deployments set {@code app.jwt.revocation-feed} and provide their own
+ * {@link RevocationFeed} bean (e.g. backed by Redis pub/sub).
+ */
+@Component
+@ConditionalOnProperty(name = "app.jwt.revocation-feed", havingValue = "local", matchIfMissing = true)
+public class InMemoryRevocationFeed implements RevocationFeed {
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(String tokenDigest, long expiresAt) {
+        listeners.forEach(listener -> listener.onRevoked(tokenDigest, expiresAt));
+    }
+
+    @Override
+    public void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+}
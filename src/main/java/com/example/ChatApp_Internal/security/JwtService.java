@@ -1,7 +1,9 @@
 package com.example.ChatApp_Internal.security;
 
+import com.example.ChatApp_Internal.util.DigestUtil;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -11,26 +13,39 @@ import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 public class JwtService {
 
     private final SecretKey key;
+    private final JwtParser parser;
+    private final ClaimsCache claimsCache;
     private final long accessTokenExpirationMs;
     private final long refreshTokenExpirationMs;
 
     public JwtService(
             @Value("${app.jwt.secret}") String secret,
             @Value("${app.jwt.access-token-expiration-ms}") long accessTokenExpirationMs,
-            @Value("${app.jwt.refresh-token-expiration-ms}") long refreshTokenExpirationMs) {
+            @Value("${app.jwt.refresh-token-expiration-ms}") long refreshTokenExpirationMs,
+            @Value("${app.jwt.claims-cache-size}") int claimsCacheSize) {
 
         this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                .verifyWith(key)
+                .build();
+        this.claimsCache = claimsCacheSize > 0 ? new ClaimsCache(claimsCacheSize) : null;
         this.accessTokenExpirationMs = accessTokenExpirationMs;
         this.refreshTokenExpirationMs = refreshTokenExpirationMs;
     }
 
-    public String generateAccessToken(String email, List<String> roles) {
+    /**
+     * Generate an access token. {@code stateVersion} is the account's
+     * {@code updatedAt} at issue time and lets the auth filter trust the
+     * embedded roles until the account changes.
+     */
+    public String generateAccessToken(String email, List<String> roles, Long stateVersion) {
         Date now = new Date();
         Date expiry = new Date(now.getTime() + accessTokenExpirationMs);
 
@@ -39,6 +54,7 @@ public class JwtService {
                 .issuedAt(now)
                 .expiration(expiry)
                 .claim("roles", roles)
+                .claim("ver", stateVersion)
                 .claim("type", "access")
                 .signWith(key, Jwts.SIG.HS256)
                 .compact();
@@ -60,22 +76,34 @@ public class JwtService {
 
     public boolean validateToken(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token);
+            getClaims(token);
             return true;
         } catch (JwtException | IllegalArgumentException ex) {
             return false;
         }
     }
 
+    /**
+     * Verify the token and return its claims, or empty if it is invalid.
+     */
+    public Optional<Claims> parseToken(String token) {
+        try {
+            return Optional.of(getClaims(token));
+        } catch (JwtException | IllegalArgumentException ex) {
+            return Optional.empty();
+        }
+    }
+
     public String getEmailFromToken(String token) {
         return getClaims(token).getSubject();
     }
 
     public List<String> getRolesFromToken(String token) {
-        Object roles = getClaims(token).get("roles");
+        return getRoles(getClaims(token));
+    }
+
+    public List<String> getRoles(Claims claims) {
+        Object roles = claims.get("roles");
         if (roles instanceof List) {
             return ((List<?>) roles).stream()
                     .map(Object::toString)
@@ -84,6 +112,15 @@ public class JwtService {
         return List.of();
     }
 
+    public Long getStateVersion(Claims claims) {
+        Object version = claims.get("ver");
+        return version instanceof Number ? ((Number) version).longValue() : null;
+    }
+
+    public boolean isAccessToken(Claims claims) {
+        return "access".equals(claims.get("type"));
+    }
+
     public String getContextIdFromToken(String token) {
         return (String) getClaims(token).get("contextId");
     }
@@ -96,11 +133,21 @@ public class JwtService {
         return refreshTokenExpirationMs;
     }
 
+    /**
+     * Verified claims for the token. The signature is checked once per token;
+     * later calls are served from the cache until the token expires.
+     */
     private Claims getClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        if (claimsCache == null) {
+            return parser.parseSignedClaims(token).getPayload();
+        }
+
+        String digest = DigestUtil.sha256(token);
+        Claims claims = claimsCache.get(digest);
+        if (claims == null) {
+            claims = parser.parseSignedClaims(token).getPayload();
+            claimsCache.put(digest, claims);
+        }
+        return claims;
     }
 }
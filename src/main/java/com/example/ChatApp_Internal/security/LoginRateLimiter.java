@@ -0,0 +1,73 @@
+package com.example.ChatApp_Internal.security;
+
+import com.example.ChatApp_Internal.exception.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-email and per-IP token buckets checked before any password hashing happens.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private final long emailCapacity;
+    private final long emailRefillPerMinute;
+    private final long ipCapacity;
+    private final long ipRefillPerMinute;
+    private final Map<String, TokenBucket> emailBuckets = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> ipBuckets = new ConcurrentHashMap<>();
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    public LoginRateLimiter(
+            @Value("${app.security.login-rate-limit.email-capacity}") long emailCapacity,
+            @Value("${app.security.login-rate-limit.email-refill-per-minute}") long emailRefillPerMinute,
+            @Value("${app.security.login-rate-limit.ip-capacity}") long ipCapacity,
+            @Value("${app.security.login-rate-limit.ip-refill-per-minute}") long ipRefillPerMinute) {
+        this.emailCapacity = emailCapacity;
+        this.emailRefillPerMinute = emailRefillPerMinute;
+        this.ipCapacity = ipCapacity;
+        this.ipRefillPerMinute = ipRefillPerMinute;
+    }
+
+    public void acquire(String email, String clientIp) {
+        TokenBucket ipBucket = ipBuckets.computeIfAbsent(clientIp,
+                key -> new TokenBucket(ipCapacity, ipRefillPerMinute));
+        if (!ipBucket.tryConsume()) {
+            // No email bucket yet, so a throttled IP cannot grow the map with made-up addresses
+            reject();
+        }
+
+        TokenBucket emailBucket = emailBuckets.computeIfAbsent(email.toLowerCase(),
+                key -> new TokenBucket(emailCapacity, emailRefillPerMinute));
+        if (!emailBucket.tryConsume()) {
+            reject();
+        }
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    int getEmailBucketCount() {
+        return emailBuckets.size();
+    }
+
+    /**
+     * Buckets that have refilled completely carry no state and can be dropped.
+     */
+    @Scheduled(fixedDelayString = "${app.security.login-rate-limit.prune-interval-ms}")
+    public void prune() {
+        emailBuckets.values().removeIf(TokenBucket::isFull);
+        ipBuckets.values().removeIf(TokenBucket::isFull);
+    }
+
+    private void reject() {
+        rejectedCount.incrementAndGet();
+        throw new TooManyRequestsException("Too many login attempts, please try again later");
+    }
+}
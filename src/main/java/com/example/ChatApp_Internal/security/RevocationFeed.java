@@ -0,0 +1,17 @@
+package com.example.ChatApp_Internal.security;
+
+/**
+ * Propagates token revocations between application nodes.
+ * Tokens are identified by their SHA-256 digest, never by the raw value.
+ */
+public interface RevocationFeed {
+
+    void publish(String tokenDigest, long expiresAt);
+
+    void subscribe(Listener listener);
+
+    @FunctionalInterface
+    interface Listener {
+        void onRevoked(String tokenDigest, long expiresAt);
+    }
+}
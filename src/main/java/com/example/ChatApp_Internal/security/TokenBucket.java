@@ -0,0 +1,39 @@
+package com.example.ChatApp_Internal.security;
+
+/**
+ * Classic token bucket: holds up to {@code capacity} tokens and refills continuously.
+ */
+class TokenBucket {
+
+    private final long capacity;
+    private final double refillPerMs;
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(long capacity, long refillPerMinute) {
+        this.capacity = capacity;
+        this.refillPerMs = refillPerMinute / 60_000.0;
+        this.tokens = capacity;
+        this.lastRefill = System.currentTimeMillis();
+    }
+
+    synchronized boolean tryConsume() {
+        refill();
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    synchronized boolean isFull() {
+        refill();
+        return tokens >= capacity;
+    }
+
+    private void refill() {
+        long now = System.currentTimeMillis();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerMs);
+        lastRefill = now;
+    }
+}
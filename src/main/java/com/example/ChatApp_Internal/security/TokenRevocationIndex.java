@@ -0,0 +1,82 @@
+package com.example.ChatApp_Internal.security;
+
+import com.example.ChatApp_Internal.event.TokenRevokedEvent;
+import com.example.ChatApp_Internal.repository.BlacklistedTokenRepository;
+import com.example.ChatApp_Internal.util.DigestUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of revoked access tokens, keyed by token digest.
+ * Replaces the per-request {@code blacklisted_tokens} lookup: a token that is not
+ * in the index is never checked against the database.
+ */
+@Slf4j
+@Component
+public class TokenRevocationIndex {
+
+    private final BlacklistedTokenRepository blacklistedTokenRepository;
+    private final RevocationFeed revocationFeed;
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    public TokenRevocationIndex(BlacklistedTokenRepository blacklistedTokenRepository,
+                                RevocationFeed revocationFeed) {
+        this.blacklistedTokenRepository = blacklistedTokenRepository;
+        this.revocationFeed = revocationFeed;
+        this.revocationFeed.subscribe(this::add);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long now = System.currentTimeMillis();
+        blacklistedTokenRepository.findActive(now)
+                .forEach(token -> add(DigestUtil.sha256(token.getToken()), token.getExpiresAt()));
+        log.info("Loaded {} revoked tokens", revoked.size());
+    }
+
+    public boolean isRevoked(String token) {
+        Long expiresAt = revoked.get(DigestUtil.sha256(token));
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    /**
+     * Record a revocation locally and announce it to other nodes.
+     */
+    public void revoke(String token, long expiresAt) {
+        String digest = DigestUtil.sha256(token);
+        add(digest, expiresAt);
+        revocationFeed.publish(digest, expiresAt);
+    }
+
+    /**
+     * Only after the blacklist row commits, so a rolled-back logout leaves no
+     * node treating the token as revoked.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTokenRevoked(TokenRevokedEvent event) {
+        revoke(event.token(), event.expiresAt());
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.revocation-prune-interval-ms}")
+    public void prune() {
+        long now = System.currentTimeMillis();
+        int before = revoked.size();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        log.debug("Pruned {} expired revocations", before - revoked.size());
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    private void add(String digest, Long expiresAt) {
+        revoked.merge(digest, expiresAt != null ? expiresAt : Long.MAX_VALUE, Math::max);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.ChatApp_Internal.security;
+
+import com.example.ChatApp_Internal.dto.response.CacheStatsResponse;
+import com.example.ChatApp_Internal.event.AccountChangedEvent;
+import com.example.ChatApp_Internal.event.AccountsChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, TTL-based cache of user details snapshots keyed by email.
+ * Entries are also evicted as soon as an {@link AccountChangedEvent} commits.
+ */
+@Component
+public class UserDetailsCache {
+
+    private final long ttlMs;
+    private final int maxEntries;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public UserDetailsCache(
+            @Value("${app.security.user-details-cache.ttl-ms}") long ttlMs,
+            @Value("${app.security.user-details-cache.max-entries}") int maxEntries) {
+        this.ttlMs = ttlMs;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Returns a fresh {@link UserDetails} copy, since the authentication manager
+     * erases credentials on the instance it is handed.
+     */
+    public UserDetails get(String email) {
+        Entry entry = entries.get(email);
+        if (entry == null || entry.expiresAt <= System.currentTimeMillis()) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return User.builder()
+                .username(entry.email)
+                .password(entry.password)
+                .authorities(entry.authorities)
+                .build();
+    }
+
+    public void put(UserDetails userDetails) {
+        if (entries.size() >= maxEntries) {
+            long now = System.currentTimeMillis();
+            entries.values().removeIf(entry -> entry.expiresAt <= now);
+            if (entries.size() >= maxEntries) {
+                evictions.addAndGet(entries.size());
+                entries.clear();
+            }
+        }
+        entries.put(userDetails.getUsername(), new Entry(
+                userDetails.getUsername(),
+                userDetails.getPassword(),
+                List.copyOf(userDetails.getAuthorities()),
+                System.currentTimeMillis() + ttlMs));
+    }
+
+    public void evict(String email) {
+        if (entries.remove(email) != null) {
+            evictions.incrementAndGet();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountChanged(AccountChangedEvent event) {
+        evict(event.email());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountsChanged(AccountsChangedEvent event) {
+        event.changes().forEach(this::onAccountChanged);
+    }
+
+    public CacheStatsResponse getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long total = hitCount + missCount;
+
+        return CacheStatsResponse.builder()
+                .name("userDetails")
+                .size(entries.size())
+                .maxSize(maxEntries)
+                .hits(hitCount)
+                .misses(missCount)
+                .evictions(evictions.get())
+                .hitRate(total > 0 ? (double) hitCount / total : 0.0)
+                .build();
+    }
+
+    private record Entry(String email, String password,
+                         List<GrantedAuthority> authorities, long expiresAt) {
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.ChatApp_Internal.service;
+
+import com.example.ChatApp_Internal.event.FileObjectsReleasedEvent;
+import com.example.ChatApp_Internal.repository.FileDerivativeRepository;
+import com.example.ChatApp_Internal.repository.FileMetadataRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Gives back what an account's files hold before the account is deleted. The
+ * file rows, and their thumbnail rows, go with the database's
+ * {@code ON DELETE CASCADE}, which would otherwise leave their bytes on the
+ * workspace quota, their blob references pinning shared objects, and the
+ * objects no blob tracks in S3 for good.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AccountFileService {
+
+    private final FileMetadataRepository fileMetadataRepository;
+    private final FileDerivativeRepository fileDerivativeRepository;
+    private final FileBlobStore fileBlobStore;
+    private final WorkspaceQuotaService workspaceQuota;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Must run in the transaction that deletes the accounts; the releases and
+     * object deletes only take effect if it commits.
+     */
+    @Transactional
+    public void releaseFiles(Collection<Long> accountIds) {
+        if (accountIds.isEmpty()) {
+            return;
+        }
+        // Pending uploads hold their reservation too, so both statuses count
+        long bytes = fileMetadataRepository.sumLiveFileSizeByAccountIds(accountIds);
+        List<String> objectKeys = new ArrayList<>(fileMetadataRepository.findLiveUnsharedKeysByAccountIds(accountIds));
+        objectKeys.addAll(fileDerivativeRepository.findKeysByAccountIds(accountIds));
+
+        // Set-based, so a chunk of accounts costs the same few statements however many files they have
+        fileBlobStore.releaseForAccounts(accountIds);
+        workspaceQuota.release(bytes);
+        if (!objectKeys.isEmpty()) {
+            eventPublisher.publishEvent(new FileObjectsReleasedEvent(objectKeys));
+        }
+        log.debug("Released {} bytes and {} unshared objects of accounts {}", bytes, objectKeys.size(), accountIds);
+    }
+}
@@ -0,0 +1,251 @@
+package com.example.ChatApp_Internal.service;
+
+import com.example.ChatApp_Internal.dto.request.BulkUserAction;
+import com.example.ChatApp_Internal.dto.request.BulkUserFilter;
+import com.example.ChatApp_Internal.dto.request.BulkUserOperationRequest;
+import com.example.ChatApp_Internal.dto.response.BulkOperationResponse;
+import com.example.ChatApp_Internal.entity.Role;
+import com.example.ChatApp_Internal.event.AccountChangedEvent;
+import com.example.ChatApp_Internal.event.AccountsChangedEvent;
+import com.example.ChatApp_Internal.repository.AccountRepository;
+import com.example.ChatApp_Internal.repository.RoleRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+/**
+ * Applies one admin action to many accounts. Ids are processed in chunks, each
+ * in its own transaction: one query reads the current state of the chunk, then
+ * set-based {@code IN} updates (or a JDBC batch for role rows) change only the
+ * accounts that need it. Listeners get a single {@link AccountsChangedEvent}
+ * per chunk after it commits.
+ * <p>
+ * Deletes remove roles and profile rows here, as the single-account path does
+ * through JPA; tokens and files go with the database's {@code ON DELETE CASCADE},
+ * after {@link AccountFileService} has given back their quota and blob references.
+ */
+@Slf4j
+@Service
+public class AdminBulkService {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AccountRepository accountRepository;
+    private final RoleRepository roleRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AccountFileService accountFileService;
+    private final int chunkSize;
+    private final int maxAccounts;
+
+    public AdminBulkService(
+            NamedParameterJdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            AccountRepository accountRepository,
+            RoleRepository roleRepository,
+            ApplicationEventPublisher eventPublisher,
+            AccountFileService accountFileService,
+            @Value("${app.admin.bulk.chunk-size}") int chunkSize,
+            @Value("${app.admin.bulk.max-accounts}") int maxAccounts) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.accountRepository = accountRepository;
+        this.roleRepository = roleRepository;
+        this.eventPublisher = eventPublisher;
+        this.accountFileService = accountFileService;
+        this.chunkSize = chunkSize;
+        this.maxAccounts = maxAccounts;
+    }
+
+    /**
+     * @param currentAccountId the admin making the request, who is never deactivated or deleted
+     */
+    @Timed("app.admin.users.bulk")
+    public BulkOperationResponse apply(BulkUserOperationRequest request, Long currentAccountId) {
+        BulkUserAction action = request.getAction();
+        List<Integer> roleIds = action == BulkUserAction.ASSIGN_ROLES ? resolveRoles(request.getRoles()) : List.of();
+        List<Long> ids = resolveIds(request);
+
+        Map<Long, BulkOperationResponse.Status> statuses = new LinkedHashMap<>();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            statuses.putAll(transactionTemplate.execute(status ->
+                    applyChunk(action, chunk, roleIds, currentAccountId)));
+        }
+
+        List<BulkOperationResponse.Result> results = new ArrayList<>(ids.size());
+        int[] counts = new int[BulkOperationResponse.Status.values().length];
+        for (Long id : ids) {
+            BulkOperationResponse.Status status = statuses.get(id);
+            results.add(new BulkOperationResponse.Result(id, status));
+            counts[status.ordinal()]++;
+        }
+
+        log.info("Bulk {} on {} accounts: {} updated, {} unchanged, {} not found, {} skipped",
+                action, ids.size(), counts[BulkOperationResponse.Status.UPDATED.ordinal()],
+                counts[BulkOperationResponse.Status.UNCHANGED.ordinal()],
+                counts[BulkOperationResponse.Status.NOT_FOUND.ordinal()],
+                counts[BulkOperationResponse.Status.SKIPPED.ordinal()]);
+
+        return BulkOperationResponse.builder()
+                .action(action)
+                .requested(ids.size())
+                .updated(counts[BulkOperationResponse.Status.UPDATED.ordinal()])
+                .unchanged(counts[BulkOperationResponse.Status.UNCHANGED.ordinal()])
+                .notFound(counts[BulkOperationResponse.Status.NOT_FOUND.ordinal()])
+                .skipped(counts[BulkOperationResponse.Status.SKIPPED.ordinal()])
+                .results(results)
+                .build();
+    }
+
+    private Map<Long, BulkOperationResponse.Status> applyChunk(
+            BulkUserAction action, List<Long> chunk, List<Integer> roleIds, Long currentAccountId) {
+        Map<Long, AccountRow> rows = loadRows(chunk);
+        Map<Long, BulkOperationResponse.Status> statuses = new HashMap<>();
+        List<Long> targets = new ArrayList<>();
+
+        for (Long id : chunk) {
+            AccountRow row = rows.get(id);
+            if (row == null) {
+                statuses.put(id, BulkOperationResponse.Status.NOT_FOUND);
+            } else if (id.equals(currentAccountId)
+                    && (action == BulkUserAction.DELETE || action == BulkUserAction.DEACTIVATE)) {
+                statuses.put(id, BulkOperationResponse.Status.SKIPPED);
+            } else if (!needsChange(action, row)) {
+                statuses.put(id, BulkOperationResponse.Status.UNCHANGED);
+            } else {
+                statuses.put(id, BulkOperationResponse.Status.UPDATED);
+                targets.add(id);
+            }
+        }
+        if (targets.isEmpty()) {
+            return statuses;
+        }
+
+        Map<String, Object> params = Map.of("ids", targets, "now", System.currentTimeMillis());
+        switch (action) {
+            case ACTIVATE -> jdbcTemplate.update(
+                    "UPDATE accounts SET is_active = TRUE, updated_at = :now WHERE account_id IN (:ids)", params);
+            case DEACTIVATE -> jdbcTemplate.update(
+                    "UPDATE accounts SET is_active = FALSE, updated_at = :now WHERE account_id IN (:ids)", params);
+            case VERIFY -> jdbcTemplate.update(
+                    "UPDATE accounts SET is_verified = TRUE, updated_at = :now WHERE account_id IN (:ids)", params);
+            case ASSIGN_ROLES -> replaceRoles(targets, roleIds, params);
+            case DELETE -> {
+                accountFileService.releaseFiles(targets);
+                jdbcTemplate.update("DELETE FROM account_roles WHERE account_id IN (:ids)", params);
+                jdbcTemplate.update("DELETE FROM profiles WHERE account_id IN (:ids)", params);
+                jdbcTemplate.update("DELETE FROM accounts WHERE account_id IN (:ids)", params);
+            }
+        }
+
+        // The caches key on email, so the event carries it for each changed account
+        eventPublisher.publishEvent(new AccountsChangedEvent(targets.stream()
+                .map(id -> new AccountChangedEvent(id, rows.get(id).email()))
+                .toList()));
+        return statuses;
+    }
+
+    /**
+     * Same semantics as the single-account endpoint: the given roles replace the
+     * current ones. Role rows go in as one JDBC batch.
+     */
+    private void replaceRoles(List<Long> targets, List<Integer> roleIds, Map<String, Object> params) {
+        jdbcTemplate.update("DELETE FROM account_roles WHERE account_id IN (:ids)", params);
+
+        List<Map<String, Object>> rows = new ArrayList<>(targets.size() * roleIds.size());
+        for (Long accountId : targets) {
+            for (Integer roleId : roleIds) {
+                rows.add(Map.of("accountId", accountId, "roleId", roleId));
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO account_roles (account_id, role_id) VALUES (:accountId, :roleId)",
+                SqlParameterSourceUtils.createBatch(rows));
+
+        // A collection-only change still bumps the version so tokens with the old roles are re-checked
+        jdbcTemplate.update("UPDATE accounts SET updated_at = :now WHERE account_id IN (:ids)", params);
+    }
+
+    private static boolean needsChange(BulkUserAction action, AccountRow row) {
+        return switch (action) {
+            case ACTIVATE -> !row.active();
+            case DEACTIVATE -> row.active();
+            case VERIFY -> !row.verified();
+            case ASSIGN_ROLES, DELETE -> true;
+        };
+    }
+
+    private Map<Long, AccountRow> loadRows(List<Long> ids) {
+        Map<Long, AccountRow> rows = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT account_id, email, is_active, is_verified FROM accounts WHERE account_id IN (:ids)",
+                Map.of("ids", ids),
+                rs -> {
+                    long id = rs.getLong("account_id");
+                    rows.put(id, new AccountRow(rs.getString("email"),
+                            rs.getBoolean("is_active"), rs.getBoolean("is_verified")));
+                });
+        return rows;
+    }
+
+    private List<Long> resolveIds(BulkUserOperationRequest request) {
+        List<Long> requested = request.getAccountIds();
+        BulkUserFilter filter = request.getFilter();
+        boolean hasIds = requested != null && !requested.isEmpty();
+        boolean hasFilter = filter != null && !filter.isEmpty();
+
+        if (hasIds == hasFilter) {
+            throw new RuntimeException("Provide either accountIds or a non-empty filter");
+        }
+
+        List<Long> ids;
+        if (hasIds) {
+            ids = requested.stream().filter(Objects::nonNull).distinct().toList();
+        } else {
+            String emailDomain = filter.getEmailDomain();
+            String role = filter.getRole();
+            ids = accountRepository.findIdsByFilter(
+                    filter.getProvider(),
+                    filter.getIsActive(),
+                    filter.getIsVerified(),
+                    emailDomain == null || emailDomain.isBlank() ? null : "%@" + escapeLike(emailDomain.trim()),
+                    role == null || role.isBlank() ? null : role.trim(),
+                    Limit.of(maxAccounts + 1));
+        }
+
+        if (ids.size() > maxAccounts) {
+            throw new RuntimeException("A bulk operation can change at most " + maxAccounts + " accounts");
+        }
+        return ids;
+    }
+
+    /**
+     * The domain is matched literally, so {@code _} or {@code %} in it is not a wildcard.
+     */
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    private List<Integer> resolveRoles(Set<String> roleNames) {
+        if (roleNames == null || roleNames.isEmpty()) {
+            throw new RuntimeException("Roles are required");
+        }
+        List<Integer> roleIds = new ArrayList<>(roleNames.size());
+        for (String roleName : roleNames) {
+            Role role = roleRepository.findByRoleName(roleName)
+                    .orElseThrow(() -> new RuntimeException("Role not found: " + roleName));
+            roleIds.add(role.getRoleId());
+        }
+        return roleIds;
+    }
+
+    private record AccountRow(String email, boolean active, boolean verified) {
+    }
+}
@@ -6,51 +6,121 @@ import com.example.ChatApp_Internal.dto.response.PageResponse;
 import com.example.ChatApp_Internal.entity.Account;
 import com.example.ChatApp_Internal.entity.Profile;
 import com.example.ChatApp_Internal.entity.Role;
+import com.example.ChatApp_Internal.event.AccountChangedEvent;
+import com.example.ChatApp_Internal.event.AccountsChangedEvent;
 import com.example.ChatApp_Internal.repository.AccountRepository;
 import com.example.ChatApp_Internal.repository.ProfileRepository;
 import com.example.ChatApp_Internal.repository.RoleRepository;
-import lombok.RequiredArgsConstructor;
+import com.example.ChatApp_Internal.search.UserSearchResult;
+import com.example.ChatApp_Internal.util.CachedValue;
+import com.example.ChatApp_Internal.util.CursorUtil;
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class AdminService {
 
     private final AccountRepository accountRepository;
     private final ProfileRepository profileRepository;
     private final RoleRepository roleRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserSearchService userSearchService;
+    private final AccountFileService accountFileService;
+    private final CachedValue<Long> accountCount;
+
+    public AdminService(
+            AccountRepository accountRepository,
+            ProfileRepository profileRepository,
+            RoleRepository roleRepository,
+            ApplicationEventPublisher eventPublisher,
+            UserSearchService userSearchService,
+            AccountFileService accountFileService,
+            @Value("${app.admin.user-count-ttl-ms}") long userCountTtlMs) {
+        this.accountRepository = accountRepository;
+        this.profileRepository = profileRepository;
+        this.roleRepository = roleRepository;
+        this.eventPublisher = eventPublisher;
+        this.userSearchService = userSearchService;
+        this.accountFileService = accountFileService;
+        this.accountCount = new CachedValue<>(accountRepository::count, userCountTtlMs);
+    }
 
+    @Timed("app.admin.users.list")
+    @Transactional(readOnly = true)
     public PageResponse<AdminUserResponse> getAllUsers(int page, int size, String sortBy, String sortDir) {
         Sort sort = sortDir.equalsIgnoreCase("asc")
                 ? Sort.by(sortBy).ascending()
                 : Sort.by(sortBy).descending();
 
         Pageable pageable = PageRequest.of(page, size, sort);
-        Page<Account> accountPage = accountRepository.findAll(pageable);
 
-        List<AdminUserResponse> users = accountPage.getContent().stream()
-                .map(this::mapToAdminUserResponse)
-                .collect(Collectors.toList());
+        // Page the ids first, then load profile and roles for exactly those rows
+        // in one query; a fetch join cannot be paged in the database
+        List<Long> ids = accountRepository.findPageIds(pageable);
+        List<AdminUserResponse> users = loadInOrder(ids);
+
+        long totalElements = accountCount.get();
+        int totalPages = size == 0 ? 1 : (int) Math.ceil((double) totalElements / size);
+
+        return PageResponse.<AdminUserResponse>builder()
+                .content(users)
+                .pageNumber(page)
+                .pageSize(size)
+                .totalElements(totalElements)
+                .totalPages(totalPages)
+                .last(page + 1 >= totalPages)
+                .build();
+    }
+
+    /**
+     * Newest-first keyset page. Unlike {@link #getAllUsers} the cost does not grow
+     * with depth, and the total is only counted when asked for.
+     */
+    @Timed("app.admin.users.list")
+    @Transactional(readOnly = true)
+    public PageResponse<AdminUserResponse> getUsersByCursor(String cursor, int size, boolean includeTotal) {
+        Limit limit = Limit.of(size + 1);
+        List<Long> ids;
+        if (cursor == null || cursor.isEmpty()) {
+            ids = accountRepository.findNewestIds(limit);
+        } else {
+            CursorUtil.Position position = CursorUtil.decode(cursor);
+            ids = accountRepository.findNewestIdsAfter(position.sortKey(), position.id(), limit);
+        }
+
+        boolean hasNext = ids.size() > size;
+        List<AdminUserResponse> users = loadInOrder(hasNext ? ids.subList(0, size) : ids);
+
+        String nextCursor = null;
+        if (hasNext && !users.isEmpty()) {
+            AdminUserResponse lastUser = users.get(users.size() - 1);
+            nextCursor = CursorUtil.encode(lastUser.getCreatedAt(), lastUser.getAccountId());
+        }
 
         return PageResponse.<AdminUserResponse>builder()
                 .content(users)
-                .pageNumber(accountPage.getNumber())
-                .pageSize(accountPage.getSize())
-                .totalElements(accountPage.getTotalElements())
-                .totalPages(accountPage.getTotalPages())
-                .last(accountPage.isLast())
+                .pageSize(size)
+                .totalElements(includeTotal ? accountCount.get() : null)
+                .last(!hasNext)
+                .nextCursor(nextCursor)
                 .build();
     }
 
@@ -61,25 +131,22 @@ public class AdminService {
         return mapToAdminUserResponse(account);
     }
 
-    public List<AdminUserResponse> searchUsers(String keyword) {
-        List<Account> accounts = accountRepository.findAll().stream()
-                .filter(account -> {
-                    String email = account.getEmail().toLowerCase();
-                    String username = account.getProfile() != null ?
-                            account.getProfile().getUsername().toLowerCase() : "";
-                    String displayName = account.getProfile() != null ?
-                            account.getProfile().getDisplayName().toLowerCase() : "";
-                    String searchTerm = keyword.toLowerCase();
-
-                    return email.contains(searchTerm) ||
-                            username.contains(searchTerm) ||
-                            displayName.contains(searchTerm);
-                })
-                .collect(Collectors.toList());
+    @Timed("app.admin.users.search")
+    @Transactional(readOnly = true)
+    public PageResponse<AdminUserResponse> searchUsers(String keyword, int page, int size) {
+        UserSearchResult result = userSearchService.search(keyword, page, size);
+        List<AdminUserResponse> users = loadInOrder(result.accountIds());
 
-        return accounts.stream()
-                .map(this::mapToAdminUserResponse)
-                .collect(Collectors.toList());
+        int totalPages = size == 0 ? 1 : (int) Math.ceil((double) result.total() / size);
+
+        return PageResponse.<AdminUserResponse>builder()
+                .content(users)
+                .pageNumber(page)
+                .pageSize(size)
+                .totalElements((long) result.total())
+                .totalPages(totalPages)
+                .last(page + 1 >= totalPages)
+                .build();
     }
 
     @Transactional
@@ -96,7 +163,11 @@ public class AdminService {
         }
 
         account.setRoles(roles);
+        // A collection-only change does not trigger @PreUpdate; bump the version
+        // so access tokens carrying the old roles are re-checked
+        account.setUpdatedAt(System.currentTimeMillis());
         accountRepository.save(account);
+        eventPublisher.publishEvent(new AccountChangedEvent(account.getAccountId(), account.getEmail()));
 
         log.info("Roles updated for user {}: {}", account.getEmail(), request.getRoles());
 
@@ -110,6 +181,7 @@ public class AdminService {
 
         account.setIsActive(true);
         accountRepository.save(account);
+        eventPublisher.publishEvent(new AccountChangedEvent(account.getAccountId(), account.getEmail()));
 
         log.info("User activated: {}", account.getEmail());
 
@@ -123,6 +195,7 @@ public class AdminService {
 
         account.setIsActive(false);
         accountRepository.save(account);
+        eventPublisher.publishEvent(new AccountChangedEvent(account.getAccountId(), account.getEmail()));
 
         log.info("User deactivated: {}", account.getEmail());
 
@@ -134,7 +207,9 @@ public class AdminService {
         Account account = accountRepository.findById(accountId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
+        accountFileService.releaseFiles(List.of(accountId));
         accountRepository.delete(account);
+        eventPublisher.publishEvent(new AccountChangedEvent(account.getAccountId(), account.getEmail()));
 
         log.info("User deleted: {}", account.getEmail());
     }
@@ -146,12 +221,40 @@ public class AdminService {
 
         account.setIsVerified(true);
         accountRepository.save(account);
+        eventPublisher.publishEvent(new AccountChangedEvent(account.getAccountId(), account.getEmail()));
 
         log.info("Email verified for user: {}", account.getEmail());
 
         return mapToAdminUserResponse(account);
     }
 
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountChanged(AccountChangedEvent event) {
+        accountCount.invalidate();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountsChanged(AccountsChangedEvent event) {
+        accountCount.invalidate();
+    }
+
+    /**
+     * Load the given accounts with profile and roles in one query, keeping the order of {@code ids}.
+     */
+    private List<AdminUserResponse> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Account> accounts = accountRepository.findAllWithProfileAndRolesByIdIn(ids).stream()
+                .collect(Collectors.toMap(Account::getAccountId, Function.identity()));
+
+        return ids.stream()
+                .map(accounts::get)
+                .filter(Objects::nonNull)
+                .map(this::mapToAdminUserResponse)
+                .collect(Collectors.toList());
+    }
+
     private AdminUserResponse mapToAdminUserResponse(Account account) {
         Profile profile = account.getProfile();
 
@@ -161,6 +264,7 @@ public class AdminService {
                 .username(profile != null ? profile.getUsername() : null)
                 .displayName(profile != null ? profile.getDisplayName() : null)
                 .avatarUrl(profile != null ? profile.getAvatarUrl() : null)
+                .avatarThumbnailUrl(profile != null ? profile.getAvatarThumbnailUrl() : null)
                 .provider(account.getProvider())
                 .isVerified(account.getIsVerified())
                 .isActive(account.getIsActive())
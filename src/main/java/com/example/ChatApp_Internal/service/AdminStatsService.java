@@ -1,50 +1,88 @@
 package com.example.ChatApp_Internal.service;
 
 import com.example.ChatApp_Internal.dto.response.SystemStatsResponse;
-import com.example.ChatApp_Internal.entity.AuthProvider;
+import com.example.ChatApp_Internal.dto.stats.AccountTotals;
+import com.example.ChatApp_Internal.dto.stats.FileTotals;
+import com.example.ChatApp_Internal.event.AccountChangedEvent;
+import com.example.ChatApp_Internal.event.AccountsChangedEvent;
+import com.example.ChatApp_Internal.event.FileDeletedEvent;
+import com.example.ChatApp_Internal.event.FileUploadedEvent;
 import com.example.ChatApp_Internal.repository.AccountRepository;
 import com.example.ChatApp_Internal.repository.FileMetadataRepository;
-import lombok.RequiredArgsConstructor;
+import com.example.ChatApp_Internal.util.CachedValue;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+/**
+ * Dashboard totals from two aggregate queries, served from a short-lived
+ * snapshot so repeated refreshes do not reach the database. Account and file
+ * changes drop the snapshot once they commit.
+ */
 @Service
-@RequiredArgsConstructor
 public class AdminStatsService {
 
     private final AccountRepository accountRepository;
     private final FileMetadataRepository fileMetadataRepository;
+    private final CachedValue<SystemStatsResponse> snapshot;
 
+    public AdminStatsService(
+            AccountRepository accountRepository,
+            FileMetadataRepository fileMetadataRepository,
+            @Value("${app.admin.stats-ttl-ms}") long statsTtlMs) {
+        this.accountRepository = accountRepository;
+        this.fileMetadataRepository = fileMetadataRepository;
+        this.snapshot = new CachedValue<>(this::computeStats, statsTtlMs);
+    }
+
+    @Timed("app.admin.stats")
     public SystemStatsResponse getSystemStats() {
-        long totalUsers = accountRepository.count();
-        long activeUsers = accountRepository.countActiveAccounts();
-        long verifiedUsers = accountRepository.findAll().stream()
-                .filter(account -> account.getIsVerified())
-                .count();
-
-        long totalFiles = fileMetadataRepository.count();
-        Long totalFileSize = fileMetadataRepository.findAll().stream()
-                .filter(file -> !file.getIsDeleted())
-                .mapToLong(file -> file.getFileSize())
-                .sum();
-
-        long localUsers = accountRepository.countByProvider(AuthProvider.LOCAL);
-        long googleUsers = accountRepository.countByProvider(AuthProvider.GOOGLE);
-        long ssoUsers = accountRepository.countByProvider(AuthProvider.SSO);
+        return snapshot.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountChanged(AccountChangedEvent event) {
+        snapshot.invalidate();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountsChanged(AccountsChangedEvent event) {
+        snapshot.invalidate();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFileUploaded(FileUploadedEvent event) {
+        snapshot.invalidate();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFileDeleted(FileDeletedEvent event) {
+        snapshot.invalidate();
+    }
+
+    private SystemStatsResponse computeStats() {
+        AccountTotals accounts = accountRepository.getAccountTotals();
+        FileTotals files = fileMetadataRepository.getFileTotals();
 
         SystemStatsResponse.ProviderStats providerStats =
                 SystemStatsResponse.ProviderStats.builder()
-                        .localUsers(localUsers)
-                        .googleUsers(googleUsers)
-                        .ssoUsers(ssoUsers)
+                        .localUsers(orZero(accounts.local()))
+                        .googleUsers(orZero(accounts.google()))
+                        .ssoUsers(orZero(accounts.sso()))
                         .build();
 
         return SystemStatsResponse.builder()
-                .totalUsers(totalUsers)
-                .activeUsers(activeUsers)
-                .verifiedUsers(verifiedUsers)
-                .totalFiles(totalFiles)
-                .totalFileSize(totalFileSize)
+                .totalUsers(orZero(accounts.total()))
+                .activeUsers(orZero(accounts.active()))
+                .verifiedUsers(orZero(accounts.verified()))
+                .totalFiles(orZero(files.total()))
+                .totalFileSize(orZero(files.liveBytes()))
                 .providerStats(providerStats)
                 .build();
     }
+
+    private static long orZero(Long value) {
+        return value != null ? value : 0L;
+    }
 }
@@ -7,18 +7,24 @@ import com.example.ChatApp_Internal.dto.request.ResetPasswordRequest;
 import com.example.ChatApp_Internal.dto.response.AuthResponse;
 import com.example.ChatApp_Internal.dto.response.UserInfo;
 import com.example.ChatApp_Internal.entity.*;
+import com.example.ChatApp_Internal.event.AccountChangedEvent;
+import com.example.ChatApp_Internal.event.TokenRevokedEvent;
+import com.example.ChatApp_Internal.exception.RefreshTokenReuseException;
 import com.example.ChatApp_Internal.repository.*;
 import com.example.ChatApp_Internal.security.JwtService;
+import com.example.ChatApp_Internal.security.LoginRateLimiter;
+import io.micrometer.core.annotation.Timed;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.Set;
@@ -39,7 +45,10 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final LoginRateLimiter loginRateLimiter;
+    private final TransactionTemplate transactionTemplate;
     private final EmailService emailService;
+    private final ApplicationEventPublisher eventPublisher;
     @Value("${app.mail.forgot_password_token-ms}")
     private Long forgotPasswordTokenMs;
     @Value("${app.mail.verify_email_token-ms}")
@@ -82,6 +91,7 @@ public class AuthService {
                 .status(UserStatus.OFFLINE)
                 .build();
         profileRepository.save(profile);
+        eventPublisher.publishEvent(new AccountChangedEvent(account.getAccountId(), account.getEmail()));
 
         // Generate verification token
         String token = UUID.randomUUID().toString();
@@ -106,16 +116,26 @@ public class AuthService {
                 .build();
     }
 
-    @Transactional
-    public AuthResponse login(LoginRequest request, HttpServletResponse response) {
+    /**
+     * Not transactional: the password check runs on the hashing pool and must
+     * not hold a database connection. The writes run in their own transaction.
+     */
+    @Timed("app.auth.login")
+    public AuthResponse login(LoginRequest request, String clientIp, HttpServletResponse response) {
+        loginRateLimiter.acquire(request.getEmail(), clientIp);
+
         // Authenticate
-        Authentication authentication = authenticationManager.authenticate(
+        authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
                         request.getEmail(),
                         request.getPassword()
                 )
         );
 
+        return transactionTemplate.execute(status -> completeLogin(request));
+    }
+
+    private AuthResponse completeLogin(LoginRequest request) {
         Account account = accountRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
@@ -129,7 +149,7 @@ public class AuthService {
                 .collect(Collectors.toList());
 
         String contextId = UUID.randomUUID().toString();
-        String accessToken = jwtService.generateAccessToken(account.getEmail(), roles);
+        String accessToken = jwtService.generateAccessToken(account.getEmail(), roles, account.getUpdatedAt());
         String refreshToken = jwtService.generateRefreshToken(account.getEmail(), contextId);
 
         refreshContextRepository.revokeAllActiveByAccountId(account.getAccountId());
@@ -165,24 +185,22 @@ public class AuthService {
     }
 
     @Transactional
+    @Timed("app.auth.refresh")
     public AuthResponse refreshToken(String refreshToken) {
         if (!jwtService.validateToken(refreshToken)) {
             throw new RuntimeException("Invalid refresh token");
         }
 
         String contextId = jwtService.getContextIdFromToken(refreshToken);
-        RefreshContext refreshContext = refreshContextRepository.findByContextId(contextId)
-                .orElseThrow(() -> new RuntimeException("Refresh context not found"));
 
-        if (refreshContext.getRevoked()) {
-            throw new RuntimeException("Refresh token has been revoked");
+        // Revoke the old context atomically; concurrent refreshes with the same
+        // token race on this update and only one of them can win
+        if (refreshContextRepository.revokeIfActive(contextId, System.currentTimeMillis()) == 0) {
+            throw new RefreshTokenReuseException("Refresh token has already been used or revoked");
         }
 
-        if (refreshContext.getExpiryDate() < System.currentTimeMillis()) {
-            throw new RuntimeException("Refresh token expired");
-        }
-
-        Account account = refreshContext.getAccount();
+        Account account = refreshContextRepository.findAccountByContextId(contextId)
+                .orElseThrow(() -> new RuntimeException("Refresh context not found"));
         List<String> roles = account.getRoles().stream()
                 .map(Role::getRoleName)
                 .collect(Collectors.toList());
@@ -192,14 +210,9 @@ public class AuthService {
         }
 
         String newContextId = UUID.randomUUID().toString();
-        String newAccessToken = jwtService.generateAccessToken(account.getEmail(), roles);
+        String newAccessToken = jwtService.generateAccessToken(account.getEmail(), roles, account.getUpdatedAt());
         String newRefreshToken = jwtService.generateRefreshToken(account.getEmail(), newContextId);
 
-        // Revoke old refresh context
-        refreshContext.setRevoked(true);
-        refreshContextRepository.save(refreshContext);
-
-
         RefreshContext newRefreshContext = RefreshContext.builder()
                 .account(account)
                 .contextId(newContextId)
@@ -219,6 +232,7 @@ public class AuthService {
     }
 
     @Transactional
+    @Timed("app.auth.logout")
     public void logout(String accessToken, String refreshToken) {
         // Blacklist access token
         if (accessToken != null && jwtService.validateToken(accessToken)) {
@@ -232,6 +246,8 @@ public class AuthService {
                     .expiresAt(jwtService.getExpirationDate(accessToken).getTime())
                     .build();
             blacklistedTokenRepository.save(blacklistedToken);
+            // Indexed and sent to other nodes once the blacklist row commits
+            eventPublisher.publishEvent(new TokenRevokedEvent(accessToken, blacklistedToken.getExpiresAt()));
 
             // Update profile status
             if (account != null && account.getProfile() != null) {
@@ -272,6 +288,7 @@ public class AuthService {
         Account account = verificationToken.getAccount();
         account.setIsVerified(true);
         accountRepository.save(account);
+        eventPublisher.publishEvent(new AccountChangedEvent(account.getAccountId(), account.getEmail()));
 
         verificationToken.setUsed(true);
         verificationTokenRepository.save(verificationToken);
@@ -316,6 +333,7 @@ public class AuthService {
         Account account = resetToken.getAccount();
         account.setPassword(passwordEncoder.encode(request.getNewPassword()));
         accountRepository.save(account);
+        eventPublisher.publishEvent(new AccountChangedEvent(account.getAccountId(), account.getEmail()));
 
         resetToken.setUsed(true);
         verificationTokenRepository.save(resetToken);
@@ -337,6 +355,7 @@ public class AuthService {
                 .username(profile != null ? profile.getUsername() : null)
                 .displayName(profile != null ? profile.getDisplayName() : null)
                 .avatarUrl(profile != null ? profile.getAvatarUrl() : null)
+                .avatarThumbnailUrl(profile != null ? profile.getAvatarThumbnailUrl() : null)
                 .bio(profile != null ? profile.getBio() : null)
                 .status(profile != null ? profile.getStatus() : UserStatus.OFFLINE)
                 .roles(roleNames)
@@ -0,0 +1,290 @@
+package com.example.ChatApp_Internal.service;
+
+import com.example.ChatApp_Internal.config.AwsS3Config;
+import com.example.ChatApp_Internal.dto.response.FileResponse;
+import com.example.ChatApp_Internal.entity.Account;
+import com.example.ChatApp_Internal.entity.FileBlob;
+import com.example.ChatApp_Internal.entity.FileMetadata;
+import com.example.ChatApp_Internal.exception.TooManyRequestsException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * {@link CompletableFuture} variants of the S3 operations, on the non-blocking
+ * {@link S3AsyncClient}. No thread waits on the network: the caller's thread
+ * only validates and starts the request, and follow-up database work runs on
+ * a small callback pool.
+ * <p>
+ * At most {@code aws.s3.async.max-in-flight} requests run at once. A caller
+ * past the limit waits up to {@code acquire-timeout-ms} for a slot and then gets
+ * a {@link TooManyRequestsException}, so overload reaches clients as 429s
+ * instead of piling up inside the SDK. A download keeps its slot until its body
+ * is closed.
+ */
+@Slf4j
+@Service
+public class AwsS3AsyncService {
+
+    private final S3AsyncClient s3AsyncClient;
+    private final AwsS3Config awsConfig;
+    private final AwsS3Service awsS3Service;
+    private final FileBlobStore fileBlobStore;
+    private final WorkspaceQuotaService workspaceQuota;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    private final long acquireTimeoutMs;
+    private final ThreadPoolExecutor callbackExecutor;
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    public AwsS3AsyncService(
+            S3AsyncClient s3AsyncClient,
+            AwsS3Config awsConfig,
+            AwsS3Service awsS3Service,
+            FileBlobStore fileBlobStore,
+            WorkspaceQuotaService workspaceQuota) {
+        this.s3AsyncClient = s3AsyncClient;
+        this.awsConfig = awsConfig;
+        this.awsS3Service = awsS3Service;
+        this.fileBlobStore = fileBlobStore;
+        this.workspaceQuota = workspaceQuota;
+        this.maxInFlight = awsConfig.getAsync().getMaxInFlight();
+        this.inFlight = new Semaphore(maxInFlight);
+        this.acquireTimeoutMs = awsConfig.getAsync().getAcquireTimeoutMs();
+        int callbackThreads = awsConfig.getAsync().getCallbackThreads();
+        // Unbounded queue, but never longer than the in-flight limit
+        this.callbackExecutor = new ThreadPoolExecutor(
+                callbackThreads, callbackThreads,
+                0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                new NamedThreadFactory());
+    }
+
+    /**
+     * Async counterpart of {@link AwsS3Service#uploadFile}. Validation, the
+     * content hash and a duplicate check run on the caller's thread; only new
+     * content is sent to S3. The file's quota is reserved first and given back
+     * if the upload fails.
+     */
+    public CompletableFuture<FileResponse> uploadFile(MultipartFile file, String folder) {
+        awsS3Service.validateFile(file);
+
+        Account account = awsS3Service.getCurrentAccount();
+        long size = file.getSize();
+        workspaceQuota.reserve(size);
+        try {
+            return uploadReserved(file, folder, account);
+        } catch (RuntimeException e) {
+            workspaceQuota.release(size);
+            throw e;
+        }
+    }
+
+    private CompletableFuture<FileResponse> uploadReserved(MultipartFile file, String folder, Account account) {
+        String fileName = file.getOriginalFilename();
+        String contentType = file.getContentType();
+        long size = file.getSize();
+
+        String sha256;
+        InputStream in;
+        try {
+            sha256 = FileBlobStore.sha256(file.getInputStream());
+            Optional<FileBlob> existing = fileBlobStore.acquire(sha256);
+            if (existing.isPresent()) {
+                log.info("Upload of {} matched stored object {}", fileName, existing.get().getS3Key());
+                return CompletableFuture.completedFuture(awsS3Service.mapToFileResponse(
+                        awsS3Service.saveUploaded(account, fileName, contentType, size, existing.get())));
+            }
+            in = file.getInputStream();
+        } catch (IOException e) {
+            log.error("Failed to upload file to S3: {}", e.getMessage());
+            throw new RuntimeException("Failed to upload file: " + e.getMessage());
+        }
+
+        String s3Key = awsS3Service.generateS3Key(folder, awsS3Service.getFileExtension(fileName));
+        CompletableFuture<PutObjectResponse> upload;
+        try {
+            upload = putObject(s3Key, contentType, size, in);
+        } catch (RuntimeException e) {
+            closeQuietly(in);
+            throw e;
+        }
+
+        return upload
+                .whenComplete((response, error) -> closeQuietly(in))
+                .thenApplyAsync(response -> {
+                    FileBlob blob = awsS3Service.registerUploaded(sha256, s3Key, size);
+                    FileMetadata fileMetadata = awsS3Service.saveUploaded(account, fileName, contentType, size, blob);
+                    log.info("File uploaded successfully: {}", blob.getS3Key());
+                    return awsS3Service.mapToFileResponse(fileMetadata);
+                }, callbackExecutor)
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        workspaceQuota.release(size);
+                    }
+                });
+    }
+
+    /**
+     * Async counterpart of {@link AwsS3Service#openDownload}. Completes once S3
+     * has answered with headers; the body then streams as the caller reads it.
+     */
+    public CompletableFuture<FileDownload> openDownload(Long fileId, String range, String ifNoneMatch) {
+        FileMetadata fileMetadata = awsS3Service.findDownloadableFile(fileId);
+
+        return getObject(awsS3Service.downloadRequest(fileMetadata, range, ifNoneMatch))
+                .handle((object, error) -> {
+                    if (error == null) {
+                        return AwsS3Service.toDownload(fileMetadata, object);
+                    }
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    if (cause instanceof S3Exception e) {
+                        return AwsS3Service.toDownload(fileMetadata, e);
+                    }
+                    log.error("Failed to download file from S3: {}", cause.getMessage());
+                    throw new RuntimeException("Failed to download file: " + cause.getMessage());
+                });
+    }
+
+    /**
+     * The body is read from {@code in} on the callback pool as the SDK asks for it.
+     */
+    public CompletableFuture<PutObjectResponse> putObject(String key, String contentType, long contentLength,
+                                                          InputStream in) {
+        return limited(() -> s3AsyncClient.putObject(PutObjectRequest.builder()
+                        .bucket(awsConfig.getBucketName())
+                        .key(key)
+                        .contentType(contentType)
+                        .contentLength(contentLength)
+                        .build(),
+                AsyncRequestBody.fromInputStream(in, contentLength, callbackExecutor)));
+    }
+
+    /**
+     * @return the object, whose slot is given back when the stream is closed or aborted
+     */
+    public CompletableFuture<ResponseInputStream<GetObjectResponse>> getObject(GetObjectRequest request) {
+        acquire();
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                inFlight.release();
+            }
+        };
+
+        try {
+            return s3AsyncClient.getObject(request, AsyncResponseTransformer.<GetObjectResponse>toBlockingInputStream())
+                    .handle((object, error) -> {
+                        if (error != null) {
+                            release.run();
+                            throw error instanceof CompletionException completion
+                                    ? completion : new CompletionException(error);
+                        }
+                        InputStream body = new FilterInputStream(object) {
+                            @Override
+                            public void close() throws IOException {
+                                try {
+                                    super.close();
+                                } finally {
+                                    release.run();
+                                }
+                            }
+                        };
+                        return new ResponseInputStream<>(object.response(), AbortableInputStream.create(body, () -> {
+                            object.abort();
+                            release.run();
+                        }));
+                    });
+        } catch (RuntimeException e) {
+            release.run();
+            throw e;
+        }
+    }
+
+    public CompletableFuture<Void> deleteObject(String key) {
+        return limited(() -> s3AsyncClient.deleteObject(DeleteObjectRequest.builder()
+                        .bucket(awsConfig.getBucketName())
+                        .key(key)
+                        .build()))
+                .thenApply(response -> null);
+    }
+
+    public int getInFlight() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        callbackExecutor.shutdown();
+    }
+
+    private <T> CompletableFuture<T> limited(Supplier<CompletableFuture<T>> request) {
+        acquire();
+        try {
+            return request.get().whenComplete((result, error) -> inFlight.release());
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    private void acquire() {
+        boolean acquired;
+        try {
+            acquired = inFlight.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejectedCount.incrementAndGet();
+            throw new TooManyRequestsException("Too many concurrent file transfers, please retry");
+        }
+    }
+
+    private static void closeQuietly(InputStream in) {
+        try {
+            in.close();
+        } catch (IOException e) {
+            log.debug("Failed to close upload body: {}", e.getMessage());
+        }
+    }
+
+    private static class NamedThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "s3-async-callback-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -2,33 +2,59 @@ package com.example.ChatApp_Internal.service;
 
 import com.example.ChatApp_Internal.config.AwsS3Config;
 import com.example.ChatApp_Internal.config.UploadConfig;
+import com.example.ChatApp_Internal.dto.request.InitiateUploadRequest;
+import com.example.ChatApp_Internal.dto.response.FileResponse;
+import com.example.ChatApp_Internal.dto.response.PageResponse;
+import com.example.ChatApp_Internal.dto.response.UploadTicketResponse;
 import com.example.ChatApp_Internal.entity.Account;
+import com.example.ChatApp_Internal.entity.FileBlob;
+import com.example.ChatApp_Internal.entity.FileDerivative;
 import com.example.ChatApp_Internal.entity.FileMetadata;
+import com.example.ChatApp_Internal.entity.FileStatus;
+import com.example.ChatApp_Internal.event.FileDeletedEvent;
+import com.example.ChatApp_Internal.event.FileUploadedEvent;
 import com.example.ChatApp_Internal.repository.AccountRepository;
+import com.example.ChatApp_Internal.repository.FileDerivativeRepository;
 import com.example.ChatApp_Internal.repository.FileMetadataRepository;
-import lombok.RequiredArgsConstructor;
+import com.example.ChatApp_Internal.util.CursorUtil;
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpRange;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.core.ResponseInputStream;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
 import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.time.Duration;
-import java.util.UUID;
+import java.util.*;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class AwsS3Service {
 
     private final S3Client s3Client;
@@ -37,85 +63,507 @@ public class AwsS3Service {
     private final UploadConfig uploadConfig;
     private final FileMetadataRepository fileMetadataRepository;
     private final AccountRepository accountRepository;
+    private final S3MultipartUploader multipartUploader;
+    private final PresignedUrlCache presignedUrlCache;
+    private final FileBlobStore fileBlobStore;
+    private final FileDerivativeRepository fileDerivativeRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final WorkspaceQuotaService workspaceQuota;
+    private final int maxPresignBatch;
+    private final int uploadUrlExpirationMinutes;
+
+    public AwsS3Service(
+            S3Client s3Client,
+            S3Presigner s3Presigner,
+            AwsS3Config awsConfig,
+            UploadConfig uploadConfig,
+            FileMetadataRepository fileMetadataRepository,
+            AccountRepository accountRepository,
+            S3MultipartUploader multipartUploader,
+            PresignedUrlCache presignedUrlCache,
+            FileBlobStore fileBlobStore,
+            FileDerivativeRepository fileDerivativeRepository,
+            ApplicationEventPublisher eventPublisher,
+            WorkspaceQuotaService workspaceQuota,
+            @Value("${app.files.presign.max-batch}") int maxPresignBatch,
+            @Value("${app.files.upload.url-expiration-minutes}") int uploadUrlExpirationMinutes) {
+        this.s3Client = s3Client;
+        this.s3Presigner = s3Presigner;
+        this.awsConfig = awsConfig;
+        this.uploadConfig = uploadConfig;
+        this.fileMetadataRepository = fileMetadataRepository;
+        this.accountRepository = accountRepository;
+        this.multipartUploader = multipartUploader;
+        this.presignedUrlCache = presignedUrlCache;
+        this.fileBlobStore = fileBlobStore;
+        this.fileDerivativeRepository = fileDerivativeRepository;
+        this.eventPublisher = eventPublisher;
+        this.workspaceQuota = workspaceQuota;
+        this.maxPresignBatch = maxPresignBatch;
+        this.uploadUrlExpirationMinutes = uploadUrlExpirationMinutes;
+    }
 
-    @Transactional
+    /**
+     * Identical content is stored once: a file whose SHA-256 matches an existing
+     * blob just takes another reference to it, without a PUT.
+     * <p>
+     * Runs outside a transaction, so no connection is held during the transfer
+     * and the quota update never waits for a second one; the metadata row is
+     * written in its own short transaction once S3 has the object.
+     */
+    @Timed("app.s3.upload")
     public FileMetadata uploadFile(MultipartFile file, String folder) {
         validateFile(file);
-
         Account currentAccount = getCurrentAccount();
 
-        // Generate S3 key
+        workspaceQuota.reserve(file.getSize());
+        try {
+            return uploadReserved(file, folder, currentAccount);
+        } catch (RuntimeException e) {
+            workspaceQuota.release(file.getSize());
+            throw e;
+        }
+    }
+
+    private FileMetadata uploadReserved(MultipartFile file, String folder, Account currentAccount) {
         String fileName = file.getOriginalFilename();
-        String extension = getFileExtension(fileName);
-        String s3Key = generateS3Key(folder, extension);
 
         try {
-            // Upload to S3
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+            // The multipart body is already on local disk or in memory, so hashing
+            // it first costs a local read and lets a duplicate skip the PUT
+            String sha256 = FileBlobStore.sha256(file.getInputStream());
+            FileBlob blob = fileBlobStore.acquire(sha256).orElse(null);
+
+            if (blob == null) {
+                String s3Key = generateS3Key(folder, getFileExtension(fileName));
+                PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                        .bucket(awsConfig.getBucketName())
+                        .key(s3Key)
+                        .contentType(file.getContentType())
+                        .contentLength(file.getSize())
+                        .build();
+
+                s3Client.putObject(putObjectRequest,
+                        RequestBody.fromInputStream(file.getInputStream(), file.getSize()));
+                blob = registerUploaded(sha256, s3Key, file.getSize());
+            } else {
+                log.info("Upload of {} matched stored object {}", fileName, blob.getS3Key());
+            }
+
+            FileMetadata fileMetadata = saveUploaded(currentAccount, fileName, file.getContentType(), file.getSize(), blob);
+
+            log.info("File uploaded successfully: {}", blob.getS3Key());
+            return fileMetadata;
+
+        } catch (IOException e) {
+            log.error("Failed to upload file to S3: {}", e.getMessage());
+            throw new RuntimeException("Failed to upload file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * First half of a direct upload: checks the declared name and size, records
+     * the file as {@link FileStatus#PENDING} and returns a presigned PUT for a
+     * new key. The bytes go from the client straight to S3. Like
+     * {@link #uploadFile}, the quota is reserved before any transaction opens.
+     */
+    public UploadTicketResponse initiateUpload(InitiateUploadRequest request, String folder) {
+        return initiateUpload(request, folder, uploadConfig.getAllowedExtensionsList());
+    }
+
+    public UploadTicketResponse initiateImageUpload(InitiateUploadRequest request, String folder) {
+        return initiateUpload(request, folder, uploadConfig.getAllowedImageExtensionsList());
+    }
+
+    /**
+     * Second half of a direct upload: a HEAD confirms the object exists with the
+     * declared size before the file is marked {@link FileStatus#READY}. Calling
+     * it again for a finished upload just returns the file.
+     */
+    @Transactional
+    @Timed("app.s3.upload.complete")
+    public FileMetadata completeUpload(Long fileId, String folder) {
+        FileMetadata fileMetadata = fileMetadataRepository.findById(fileId)
+                .orElseThrow(() -> new RuntimeException("File not found"));
+
+        if (!fileMetadata.getAccount().getAccountId().equals(getCurrentAccount().getAccountId())
+                || !fileMetadata.getS3Key().startsWith(folder + "/")) {
+            throw new RuntimeException("You don't have permission to complete this upload");
+        }
+        if (fileMetadata.getIsDeleted()) {
+            throw new RuntimeException("File has been deleted");
+        }
+        if (fileMetadata.getStatus() == FileStatus.READY) {
+            return fileMetadata;
+        }
+
+        HeadObjectResponse head;
+        try {
+            head = s3Client.headObject(HeadObjectRequest.builder()
                     .bucket(awsConfig.getBucketName())
-                    .key(s3Key)
-                    .contentType(file.getContentType())
-                    .contentLength(file.getSize())
-                    .build();
+                    .key(fileMetadata.getS3Key())
+                    .build());
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                throw new RuntimeException("File has not been uploaded yet");
+            }
+            throw new RuntimeException("Failed to verify upload: " + e.getMessage());
+        }
 
-            s3Client.putObject(putObjectRequest,
-                    RequestBody.fromInputStream(file.getInputStream(), file.getSize()));
+        if (!fileMetadata.getFileSize().equals(head.contentLength())) {
+            // The pending row is left for the cleanup job
+            s3Client.deleteObject(DeleteObjectRequest.builder()
+                    .bucket(awsConfig.getBucketName())
+                    .key(fileMetadata.getS3Key())
+                    .build());
+            throw new RuntimeException("Uploaded file does not match the declared size");
+        }
+
+        fileMetadata.setStatus(FileStatus.READY);
+        if (head.contentType() != null) {
+            fileMetadata.setContentType(head.contentType());
+            fileMetadata.setFileType(determineFileType(head.contentType()));
+        }
+        fileMetadataRepository.save(fileMetadata);
+        publishUploaded(fileMetadata);
+
+        log.info("Direct upload completed: {}", fileMetadata.getS3Key());
+        return fileMetadata;
+    }
+
+    private UploadTicketResponse initiateUpload(InitiateUploadRequest request, String folder,
+                                                List<String> allowedExtensions) {
+        if (request.getFileSize() > uploadConfig.getMaxFileSize()) {
+            throw new RuntimeException("File size exceeds maximum limit of " +
+                    (uploadConfig.getMaxFileSize() / 1024 / 1024) + "MB");
+        }
+        String extension = getFileExtension(request.getFileName()).toLowerCase();
+        if (!allowedExtensions.contains(extension)) {
+            throw new RuntimeException("File type not allowed: " + extension);
+        }
 
-            // Generate public URL
-            String fileUrl = String.format("%s/%s", awsConfig.getBaseUrl(), s3Key);
+        Account currentAccount = getCurrentAccount();
+        String contentType = request.getContentType() != null && !request.getContentType().isBlank()
+                ? request.getContentType()
+                : "application/octet-stream";
+        String s3Key = generateS3Key(folder, extension);
 
-            // Save metadata
-            FileMetadata fileMetadata = FileMetadata.builder()
+        workspaceQuota.reserve(request.getFileSize());
+        FileMetadata fileMetadata;
+        try {
+            fileMetadata = fileMetadataRepository.save(FileMetadata.builder()
                     .account(currentAccount)
                     .s3Key(s3Key)
-                    .originalFileName(fileName)
-                    .contentType(file.getContentType())
-                    .fileSize(file.getSize())
-                    .fileType(determineFileType(file.getContentType()))
-                    .url(fileUrl)
+                    .originalFileName(request.getFileName())
+                    .contentType(contentType)
+                    .fileSize(request.getFileSize())
+                    .fileType(determineFileType(contentType))
+                    .url(String.format("%s/%s", awsConfig.getBaseUrl(), s3Key))
+                    .status(FileStatus.PENDING)
                     .isDeleted(false)
-                    .build();
+                    .build());
+        } catch (RuntimeException e) {
+            workspaceQuota.release(request.getFileSize());
+            throw e;
+        }
+
+        // Content type and length are signed, so S3 rejects a different body
+        PresignedPutObjectRequest presigned = s3Presigner.presignPutObject(PutObjectPresignRequest.builder()
+                .signatureDuration(Duration.ofMinutes(uploadUrlExpirationMinutes))
+                .putObjectRequest(PutObjectRequest.builder()
+                        .bucket(awsConfig.getBucketName())
+                        .key(s3Key)
+                        .contentType(contentType)
+                        .contentLength(request.getFileSize())
+                        .build())
+                .build());
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        presigned.signedHeaders().forEach((name, values) -> {
+            if (!name.equalsIgnoreCase("host")) {
+                headers.put(name, String.join(",", values));
+            }
+        });
+
+        return UploadTicketResponse.builder()
+                .fileId(fileMetadata.getFileId())
+                .uploadUrl(presigned.url().toString())
+                .method(presigned.httpRequest().method().name())
+                .headers(headers)
+                .expiresAt(presigned.expiration().toEpochMilli())
+                .build();
+    }
 
+    /**
+     * Uploads a raw request body of any size up to {@code upload.stream-max-file-size}
+     * without buffering it whole. Runs outside a transaction so no connection is held
+     * while bytes arrive; the metadata row is written once S3 has the object.
+     */
+    @Timed("app.s3.upload.stream")
+    public FileResponse uploadStream(InputStream in, String fileName, String contentType, String folder) {
+        String extension = validateExtension(fileName);
+        Account currentAccount = getCurrentAccount();
+        String s3Key = generateS3Key(folder, extension);
+
+        // The hash is only known once the body has been read, so a duplicate is
+        // still uploaded once and then dropped in favour of the stored copy
+        MessageDigest digest = FileBlobStore.newDigest();
+        // The length is unknown up front, so quota is reserved as the body arrives
+        WorkspaceQuotaService.ReservingInputStream body =
+                workspaceQuota.reserveWhileReading(new DigestInputStream(in, digest));
+        long size;
+        try {
+            size = multipartUploader.upload(awsConfig.getBucketName(), s3Key, contentType,
+                    body, uploadConfig.getStreamMaxFileSize());
+        } catch (RuntimeException e) {
+            workspaceQuota.release(body.getReserved());
+            throw e;
+        }
+        workspaceQuota.release(body.getReserved() - size);
+        String sha256 = FileBlobStore.hex(digest);
+
+        FileMetadata fileMetadata;
+        try {
+            FileBlob blob = fileBlobStore.acquire(sha256).orElse(null);
+            if (blob != null) {
+                fileBlobStore.deleteObject(s3Key);
+                log.info("Streamed upload of {} matched stored object {}", fileName, blob.getS3Key());
+            } else {
+                blob = registerUploaded(sha256, s3Key, size);
+            }
+            fileMetadata = saveUploaded(currentAccount, fileName, contentType, size, blob);
+        } catch (RuntimeException e) {
+            workspaceQuota.release(size);
+            throw e;
+        }
+
+        log.info("File streamed successfully: {} ({} bytes)", fileMetadata.getS3Key(), size);
+        return mapToFileResponse(fileMetadata);
+    }
+
+    /**
+     * Records a file for a blob the caller already holds a reference to. Runs
+     * without a surrounding transaction, so the reference is released if the
+     * row cannot be written.
+     */
+    FileMetadata saveUploaded(Account account, String fileName, String contentType, long size, FileBlob blob) {
+        FileMetadata fileMetadata = FileMetadata.builder()
+                .account(account)
+                .s3Key(blob.getS3Key())
+                .blobId(blob.getBlobId())
+                .originalFileName(fileName)
+                .contentType(contentType)
+                .fileSize(size)
+                .fileType(determineFileType(contentType))
+                .url(String.format("%s/%s", awsConfig.getBaseUrl(), blob.getS3Key()))
+                .isDeleted(false)
+                .build();
+        try {
             fileMetadataRepository.save(fileMetadata);
+        } catch (RuntimeException e) {
+            // Don't keep a reference nothing points at
+            fileBlobStore.release(blob.getBlobId());
+            throw e;
+        }
+        publishUploaded(fileMetadata);
+        return fileMetadata;
+    }
 
-            log.info("File uploaded successfully: {}", s3Key);
-            return fileMetadata;
+    /**
+     * Records an object just uploaded under a new key. If an identical upload
+     * registered first, this copy is deleted and the existing blob used instead.
+     * The uploads call it outside a transaction, so registering takes no
+     * second connection; inside one the new reference only survives if it commits.
+     */
+    FileBlob registerUploaded(String sha256, String s3Key, long size) {
+        try {
+            FileBlob blob = fileBlobStore.register(sha256, s3Key, size);
+            fileBlobStore.releaseOnRollback(blob);
+            return blob;
+        } catch (DataIntegrityViolationException e) {
+            fileBlobStore.deleteObject(s3Key);
+            return fileBlobStore.acquire(sha256)
+                    .orElseThrow(() -> new RuntimeException("Upload conflicted with a concurrent delete, please retry"));
+        }
+    }
 
-        } catch (IOException e) {
-            log.error("Failed to upload file to S3: {}", e.getMessage());
-            throw new RuntimeException("Failed to upload file: " + e.getMessage());
+    /**
+     * Opens one of the current user's files for streaming. A single byte range and
+     * {@code If-None-Match} are handed to S3, which only sends the requested bytes
+     * and answers 304 itself, so neither case reads the object here. Other range
+     * forms (several ranges, bad syntax) are ignored and the whole file is sent.
+     */
+    @Timed("app.s3.download")
+    public FileDownload openDownload(Long fileId, String range, String ifNoneMatch) {
+        FileMetadata fileMetadata = findDownloadableFile(fileId);
+        try {
+            return toDownload(fileMetadata, s3Client.getObject(downloadRequest(fileMetadata, range, ifNoneMatch)));
+        } catch (S3Exception e) {
+            return toDownload(fileMetadata, e);
         }
     }
 
-    public byte[] downloadFile(Long fileId) {
+    /**
+     * The current user's completed, undeleted file, or an exception saying why not.
+     */
+    FileMetadata findDownloadableFile(Long fileId) {
         FileMetadata fileMetadata = fileMetadataRepository.findById(fileId)
                 .orElseThrow(() -> new RuntimeException("File not found"));
 
         if (fileMetadata.getIsDeleted()) {
             throw new RuntimeException("File has been deleted");
         }
+        if (fileMetadata.getStatus() != FileStatus.READY) {
+            throw new RuntimeException("File upload has not been completed");
+        }
+        if (!fileMetadata.getAccount().getAccountId().equals(getCurrentAccount().getAccountId())) {
+            throw new RuntimeException("You don't have permission to download this file");
+        }
+        return fileMetadata;
+    }
 
-        try {
-            GetObjectRequest getObjectRequest = GetObjectRequest.builder()
-                    .bucket(awsConfig.getBucketName())
-                    .key(fileMetadata.getS3Key())
-                    .build();
+    GetObjectRequest downloadRequest(FileMetadata fileMetadata, String range, String ifNoneMatch) {
+        return GetObjectRequest.builder()
+                .bucket(awsConfig.getBucketName())
+                .key(fileMetadata.getS3Key())
+                .range(singleRange(range))
+                .ifNoneMatch(ifNoneMatch)
+                .build();
+    }
 
-            return s3Client.getObjectAsBytes(getObjectRequest).asByteArray();
+    static FileDownload toDownload(FileMetadata fileMetadata, ResponseInputStream<GetObjectResponse> object) {
+        GetObjectResponse response = object.response();
+        return new FileDownload(
+                response.contentRange() != null ? 206 : 200,
+                response.eTag(),
+                response.contentType() != null ? response.contentType()
+                        : Objects.requireNonNullElse(fileMetadata.getContentType(), "application/octet-stream"),
+                fileMetadata.getOriginalFileName(),
+                response.contentLength(),
+                response.contentRange(),
+                object);
+    }
 
-        } catch (Exception e) {
-            log.error("Failed to download file from S3: {}", e.getMessage());
-            throw new RuntimeException("Failed to download file: " + e.getMessage());
+    /**
+     * Maps the errors S3 uses for "nothing to send" to a body-less download;
+     * anything else is rethrown.
+     */
+    static FileDownload toDownload(FileMetadata fileMetadata, S3Exception e) {
+        if (e.statusCode() == 304) {
+            String eTag = e.awsErrorDetails() == null ? null : e.awsErrorDetails().sdkHttpResponse()
+                    .firstMatchingHeader("ETag").orElse(null);
+            return FileDownload.withoutBody(304, eTag, null);
         }
+        if (e.statusCode() == 416) {
+            return FileDownload.withoutBody(416, null, "bytes */" + fileMetadata.getFileSize());
+        }
+        log.error("Failed to download file from S3: {}", e.getMessage());
+        throw new RuntimeException("Failed to download file: " + e.getMessage());
+    }
+
+    /**
+     * The current user's files, newest first, one keyset page at a time.
+     */
+    @Transactional(readOnly = true)
+    public PageResponse<FileResponse> listFiles(String cursor, int size, boolean includeTotal) {
+        Long accountId = getCurrentAccount().getAccountId();
+        Limit limit = Limit.of(size + 1);
+
+        List<FileMetadata> files;
+        if (cursor == null || cursor.isEmpty()) {
+            files = fileMetadataRepository.findNewestLiveFiles(accountId, limit);
+        } else {
+            CursorUtil.Position position = CursorUtil.decode(cursor);
+            files = fileMetadataRepository.findNewestLiveFilesAfter(
+                    accountId, position.sortKey(), position.id(), limit);
+        }
+
+        boolean hasNext = files.size() > size;
+        if (hasNext) {
+            files = files.subList(0, size);
+        }
+
+        String nextCursor = null;
+        if (hasNext && !files.isEmpty()) {
+            FileMetadata lastFile = files.get(files.size() - 1);
+            nextCursor = CursorUtil.encode(lastFile.getCreatedAt(), lastFile.getFileId());
+        }
+
+        // One query for the thumbnails of the whole page
+        Map<Long, Map<Integer, String>> thumbnails = files.isEmpty() ? Map.of()
+                : fileDerivativeRepository.findByFileIdIn(files.stream().map(FileMetadata::getFileId).toList())
+                        .stream()
+                        .collect(Collectors.groupingBy(FileDerivative::getFileId,
+                                Collectors.toMap(FileDerivative::getSizePx, this::derivativeUrl)));
+
+        return PageResponse.<FileResponse>builder()
+                .content(files.stream()
+                        .map(file -> mapToFileResponse(file, thumbnails.getOrDefault(file.getFileId(), Map.of())))
+                        .toList())
+                .pageSize(size)
+                .totalElements(includeTotal
+                        ? fileMetadataRepository.countByAccountAccountIdAndStatusAndIsDeletedFalse(accountId, FileStatus.READY)
+                        : null)
+                .last(!hasNext)
+                .nextCursor(nextCursor)
+                .build();
     }
 
+    /**
+     * Cached per caller, file and lifetime, see {@link PresignedUrlCache}. A hit
+     * was signed for this caller after the ownership check, so it is returned
+     * without reading the file or the account.
+     */
     public String generatePresignedUrl(Long fileId, int expirationMinutes) {
-        FileMetadata fileMetadata = fileMetadataRepository.findById(fileId)
-                .orElseThrow(() -> new RuntimeException("File not found"));
+        validateExpiration(expirationMinutes);
+        String caller = getCurrentEmail();
 
+        String cached = presignedUrlCache.get(caller, fileId, expirationMinutes);
+        if (cached != null) {
+            return cached;
+        }
+        FileMetadata fileMetadata = findDownloadableFile(fileId);
+        return presign(caller, fileId, fileMetadata.getS3Key(), expirationMinutes);
+    }
+
+    /**
+     * URLs for many of the current user's files with one query for the cache
+     * misses, e.g. every attachment in a channel. Unknown, deleted and other
+     * users' files are left out.
+     */
+    public Map<Long, String> generatePresignedUrls(Collection<Long> fileIds, int expirationMinutes) {
+        validateExpiration(expirationMinutes);
+        Set<Long> uniqueIds = new LinkedHashSet<>(fileIds);
+        if (uniqueIds.size() > maxPresignBatch) {
+            throw new RuntimeException("At most " + maxPresignBatch + " files can be signed at once");
+        }
+
+        String caller = getCurrentEmail();
+        Map<Long, String> urls = new LinkedHashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long fileId : uniqueIds) {
+            String cached = presignedUrlCache.get(caller, fileId, expirationMinutes);
+            if (cached != null) {
+                urls.put(fileId, cached);
+            } else {
+                misses.add(fileId);
+            }
+        }
+        if (misses.isEmpty()) {
+            return urls;
+        }
+
+        Long accountId = getCurrentAccount().getAccountId();
+        for (FileKey file : fileMetadataRepository.findLiveKeys(misses, accountId)) {
+            urls.put(file.fileId(), presign(caller, file.fileId(), file.s3Key(), expirationMinutes));
+        }
+        return urls;
+    }
+
+    private String presign(String caller, Long fileId, String s3Key, int expirationMinutes) {
         GetObjectRequest getObjectRequest = GetObjectRequest.builder()
                 .bucket(awsConfig.getBucketName())
-                .key(fileMetadata.getS3Key())
+                .key(s3Key)
                 .build();
 
         GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
@@ -125,7 +573,16 @@ public class AwsS3Service {
 
         PresignedGetObjectRequest presignedRequest = s3Presigner.presignGetObject(presignRequest);
 
-        return presignedRequest.url().toString();
+        String url = presignedRequest.url().toString();
+        presignedUrlCache.put(caller, fileId, expirationMinutes, url, presignedRequest.expiration().toEpochMilli());
+        return url;
+    }
+
+    private static void validateExpiration(int expirationMinutes) {
+        // SigV4 signatures are valid for at most seven days
+        if (expirationMinutes < 1 || expirationMinutes > 7 * 24 * 60) {
+            throw new RuntimeException("Expiration must be between 1 minute and 7 days");
+        }
     }
 
     @Transactional
@@ -139,20 +596,31 @@ public class AwsS3Service {
         if (!fileMetadata.getAccount().getAccountId().equals(currentAccount.getAccountId())) {
             throw new RuntimeException("You don't have permission to delete this file");
         }
+        if (fileMetadata.getIsDeleted()) {
+            throw new RuntimeException("File has been deleted");
+        }
 
         try {
-            // Delete from S3
-            DeleteObjectRequest deleteObjectRequest = DeleteObjectRequest.builder()
-                    .bucket(awsConfig.getBucketName())
-                    .key(fileMetadata.getS3Key())
-                    .build();
-
-            s3Client.deleteObject(deleteObjectRequest);
+            if (fileMetadata.getBlobId() != null) {
+                // The object goes once no other file shares it
+                fileBlobStore.release(fileMetadata.getBlobId());
+            } else {
+                DeleteObjectRequest deleteObjectRequest = DeleteObjectRequest.builder()
+                        .bucket(awsConfig.getBucketName())
+                        .key(fileMetadata.getS3Key())
+                        .build();
+
+                s3Client.deleteObject(deleteObjectRequest);
+            }
 
             // Mark as deleted in database
             fileMetadata.setIsDeleted(true);
             fileMetadata.setDeletedAt(System.currentTimeMillis());
             fileMetadataRepository.save(fileMetadata);
+            presignedUrlCache.evict(fileId);
+            // Applied once the delete commits
+            workspaceQuota.release(fileMetadata.getFileSize());
+            eventPublisher.publishEvent(new FileDeletedEvent(fileId));
 
             log.info("File deleted successfully: {}", fileMetadata.getS3Key());
 
@@ -162,7 +630,7 @@ public class AwsS3Service {
         }
     }
 
-    private void validateFile(MultipartFile file) {
+    void validateFile(MultipartFile file) {
         if (file.isEmpty()) {
             throw new RuntimeException("File is empty");
         }
@@ -172,19 +640,38 @@ public class AwsS3Service {
                     (uploadConfig.getMaxFileSize() / 1024 / 1024) + "MB");
         }
 
-        String extension = getFileExtension(file.getOriginalFilename()).toLowerCase();
+        validateExtension(file.getOriginalFilename());
+    }
+
+    private String validateExtension(String fileName) {
+        String extension = getFileExtension(fileName).toLowerCase();
         if (!uploadConfig.getAllowedExtensionsList().contains(extension)) {
             throw new RuntimeException("File type not allowed: " + extension);
         }
+        return extension;
     }
 
-    private String generateS3Key(String folder, String extension) {
+    /**
+     * @return the header to forward to S3, or null to send the whole object
+     */
+    private static String singleRange(String range) {
+        if (range == null) {
+            return null;
+        }
+        try {
+            return HttpRange.parseRanges(range).size() == 1 ? range.trim() : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    String generateS3Key(String folder, String extension) {
         String uuid = UUID.randomUUID().toString();
         long timestamp = System.currentTimeMillis();
         return String.format("%s/%d-%s.%s", folder, timestamp, uuid, extension);
     }
 
-    private String getFileExtension(String fileName) {
+    String getFileExtension(String fileName) {
         if (fileName == null || !fileName.contains(".")) {
             return "";
         }
@@ -213,11 +700,42 @@ public class AwsS3Service {
         return "OTHER";
     }
 
-    private Account getCurrentAccount() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String email = auth.getName();
-        return accountRepository.findByEmail(email)
+    /**
+     * Thumbnails are rendered in the background by {@link ImageDerivativeService}.
+     */
+    private void publishUploaded(FileMetadata file) {
+        eventPublisher.publishEvent(new FileUploadedEvent(file.getFileId(), file.getS3Key(), file.getContentType()));
+    }
+
+    private String derivativeUrl(FileDerivative derivative) {
+        return String.format("%s/%s", awsConfig.getBaseUrl(), derivative.getS3Key());
+    }
+
+    public FileResponse mapToFileResponse(FileMetadata file) {
+        return mapToFileResponse(file, Map.of());
+    }
+
+    private FileResponse mapToFileResponse(FileMetadata file, Map<Integer, String> thumbnails) {
+        return FileResponse.builder()
+                .fileId(file.getFileId())
+                .originalFileName(file.getOriginalFileName())
+                .contentType(file.getContentType())
+                .fileSize(file.getFileSize())
+                .fileType(file.getFileType())
+                .url(file.getUrl())
+                .createdAt(file.getCreatedAt())
+                .thumbnails(thumbnails)
+                .build();
+    }
+
+    Account getCurrentAccount() {
+        return accountRepository.findByEmail(getCurrentEmail())
                 .orElseThrow(() -> new RuntimeException("Account not found"));
     }
 
+    private static String getCurrentEmail() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth.getName();
+    }
+
 }
@@ -0,0 +1,197 @@
+package com.example.ChatApp_Internal.service;
+
+import com.example.ChatApp_Internal.entity.EmailStatus;
+import com.example.ChatApp_Internal.entity.OutboxEmail;
+import com.example.ChatApp_Internal.repository.OutboxEmailRepository;
+import com.example.ChatApp_Internal.util.CachedValue;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the email outbox in batches. Each batch goes through a single
+ * {@link JavaMailSender#send(SimpleMailMessage...)} call, which opens one SMTP
+ * connection for all of its messages. Delivered rows are deleted; failed rows
+ * are retried with exponential backoff until {@code max-attempts} is reached,
+ * after which they are kept as FAILED for inspection.
+ * <p>
+ * Several nodes can run the dispatcher. A batch is claimed before it is sent:
+ * the rows are locked with {@code SKIP LOCKED} and their next attempt pushed
+ * {@code claim-timeout-ms} ahead, so no other node picks them up. If a node dies
+ * mid-batch, its claim runs out and the rows are sent again.
+ */
+@Slf4j
+@Service
+public class EmailOutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 512;
+
+    private final OutboxEmailRepository outboxEmailRepository;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final String fromEmail;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final long claimTimeoutMs;
+
+    private final CachedValue<Long> pendingCount;
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    public EmailOutboxDispatcher(
+            OutboxEmailRepository outboxEmailRepository,
+            JavaMailSender mailSender,
+            TransactionTemplate transactionTemplate,
+            @Value("${spring.mail.username}") String fromEmail,
+            @Value("${app.mail.outbox.batch-size}") int batchSize,
+            @Value("${app.mail.outbox.max-attempts}") int maxAttempts,
+            @Value("${app.mail.outbox.initial-backoff-ms}") long initialBackoffMs,
+            @Value("${app.mail.outbox.max-backoff-ms}") long maxBackoffMs,
+            @Value("${app.mail.outbox.claim-timeout-ms}") long claimTimeoutMs,
+            @Value("${app.mail.outbox.pending-count-ttl-ms}") long pendingCountTtlMs) {
+        this.outboxEmailRepository = outboxEmailRepository;
+        this.mailSender = mailSender;
+        this.transactionTemplate = transactionTemplate;
+        this.fromEmail = fromEmail;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.claimTimeoutMs = claimTimeoutMs;
+        this.pendingCount = new CachedValue<>(
+                () -> outboxEmailRepository.countByStatus(EmailStatus.PENDING), pendingCountTtlMs);
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval-ms}")
+    public void dispatch() {
+        List<OutboxEmail> batch;
+        do {
+            batch = claimDue();
+            if (!batch.isEmpty()) {
+                deliver(batch);
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    /**
+     * Locks the next due rows and moves them out of reach of other nodes. The
+     * transaction ends before anything is sent, so no lock is held over SMTP.
+     */
+    List<OutboxEmail> claimDue() {
+        return transactionTemplate.execute(status -> {
+            long now = System.currentTimeMillis();
+            List<OutboxEmail> due = outboxEmailRepository.lockDue(
+                    EmailStatus.PENDING, now, PageRequest.of(0, batchSize));
+            due.forEach(email -> email.setNextAttemptAt(now + claimTimeoutMs));
+            return due;
+        });
+    }
+
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * Rows still waiting to be sent, counted at most once per TTL so metric
+     * scrapes do not each run a query.
+     */
+    public long getPendingCount() {
+        return pendingCount.get();
+    }
+
+    private void deliver(List<OutboxEmail> batch) {
+        SimpleMailMessage[] messages = batch.stream()
+                .map(this::toMessage)
+                .toArray(SimpleMailMessage[]::new);
+
+        Map<Object, Exception> failures = Map.of();
+        MailException batchFailure = null;
+        try {
+            mailSender.send(messages);
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages();
+        } catch (MailException e) {
+            // Authentication or configuration problem: nothing was sent
+            batchFailure = e;
+        }
+
+        List<OutboxEmail> sent = new ArrayList<>();
+        List<OutboxEmail> retry = new ArrayList<>();
+        long now = System.currentTimeMillis();
+
+        for (int i = 0; i < messages.length; i++) {
+            OutboxEmail email = batch.get(i);
+            Exception error = batchFailure != null ? batchFailure : failures.get(messages[i]);
+            if (error == null) {
+                sent.add(email);
+            } else {
+                markFailedAttempt(email, error, now);
+                retry.add(email);
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            outboxEmailRepository.deleteAllInBatch(sent);
+            outboxEmailRepository.saveAll(retry);
+        });
+
+        sentCount.addAndGet(sent.size());
+        failedCount.addAndGet(retry.size());
+        pendingCount.invalidate();
+
+        if (!retry.isEmpty()) {
+            log.warn("Email outbox batch: {} sent, {} failed", sent.size(), retry.size());
+        } else {
+            log.debug("Email outbox batch: {} sent", sent.size());
+        }
+    }
+
+    private void markFailedAttempt(OutboxEmail email, Exception error, long now) {
+        int attempts = email.getAttempts() + 1;
+        email.setAttempts(attempts);
+        email.setLastError(truncate(error.getMessage()));
+
+        if (attempts >= maxAttempts) {
+            email.setStatus(EmailStatus.FAILED);
+            log.error("Giving up on email {} to {} after {} attempts", email.getId(), email.getRecipient(), attempts);
+            return;
+        }
+
+        long backoff = initialBackoffMs << Math.min(attempts - 1, 30);
+        email.setNextAttemptAt(now + Math.min(backoff, maxBackoffMs));
+    }
+
+    private SimpleMailMessage toMessage(OutboxEmail email) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(fromEmail);
+        message.setTo(email.getRecipient());
+        message.setSubject(email.getSubject());
+        message.setText(email.getBody());
+        return message;
+    }
+
+    private String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -1,18 +1,23 @@
 package com.example.ChatApp_Internal.service;
 
+import com.example.ChatApp_Internal.entity.OutboxEmail;
+import com.example.ChatApp_Internal.repository.OutboxEmailRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+/**
+ * Composes outgoing emails and writes them to the outbox. The row joins the
+ * caller's transaction, so it is only delivered if that transaction commits;
+ * {@link EmailOutboxDispatcher} does the actual SMTP work.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class EmailService {
 
-    private final JavaMailSender mailSender;
+    private final OutboxEmailRepository outboxEmailRepository;
 
     @Value("${app.base-url}")
     private String baseUrl;
@@ -20,52 +25,40 @@ public class EmailService {
     @Value("${app.frontend-url}")
     private String frontendUrl;
 
-    @Value("${spring.mail.username}")
-    private String fromEmail;
-
     public void sendVerificationEmail(String to, String token) {
-        try {
-            String subject = "Email Verification - Internal Chat System";
-            String verificationUrl = frontendUrl + "/verify-email?token=" + token;
+        String subject = "Email Verification - Internal Chat System";
+        String verificationUrl = frontendUrl + "/verify-email?token=" + token;
 
-            String text = "Welcome to Internal Chat System!\n\n" +
-                    "Please click the link below to verify your email address:\n" +
-                    verificationUrl + "\n\n" +
-                    "This link will expire in 24 hours.\n\n" +
-                    "If you didn't create an account, please ignore this email.";
+        String text = "Welcome to Internal Chat System!\n\n" +
+                "Please click the link below to verify your email address:\n" +
+                verificationUrl + "\n\n" +
+                "This link will expire in 24 hours.\n\n" +
+                "If you didn't create an account, please ignore this email.";
 
-            sendEmail(to, subject, text);
-            log.info("Verification email sent to: {}", to);
-        } catch (Exception e) {
-            log.error("Failed to send verification email to: {}", to, e);
-        }
+        enqueue(to, subject, text);
+        log.info("Verification email queued for: {}", to);
     }
 
     public void sendPasswordResetEmail(String to, String token) {
-        try {
-            String subject = "Password Reset Request - Internal Chat System";
-            String resetUrl = frontendUrl + "/reset-password?token=" + token;
+        String subject = "Password Reset Request - Internal Chat System";
+        String resetUrl = frontendUrl + "/reset-password?token=" + token;
 
-            String text = "Hello,\n\n" +
-                    "We received a request to reset your password.\n\n" +
-                    "Please click the link below to reset your password:\n" +
-                    resetUrl + "\n\n" +
-                    "This link will expire in 1 hour.\n\n" +
-                    "If you didn't request a password reset, please ignore this email.";
+        String text = "Hello,\n\n" +
+                "We received a request to reset your password.\n\n" +
+                "Please click the link below to reset your password:\n" +
+                resetUrl + "\n\n" +
+                "This link will expire in 1 hour.\n\n" +
+                "If you didn't request a password reset, please ignore this email.";
 
-            sendEmail(to, subject, text);
-            log.info("Password reset email sent to: {}", to);
-        } catch (Exception e) {
-            log.error("Failed to send password reset email to: {}", to, e);
-        }
+        enqueue(to, subject, text);
+        log.info("Password reset email queued for: {}", to);
     }
 
-    private void sendEmail(String to, String subject, String text) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom(fromEmail);
-        message.setTo(to);
-        message.setSubject(subject);
-        message.setText(text);
-        mailSender.send(message);
+    private void enqueue(String to, String subject, String text) {
+        outboxEmailRepository.save(OutboxEmail.builder()
+                .recipient(to)
+                .subject(subject)
+                .body(text)
+                .build());
     }
 }
\ No newline at end of file
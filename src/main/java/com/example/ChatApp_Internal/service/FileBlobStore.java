@@ -0,0 +1,227 @@
+package com.example.ChatApp_Internal.service;
+
+import com.example.ChatApp_Internal.config.AwsS3Config;
+import com.example.ChatApp_Internal.entity.FileBlob;
+import com.example.ChatApp_Internal.event.FileBlobReleasedEvent;
+import com.example.ChatApp_Internal.event.FileObjectsReleasedEvent;
+import com.example.ChatApp_Internal.repository.FileBlobRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.Delete;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reference-counted, content-addressed S3 objects. Files with the same SHA-256
+ * share one object; it is deleted after the transaction that drops the last
+ * reference commits.
+ * <p>
+ * Counts only change through conditional updates, so a reference taken while
+ * the blob is being released fails instead of pointing at a deleted object.
+ */
+@Slf4j
+@Component
+public class FileBlobStore {
+
+    /**
+     * The most keys S3 accepts in one DeleteObjects request.
+     */
+    static final int MAX_KEYS_PER_DELETE = 1000;
+
+    private final FileBlobRepository fileBlobRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final S3Client s3Client;
+    private final AwsS3Config awsConfig;
+    private final TransactionTemplate newTransaction;
+
+    public FileBlobStore(
+            FileBlobRepository fileBlobRepository,
+            ApplicationEventPublisher eventPublisher,
+            S3Client s3Client,
+            AwsS3Config awsConfig,
+            PlatformTransactionManager transactionManager) {
+        this.fileBlobRepository = fileBlobRepository;
+        this.eventPublisher = eventPublisher;
+        this.s3Client = s3Client;
+        this.awsConfig = awsConfig;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Adds a reference to the blob with this content, if there is one.
+     */
+    @Transactional
+    public Optional<FileBlob> acquire(String sha256) {
+        return fileBlobRepository.findBySha256(sha256)
+                .filter(blob -> fileBlobRepository.incrementIfReferenced(blob.getBlobId()) == 1);
+    }
+
+    /**
+     * Records a newly stored object with one reference. The uploads call it
+     * outside a transaction, before the metadata row is written; inside one it
+     * joins it rather than taking a second connection, and losing a race on the
+     * content hash ({@link org.springframework.dao.DataIntegrityViolationException})
+     * then marks that transaction rollback-only.
+     */
+    @Transactional
+    public FileBlob register(String sha256, String s3Key, long fileSize) {
+        return fileBlobRepository.saveAndFlush(FileBlob.builder()
+                .sha256(sha256)
+                .s3Key(s3Key)
+                .fileSize(fileSize)
+                .refCount(1)
+                .build());
+    }
+
+    /**
+     * Undoes {@link #register} if the caller's transaction rolls back. A
+     * registration made inside that transaction is rolled back with it and
+     * leaves just the object; one that committed on its own is released.
+     */
+    public void releaseOnRollback(FileBlob blob) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    return;
+                }
+                try {
+                    // The finished transaction can no longer write
+                    newTransaction.executeWithoutResult(tx -> {
+                        if (fileBlobRepository.existsById(blob.getBlobId())) {
+                            release(blob.getBlobId());
+                        } else {
+                            eventPublisher.publishEvent(new FileBlobReleasedEvent(blob.getS3Key()));
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    log.error("Failed to release blob {} after rollback: {}", blob.getBlobId(), e.getMessage());
+                }
+            }
+        });
+    }
+
+    @Transactional
+    public void release(Long blobId) {
+        Optional<FileBlob> blob = fileBlobRepository.findById(blobId);
+        if (blob.isEmpty() || fileBlobRepository.decrement(blobId) == 0) {
+            return;
+        }
+        if (fileBlobRepository.deleteIfUnreferenced(blobId) == 1) {
+            eventPublisher.publishEvent(new FileBlobReleasedEvent(blob.get().getS3Key()));
+        }
+    }
+
+    /**
+     * {@link #release} for every live file of these accounts at once: one
+     * grouped decrement and one delete of the blobs left unreferenced, however
+     * many files there are. Must run before the file rows are deleted.
+     */
+    @Transactional
+    public void releaseForAccounts(Collection<Long> accountIds) {
+        if (fileBlobRepository.decrementForAccounts(accountIds) == 0) {
+            return;
+        }
+        List<String> s3Keys = fileBlobRepository.findUnreferencedKeysForAccounts(accountIds);
+        if (s3Keys.isEmpty()) {
+            return;
+        }
+        fileBlobRepository.deleteUnreferencedForAccounts(accountIds);
+        eventPublisher.publishEvent(new FileObjectsReleasedEvent(s3Keys));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBlobReleased(FileBlobReleasedEvent event) {
+        deleteObject(event.s3Key());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onObjectsReleased(FileObjectsReleasedEvent event) {
+        deleteObjects(event.s3Keys());
+    }
+
+    /**
+     * Like {@link #deleteObject}, but with one DeleteObjects call per
+     * {@value #MAX_KEYS_PER_DELETE} keys.
+     */
+    public void deleteObjects(List<String> s3Keys) {
+        for (int from = 0; from < s3Keys.size(); from += MAX_KEYS_PER_DELETE) {
+            List<String> batch = s3Keys.subList(from, Math.min(from + MAX_KEYS_PER_DELETE, s3Keys.size()));
+            try {
+                s3Client.deleteObjects(DeleteObjectsRequest.builder()
+                        .bucket(awsConfig.getBucketName())
+                        .delete(Delete.builder()
+                                .objects(batch.stream()
+                                        .map(key -> ObjectIdentifier.builder().key(key).build())
+                                        .toList())
+                                .quiet(true)
+                                .build())
+                        .build());
+                log.debug("Deleted {} unreferenced objects", batch.size());
+            } catch (RuntimeException e) {
+                log.warn("Failed to delete {} unreferenced objects: {}", batch.size(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * For objects that were uploaded but never registered, such as the copy
+     * that lost a race to an identical upload.
+     */
+    public void deleteObject(String s3Key) {
+        try {
+            s3Client.deleteObject(DeleteObjectRequest.builder()
+                    .bucket(awsConfig.getBucketName())
+                    .key(s3Key)
+                    .build());
+            log.debug("Deleted unreferenced object {}", s3Key);
+        } catch (RuntimeException e) {
+            log.warn("Failed to delete unreferenced object {}: {}", s3Key, e.getMessage());
+        }
+    }
+
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static String hex(MessageDigest digest) {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public static String sha256(InputStream in) throws IOException {
+        MessageDigest digest = newDigest();
+        try (DigestInputStream digestStream = new DigestInputStream(in, digest)) {
+            digestStream.transferTo(OutputStream.nullOutputStream());
+        }
+        return hex(digest);
+    }
+}
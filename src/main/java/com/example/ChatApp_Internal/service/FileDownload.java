@@ -0,0 +1,55 @@
+package com.example.ChatApp_Internal.service;
+
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An open S3 object, or the status to answer with when there is nothing to send
+ * (304, 416). The body is copied through a fixed 16KB buffer, so a download
+ * costs the same heap whatever the file size.
+ *
+ * @param body null unless there is content to send
+ */
+public record FileDownload(
+        int status,
+        String eTag,
+        String contentType,
+        String fileName,
+        long contentLength,
+        String contentRange,
+        ResponseInputStream<GetObjectResponse> body) implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    public static FileDownload withoutBody(int status, String eTag, String contentRange) {
+        return new FileDownload(status, eTag, null, null, 0, contentRange, null);
+    }
+
+    public boolean hasBody() {
+        return body != null;
+    }
+
+    public void transferTo(OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try {
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException | RuntimeException e) {
+            // Closing would drain the rest of the object to reuse the connection
+            body.abort();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (body != null) {
+            body.close();
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.ChatApp_Internal.service;
+
+/**
+ * The S3 location of a live file, without the rest of its metadata.
+ */
+public record FileKey(Long fileId, String s3Key) {
+}
@@ -0,0 +1,100 @@
+package com.example.ChatApp_Internal.service;
+
+import com.example.ChatApp_Internal.config.GoogleHttpClientConfig;
+import com.example.ChatApp_Internal.exception.TooManyRequestsException;
+import com.example.ChatApp_Internal.exception.UpstreamUnavailableException;
+import com.example.ChatApp_Internal.util.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Guards calls to Google: at most {@code max-in-flight} run at once, a circuit
+ * breaker stops calling after repeated timeouts or 5xx responses, and each call
+ * is timed as {@code app.google.http} tagged by endpoint and outcome.
+ * A 4xx response means Google is reachable, so it does not count as a failure.
+ */
+@Component
+public class GoogleApiClient {
+
+    private final RestTemplate restTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    private final long acquireTimeoutMs;
+    private final CircuitBreaker circuitBreaker;
+
+    public GoogleApiClient(RestTemplate googleRestTemplate, MeterRegistry meterRegistry, GoogleHttpClientConfig config) {
+        this.restTemplate = googleRestTemplate;
+        this.meterRegistry = meterRegistry;
+        this.maxInFlight = config.getMaxInFlight();
+        this.inFlight = new Semaphore(maxInFlight);
+        this.acquireTimeoutMs = config.getAcquireTimeoutMs();
+        this.circuitBreaker = new CircuitBreaker(config.getBreakerFailureThreshold(), config.getBreakerOpenMs());
+    }
+
+    public <T> T exchange(String endpoint, String url, HttpMethod method, HttpEntity<?> entity, Class<T> responseType) {
+        long start = System.nanoTime();
+        if (!acquire()) {
+            record(endpoint, "rejected", start);
+            throw new TooManyRequestsException("Too many concurrent Google sign-in requests, please retry");
+        }
+        String outcome = "io_error";
+        try {
+            if (!circuitBreaker.allowRequest()) {
+                outcome = "circuit_open";
+                throw new UpstreamUnavailableException("Google sign-in is temporarily unavailable");
+            }
+            T body = restTemplate.exchange(url, method, entity, responseType).getBody();
+            circuitBreaker.recordSuccess();
+            outcome = "success";
+            return body;
+        } catch (HttpClientErrorException e) {
+            circuitBreaker.recordSuccess();
+            outcome = "client_error";
+            throw e;
+        } catch (RestClientException e) {
+            // Timeouts, connection failures and 5xx responses
+            circuitBreaker.recordFailure();
+            outcome = e instanceof HttpServerErrorException ? "server_error" : "io_error";
+            throw e;
+        } finally {
+            inFlight.release();
+            record(endpoint, outcome, start);
+        }
+    }
+
+    public int getInFlight() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    private boolean acquire() {
+        try {
+            return inFlight.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void record(String endpoint, String outcome, long startNanos) {
+        Timer.builder("app.google.http")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -7,6 +7,7 @@ import com.example.ChatApp_Internal.dto.request.GoogleIdTokenRequest;
 import com.example.ChatApp_Internal.dto.response.AuthResponse;
 import com.example.ChatApp_Internal.dto.response.UserInfo;
 import com.example.ChatApp_Internal.entity.*;
+import com.example.ChatApp_Internal.event.AccountChangedEvent;
 import com.example.ChatApp_Internal.repository.AccountRepository;
 import com.example.ChatApp_Internal.repository.ProfileRepository;
 import com.example.ChatApp_Internal.repository.RefreshContextRepository;
@@ -15,12 +16,15 @@ import com.example.ChatApp_Internal.security.JwtService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -28,12 +32,16 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class GoogleAuthService {
 
+    private static final int MAX_SIGN_IN_ATTEMPTS = 8;
+
     private final AccountRepository accountRepository;
     private final ProfileRepository profileRepository;
     private final RoleRepository roleRepository;
     private final RefreshContextRepository refreshContextRepository;
     private final JwtService jwtService;
     private final GoogleOAuth2Service googleOAuth2Service;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
 
     @Value("${app.frontend-oauth-redirect}")
     private String frontendOAuthRedirect;
@@ -41,7 +49,6 @@ public class GoogleAuthService {
     /**
      * Authenticate with Google using authorization code
      */
-    @Transactional
     public AuthResponse authenticateWithGoogle(GoogleAuthRequest request) {
         // Exchange code for token
         GoogleTokenResponse tokenResponse = googleOAuth2Service.exchangeCodeForToken(
@@ -53,31 +60,50 @@ public class GoogleAuthService {
         GoogleUserInfo googleUser = googleOAuth2Service.getUserInfo(tokenResponse.getAccessToken());
 
         // Process user (create or login)
-        return processGoogleUser(googleUser);
+        return signIn(googleUser);
     }
 
     /**
      * Authenticate with Google using ID token (for frontend direct flow)
      */
-    @Transactional
     public AuthResponse authenticateWithIdToken(GoogleIdTokenRequest request) {
         // Verify and decode ID token
         GoogleUserInfo googleUser = googleOAuth2Service.verifyIdToken(request.getIdToken());
 
         // Process user (create or login)
-        return processGoogleUser(googleUser);
+        return signIn(googleUser);
+    }
+
+    /**
+     * Runs the database part of a sign-in in its own transaction, after the calls
+     * to Google. A concurrent sign-up can take the same email or username between
+     * our read and our insert; the unique index rejects it and the whole
+     * transaction is retried, finding the other account or a free name.
+     */
+    private AuthResponse signIn(GoogleUserInfo googleUser) {
+        for (int attempt = 1; ; attempt++) {
+            int currentAttempt = attempt;
+            try {
+                return transactionTemplate.execute(status -> processGoogleUser(googleUser, currentAttempt));
+            } catch (DataIntegrityViolationException e) {
+                if (attempt >= MAX_SIGN_IN_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Google sign-in for {} collided with a concurrent sign-up, retrying", googleUser.getEmail());
+            }
+        }
     }
 
     /**
      * Process Google user - create new account or login existing
      */
-    private AuthResponse processGoogleUser(GoogleUserInfo googleUser) {
+    private AuthResponse processGoogleUser(GoogleUserInfo googleUser, int attempt) {
         Account account = accountRepository.findByEmail(googleUser.getEmail())
                 .orElse(null);
 
         if (account == null) {
             // Create new account
-            account = createGoogleAccount(googleUser);
+            account = createGoogleAccount(googleUser, attempt);
             log.info("New Google account created: {}", googleUser.getEmail());
         } else {
             // Verify provider
@@ -99,7 +125,7 @@ public class GoogleAuthService {
                 .collect(Collectors.toList());
 
         String contextId = UUID.randomUUID().toString();
-        String accessToken = jwtService.generateAccessToken(account.getEmail(), roles);
+        String accessToken = jwtService.generateAccessToken(account.getEmail(), roles, account.getUpdatedAt());
         String refreshToken = jwtService.generateRefreshToken(account.getEmail(), contextId);
 
         refreshContextRepository.revokeAllActiveByAccountId(account.getAccountId());
@@ -132,7 +158,7 @@ public class GoogleAuthService {
     /**
      * Create new account from Google user info
      */
-    private Account createGoogleAccount(GoogleUserInfo googleUser) {
+    private Account createGoogleAccount(GoogleUserInfo googleUser, int attempt) {
         Account account = Account.builder()
                 .email(googleUser.getEmail())
                 .password(null) // No password for OAuth users
@@ -149,7 +175,7 @@ public class GoogleAuthService {
         account = accountRepository.save(account);
 
         // Create profile
-        String username = generateUniqueUsername(googleUser.getEmail(), googleUser.getGivenName());
+        String username = generateUniqueUsername(googleUser.getEmail(), googleUser.getGivenName(), attempt);
 
         Profile profile = Profile.builder()
                 .account(account)
@@ -159,6 +185,7 @@ public class GoogleAuthService {
                 .status(UserStatus.OFFLINE)
                 .build();
         profileRepository.save(profile);
+        eventPublisher.publishEvent(new AccountChangedEvent(account.getAccountId(), account.getEmail()));
 
         return account;
     }
@@ -176,6 +203,8 @@ public class GoogleAuthService {
             if (googleUser.getPicture() != null &&
                     !googleUser.getPicture().equals(profile.getAvatarUrl())) {
                 profile.setAvatarUrl(googleUser.getPicture());
+                profile.setAvatarFileId(null);
+                profile.setAvatarThumbnailUrl(null);
                 updated = true;
             }
 
@@ -188,15 +217,18 @@ public class GoogleAuthService {
 
             if (updated) {
                 profileRepository.save(profile);
+                eventPublisher.publishEvent(new AccountChangedEvent(account.getAccountId(), account.getEmail()));
                 log.info("Updated profile for Google user: {}", googleUser.getEmail());
             }
         }
     }
 
     /**
-     * Generate unique username from email and name
+     * Generate unique username from email and name. The first attempt takes the
+     * next number; a retry after a collision picks at random from a window past
+     * it, so sign-ups racing for the same name stop colliding with each other.
      */
-    private String generateUniqueUsername(String email, String givenName) {
+    private String generateUniqueUsername(String email, String givenName, int attempt) {
         String baseUsername;
 
         if (givenName != null && !givenName.isEmpty()) {
@@ -210,16 +242,22 @@ public class GoogleAuthService {
             baseUsername = "user" + baseUsername;
         }
 
-        // Check if username exists
-        String username = baseUsername;
-        int counter = 1;
-
-        while (profileRepository.existsByUsername(username)) {
-            username = baseUsername + counter;
-            counter++;
+        // The next number is one past the highest taken as base or base + number
+        String base = baseUsername;
+        int next = profileRepository.findHighestNumberedUsername(base)
+                .map(taken -> suffixOf(taken, base) + 1)
+                .orElse(0);
+        if (attempt > 1) {
+            next += ThreadLocalRandom.current().nextInt(attempt * 8);
         }
+        return next == 0 ? baseUsername : baseUsername + next;
+    }
 
-        return username;
+    /**
+     * The numeric suffix of {@code username} after {@code base}, 0 for the bare base.
+     */
+    private static int suffixOf(String username, String base) {
+        return username.length() == base.length() ? 0 : Integer.parseInt(username.substring(base.length()));
     }
 
     /**
@@ -236,6 +274,7 @@ public class GoogleAuthService {
                 .username(profile != null ? profile.getUsername() : null)
                 .displayName(profile != null ? profile.getDisplayName() : null)
                 .avatarUrl(profile != null ? profile.getAvatarUrl() : null)
+                .avatarThumbnailUrl(profile != null ? profile.getAvatarThumbnailUrl() : null)
                 .bio(profile != null ? profile.getBio() : null)
                 .status(profile != null ? profile.getStatus() : UserStatus.OFFLINE)
                 .roles(roleNames)
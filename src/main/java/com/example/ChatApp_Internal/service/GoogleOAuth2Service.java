@@ -3,30 +3,24 @@ package com.example.ChatApp_Internal.service;
 import com.example.ChatApp_Internal.config.GoogleOAuth2Properties;
 import com.example.ChatApp_Internal.dto.google.GoogleTokenResponse;
 import com.example.ChatApp_Internal.dto.google.GoogleUserInfo;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.ChatApp_Internal.exception.TooManyRequestsException;
+import com.example.ChatApp_Internal.exception.UpstreamUnavailableException;
+import com.example.ChatApp_Internal.security.GoogleTokenVerifier;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
-import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
-import com.google.api.client.http.javanet.NetHttpTransport;
-import com.google.api.client.json.gson.GsonFactory;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
-import org.springframework.web.client.RestTemplate;
-
-import java.util.Collections;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class GoogleOAuth2Service {
-    private static final String GOOGLE_TOKEN_URL = "https://oauth2.googleapis.com/token";
-    private static final String GOOGLE_USERINFO_URL = "https://www.googleapis.com/oauth2/v3/userinfo";
     private final GoogleOAuth2Properties googleProperties;
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final GoogleTokenVerifier googleTokenVerifier;
+    private final GoogleApiClient googleApiClient;
 
     public String getAuthorizationUrl(String state) {
         String scope = "openid email profile";
@@ -59,16 +53,19 @@ public class GoogleOAuth2Service {
 
             HttpEntity<MultiValueMap<String, String>> request = new HttpEntity<>(params, headers);
 
-            ResponseEntity<GoogleTokenResponse> response = restTemplate.exchange(
-                    GOOGLE_TOKEN_URL,
+            GoogleTokenResponse response = googleApiClient.exchange(
+                    "token",
+                    googleProperties.getTokenUrl(),
                     HttpMethod.POST,
                     request,
                     GoogleTokenResponse.class
             );
 
             log.info("Successfully exchanged code for Google token");
-            return response.getBody();
+            return response;
 
+        } catch (TooManyRequestsException | UpstreamUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error exchanging code for token: ", e);
             throw new RuntimeException("Failed to exchange authorization code: " + e.getMessage());
@@ -84,16 +81,19 @@ public class GoogleOAuth2Service {
             headers.setBearerAuth(accessToken);
             HttpEntity<String> entity = new HttpEntity<>(headers);
 
-            ResponseEntity<GoogleUserInfo> response = restTemplate.exchange(
-                    GOOGLE_USERINFO_URL,
+            GoogleUserInfo response = googleApiClient.exchange(
+                    "userinfo",
+                    googleProperties.getUserinfoUrl(),
                     HttpMethod.GET,
                     entity,
                     GoogleUserInfo.class
             );
 
             log.info("Successfully retrieved Google user info");
-            return response.getBody();
+            return response;
 
+        } catch (TooManyRequestsException | UpstreamUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error getting user info: ", e);
             throw new RuntimeException("Failed to get user info: " + e.getMessage());
@@ -105,14 +105,7 @@ public class GoogleOAuth2Service {
      */
     public GoogleUserInfo verifyIdToken(String idToken) {
         try {
-            GoogleIdTokenVerifier verifier = new GoogleIdTokenVerifier.Builder(
-                    new NetHttpTransport(),
-                    new GsonFactory()
-            )
-                    .setAudience(Collections.singletonList(googleProperties.getClientId()))
-                    .build();
-
-            GoogleIdToken token = verifier.verify(idToken);
+            GoogleIdToken token = googleTokenVerifier.verify(idToken);
 
             if (token != null) {
                 GoogleIdToken.Payload payload = token.getPayload();
@@ -0,0 +1,329 @@
+package com.example.ChatApp_Internal.service;
+
+import com.example.ChatApp_Internal.config.AwsS3Config;
+import com.example.ChatApp_Internal.entity.FileDerivative;
+import com.example.ChatApp_Internal.event.FileDeletedEvent;
+import com.example.ChatApp_Internal.event.FileUploadedEvent;
+import com.example.ChatApp_Internal.repository.FileDerivativeRepository;
+import com.example.ChatApp_Internal.repository.FileMetadataRepository;
+import com.example.ChatApp_Internal.repository.ProfileRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Renders square thumbnails of uploaded images on a small bounded pool, after
+ * the upload has committed. Each size is stored under
+ * {@code derivatives/{fileId}/{size}.jpg} (PNG when the source has
+ * transparency) and recorded as a {@link FileDerivative}; a profile whose
+ * avatar is the file gets its thumbnail URL set once the work is done.
+ * <p>
+ * The source is decoded already cropped and subsampled to about twice the
+ * largest size, so memory stays small however large the original is. When the
+ * queue is full new work is dropped rather than queued without bound; the
+ * original stays usable, it just has no thumbnails.
+ */
+@Slf4j
+@Service
+public class ImageDerivativeService {
+
+    static final String FOLDER = "derivatives";
+    private static final Set<String> SOURCE_TYPES = Set.of("image/jpeg", "image/png", "image/gif", "image/bmp");
+
+    private final S3Client s3Client;
+    private final AwsS3Config awsConfig;
+    private final FileDerivativeRepository fileDerivativeRepository;
+    private final FileMetadataRepository fileMetadataRepository;
+    private final ProfileRepository profileRepository;
+    private final List<Integer> sizes;
+    private final int avatarSize;
+    private final long maxSourcePixels;
+    private final float jpegQuality;
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong generatedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    public ImageDerivativeService(
+            S3Client s3Client,
+            AwsS3Config awsConfig,
+            FileDerivativeRepository fileDerivativeRepository,
+            FileMetadataRepository fileMetadataRepository,
+            ProfileRepository profileRepository,
+            @Value("${app.files.derivatives.sizes}") List<Integer> sizes,
+            @Value("${app.files.derivatives.avatar-size}") int avatarSize,
+            @Value("${app.files.derivatives.max-source-pixels}") long maxSourcePixels,
+            @Value("${app.files.derivatives.jpeg-quality}") float jpegQuality,
+            @Value("${app.files.derivatives.pool-size}") int poolSize,
+            @Value("${app.files.derivatives.queue-capacity}") int queueCapacity) {
+        this.s3Client = s3Client;
+        this.awsConfig = awsConfig;
+        this.fileDerivativeRepository = fileDerivativeRepository;
+        this.fileMetadataRepository = fileMetadataRepository;
+        this.profileRepository = profileRepository;
+        // Largest first, each size is scaled down from the previous one
+        this.sizes = sizes.stream().sorted(Comparator.reverseOrder()).toList();
+        this.avatarSize = avatarSize;
+        this.maxSourcePixels = maxSourcePixels;
+        this.jpegQuality = jpegQuality;
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new NamedThreadFactory());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFileUploaded(FileUploadedEvent event) {
+        if (event.contentType() == null || !SOURCE_TYPES.contains(event.contentType().toLowerCase())) {
+            return;
+        }
+        try {
+            executor.execute(() -> generate(event.fileId(), event.s3Key()));
+        } catch (RejectedExecutionException e) {
+            rejectedCount.incrementAndGet();
+            log.warn("Thumbnail queue full, skipping file {}", event.fileId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFileDeleted(FileDeletedEvent event) {
+        removeDerivatives(event.fileId());
+    }
+
+    /**
+     * Renders, stores and records every configured size for one file.
+     */
+    void generate(Long fileId, String sourceKey) {
+        try {
+            if (!fileDerivativeRepository.findByFileId(fileId).isEmpty()) {
+                return;
+            }
+
+            BufferedImage source = read(sourceKey);
+            if (source == null) {
+                log.warn("No image reader for file {}", fileId);
+                failedCount.incrementAndGet();
+                return;
+            }
+
+            boolean alpha = source.getColorModel().hasAlpha();
+            String contentType = alpha ? "image/png" : "image/jpeg";
+            String extension = alpha ? "png" : "jpg";
+
+            List<FileDerivative> derivatives = new ArrayList<>();
+            BufferedImage current = source;
+            for (int size : sizes) {
+                current = scale(current, size, alpha);
+                byte[] bytes = encode(current, alpha);
+                String key = String.format("%s/%d/%d.%s", FOLDER, fileId, size, extension);
+
+                s3Client.putObject(PutObjectRequest.builder()
+                                .bucket(awsConfig.getBucketName())
+                                .key(key)
+                                .contentType(contentType)
+                                .contentLength((long) bytes.length)
+                                .build(),
+                        RequestBody.fromBytes(bytes));
+
+                derivatives.add(FileDerivative.builder()
+                        .fileId(fileId)
+                        .sizePx(size)
+                        .s3Key(key)
+                        .contentType(contentType)
+                        .byteSize((long) bytes.length)
+                        .build());
+            }
+            fileDerivativeRepository.saveAll(derivatives);
+
+            // The file may have been deleted while this ran; its delete listener
+            // found no rows then, so clean up here instead
+            boolean live = fileMetadataRepository.findById(fileId)
+                    .map(file -> !file.getIsDeleted())
+                    .orElse(false);
+            if (!live) {
+                removeDerivatives(fileId);
+                return;
+            }
+
+            derivatives.stream()
+                    .filter(derivative -> derivative.getSizePx() == avatarSize)
+                    .findFirst()
+                    .ifPresent(derivative -> profileRepository.setAvatarThumbnail(fileId, urlOf(derivative)));
+
+            generatedCount.incrementAndGet();
+            log.debug("Generated {} thumbnails for file {}", derivatives.size(), fileId);
+        } catch (Exception e) {
+            failedCount.incrementAndGet();
+            log.warn("Failed to generate thumbnails for file {}: {}", fileId, e.getMessage());
+        }
+    }
+
+    public String urlOf(FileDerivative derivative) {
+        return String.format("%s/%s", awsConfig.getBaseUrl(), derivative.getS3Key());
+    }
+
+    private void removeDerivatives(Long fileId) {
+        List<FileDerivative> derivatives = fileDerivativeRepository.findByFileId(fileId);
+        if (derivatives.isEmpty()) {
+            return;
+        }
+        fileDerivativeRepository.deleteByFileId(fileId);
+        try {
+            s3Client.deleteObjects(DeleteObjectsRequest.builder()
+                    .bucket(awsConfig.getBucketName())
+                    .delete(Delete.builder()
+                            .objects(derivatives.stream()
+                                    .map(derivative -> ObjectIdentifier.builder().key(derivative.getS3Key()).build())
+                                    .toList())
+                            .quiet(true)
+                            .build())
+                    .build());
+        } catch (Exception e) {
+            log.warn("Failed to delete thumbnails of file {}: {}", fileId, e.getMessage());
+        }
+    }
+
+    /**
+     * Decodes the centre square of the image, subsampled as far as the largest
+     * size allows. The dimensions are checked from the header first, so an
+     * image that would decode to an enormous bitmap is refused before any
+     * pixel is read.
+     */
+    private BufferedImage read(String key) throws IOException {
+        ResponseInputStream<GetObjectResponse> in = s3Client.getObject(GetObjectRequest.builder()
+                .bucket(awsConfig.getBucketName())
+                .key(key)
+                .build());
+        try (in; ImageInputStream stream = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(stream, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxSourcePixels) {
+                    throw new IOException("Image is " + width + "x" + height + ", over the pixel limit");
+                }
+
+                int side = Math.min(width, height);
+                int subsampling = Math.max(1, side / (sizes.get(0) * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceRegion(new Rectangle((width - side) / 2, (height - side) / 2, side, side));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+                // Don't drain whatever the reader left unread
+                in.abort();
+            }
+        }
+    }
+
+    /**
+     * Halves the image until the next step would pass {@code size}, then
+     * finishes there. Bilinear steps of at most 2x keep the result sharp
+     * without the cost of a bicubic filter.
+     */
+    private static BufferedImage scale(BufferedImage image, int size, boolean alpha) {
+        BufferedImage current = image;
+        int edge = current.getWidth();
+        while (edge != size || current.getHeight() != size) {
+            edge = edge > size ? Math.max(size, edge / 2) : size;
+            BufferedImage next = new BufferedImage(edge, edge,
+                    alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                        RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, edge, edge, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        }
+        return current;
+    }
+
+    private byte[] encode(BufferedImage image, boolean alpha) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(alpha ? "png" : "jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (MemoryCacheImageOutputStream stream = new MemoryCacheImageOutputStream(out)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (!alpha) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(jpegQuality);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public long getGeneratedCount() {
+        return generatedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static class NamedThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "image-derivative-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
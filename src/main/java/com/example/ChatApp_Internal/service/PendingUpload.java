@@ -0,0 +1,7 @@
+package com.example.ChatApp_Internal.service;
+
+/**
+ * A direct upload that was never completed, with the bytes it reserved.
+ */
+public record PendingUpload(Long fileId, String s3Key, long fileSize) {
+}
@@ -0,0 +1,95 @@
+package com.example.ChatApp_Internal.service;
+
+import com.example.ChatApp_Internal.config.AwsS3Config;
+import com.example.ChatApp_Internal.entity.FileMetadata;
+import com.example.ChatApp_Internal.repository.FileMetadataRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.Delete;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Removes direct uploads that were started but never completed, together with
+ * whatever the client managed to put in S3. Retention is well past the upload
+ * URL's lifetime, so no upload still in progress is touched.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PendingUploadCleanupService {
+
+    private final FileMetadataRepository fileMetadataRepository;
+    private final S3Client s3Client;
+    private final AwsS3Config awsConfig;
+    private final WorkspaceQuotaService workspaceQuota;
+
+    @Value("${app.files.upload.pending-retention-ms}")
+    private long pendingRetentionMs;
+
+    @Value("${app.files.upload.cleanup-batch-size}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${app.files.upload.cleanup-interval-ms}",
+            initialDelayString = "${app.files.upload.cleanup-interval-ms}")
+    public void purgeAbandonedUploads() {
+        long cutoff = System.currentTimeMillis() - pendingRetentionMs;
+        long removed = 0;
+        List<PendingUpload> batch;
+        do {
+            batch = fileMetadataRepository.findPendingCreatedBefore(cutoff, Limit.of(batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            // Rows first: an upload completed meanwhile is no longer PENDING and
+            // survives, and its object must then stay too
+            List<Long> fileIds = batch.stream().map(PendingUpload::fileId).toList();
+            int deleted = fileMetadataRepository.deletePending(fileIds);
+            List<PendingUpload> removedUploads = actuallyRemoved(batch, fileIds, deleted);
+            removed += removedUploads.size();
+            if (removedUploads.isEmpty()) {
+                continue;
+            }
+            workspaceQuota.release(removedUploads.stream().mapToLong(PendingUpload::fileSize).sum());
+            // One DeleteObjects call per batch; keys that were never uploaded are ignored by S3
+            s3Client.deleteObjects(DeleteObjectsRequest.builder()
+                    .bucket(awsConfig.getBucketName())
+                    .delete(Delete.builder()
+                            .objects(removedUploads.stream()
+                                    .map(file -> ObjectIdentifier.builder().key(file.s3Key()).build())
+                                    .toList())
+                            .quiet(true)
+                            .build())
+                    .build());
+        } while (batch.size() == batchSize);
+
+        if (removed > 0) {
+            log.info("Removed {} abandoned direct uploads", removed);
+        }
+    }
+
+    /**
+     * The uploads {@code deletePending} actually removed. Any left over were
+     * completed in the meantime and keep their object and reservation.
+     */
+    private List<PendingUpload> actuallyRemoved(List<PendingUpload> batch, List<Long> fileIds, int deleted) {
+        if (deleted == batch.size()) {
+            return batch;
+        }
+        Set<Long> survivors = fileMetadataRepository.findAllById(fileIds).stream()
+                .map(FileMetadata::getFileId)
+                .collect(Collectors.toSet());
+        return batch.stream()
+                .filter(file -> !survivors.contains(file.fileId()))
+                .toList();
+    }
+}
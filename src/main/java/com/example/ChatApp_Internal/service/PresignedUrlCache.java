@@ -0,0 +1,68 @@
+package com.example.ChatApp_Internal.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Presigned GET URLs keyed by caller, file id and requested lifetime. An entry
+ * only exists once its caller was allowed to sign the file, so a hit needs no
+ * database read. A URL is handed out again until {@code safetyMarginMs} before
+ * it expires, so every caller gets at least that long to use it. Lifetimes no
+ * longer than the margin are never cached.
+ */
+@Slf4j
+@Component
+public class PresignedUrlCache {
+
+    private final long safetyMarginMs;
+    private final int maxEntries;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    public PresignedUrlCache(
+            @Value("${app.files.presign.safety-margin-ms}") long safetyMarginMs,
+            @Value("${app.files.presign.max-entries}") int maxEntries) {
+        this.safetyMarginMs = safetyMarginMs;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @return the cached URL, or null if it must be signed again
+     */
+    public String get(String caller, Long fileId, int expirationMinutes) {
+        Entry entry = entries.get(new Key(caller, fileId, expirationMinutes));
+        if (entry == null || entry.expiresAt - safetyMarginMs <= System.currentTimeMillis()) {
+            return null;
+        }
+        return entry.url;
+    }
+
+    public void put(String caller, Long fileId, int expirationMinutes, String url, long expiresAt) {
+        if (expiresAt - safetyMarginMs <= System.currentTimeMillis()) {
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            // URLs are cheap to sign again; dropping everything keeps the map bounded
+            entries.clear();
+            log.debug("Presigned URL cache reached {} entries and was cleared", maxEntries);
+        }
+        entries.put(new Key(caller, fileId, expirationMinutes), new Entry(url, expiresAt));
+    }
+
+    public void evict(Long fileId) {
+        entries.keySet().removeIf(key -> key.fileId.equals(fileId));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private record Key(String caller, Long fileId, int expirationMinutes) {
+    }
+
+    private record Entry(String url, long expiresAt) {
+    }
+}
@@ -1,16 +1,20 @@
 package com.example.ChatApp_Internal.service;
 
 import com.example.ChatApp_Internal.dto.request.ChangePasswordRequest;
+import com.example.ChatApp_Internal.dto.request.InitiateUploadRequest;
 import com.example.ChatApp_Internal.dto.request.UpdateProfileRequest;
 import com.example.ChatApp_Internal.dto.request.UpdateStatusRequest;
+import com.example.ChatApp_Internal.dto.response.UploadTicketResponse;
 import com.example.ChatApp_Internal.dto.response.UserInfo;
 import com.example.ChatApp_Internal.entity.Account;
 import com.example.ChatApp_Internal.entity.Profile;
 import com.example.ChatApp_Internal.entity.UserStatus;
+import com.example.ChatApp_Internal.event.AccountChangedEvent;
 import com.example.ChatApp_Internal.repository.AccountRepository;
 import com.example.ChatApp_Internal.repository.ProfileRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -25,10 +29,13 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ProfileService {
 
+    static final String AVATAR_FOLDER = "avatars";
+
     private final AccountRepository accountRepository;
     private final ProfileRepository profileRepository;
     private final PasswordEncoder passwordEncoder;
     private final AwsS3Service awsS3Service;
+    private final ApplicationEventPublisher eventPublisher;
 
     public UserInfo getCurrentUserInfo() {
         Account account = getCurrentAccount();
@@ -65,13 +72,17 @@ public class ProfileService {
         }
 
         profileRepository.save(profile);
+        eventPublisher.publishEvent(new AccountChangedEvent(account.getAccountId(), account.getEmail()));
 
         log.info("Profile updated for user: {}", account.getEmail());
 
         return mapToUserInfo(account, profile);
     }
 
-    @Transactional
+    /**
+     * Not transactional: the upload must not hold a connection while the bytes
+     * go to S3, and the profile row is saved on its own afterwards.
+     */
     public UserInfo updateAvatar(MultipartFile file) {
         Account account = getCurrentAccount();
         Profile profile = account.getProfile();
@@ -81,10 +92,12 @@ public class ProfileService {
         }
 
         // Upload to S3
-        var fileMetadata = awsS3Service.uploadFile(file, "avatars");
+        var fileMetadata = awsS3Service.uploadFile(file, AVATAR_FOLDER);
 
-        // Update profile avatar URL
+        // Update profile avatar URL; the thumbnail follows once rendered
         profile.setAvatarUrl(fileMetadata.getUrl());
+        profile.setAvatarFileId(fileMetadata.getFileId());
+        profile.setAvatarThumbnailUrl(null);
         profileRepository.save(profile);
 
         log.info("Avatar updated for user: {}", account.getEmail());
@@ -92,6 +105,35 @@ public class ProfileService {
         return mapToUserInfo(account, profile);
     }
 
+    public UploadTicketResponse initiateAvatarUpload(InitiateUploadRequest request) {
+        return awsS3Service.initiateImageUpload(request, AVATAR_FOLDER);
+    }
+
+    /**
+     * Sets the avatar from an image the client uploaded straight to S3 after
+     * {@link #initiateAvatarUpload}.
+     */
+    @Transactional
+    public UserInfo updateAvatarFromUpload(Long fileId) {
+        Account account = getCurrentAccount();
+        Profile profile = account.getProfile();
+
+        if (profile == null) {
+            throw new RuntimeException("Profile not found");
+        }
+
+        var fileMetadata = awsS3Service.completeUpload(fileId, AVATAR_FOLDER);
+
+        profile.setAvatarUrl(fileMetadata.getUrl());
+        profile.setAvatarFileId(fileMetadata.getFileId());
+        profile.setAvatarThumbnailUrl(null);
+        profileRepository.save(profile);
+
+        log.info("Avatar updated from direct upload for user: {}", account.getEmail());
+
+        return mapToUserInfo(account, profile);
+    }
+
     @Transactional
     public UserInfo updateStatus(UpdateStatusRequest request) {
         Account account = getCurrentAccount();
@@ -122,6 +164,7 @@ public class ProfileService {
         // Update password
         account.setPassword(passwordEncoder.encode(request.getNewPassword()));
         accountRepository.save(account);
+        eventPublisher.publishEvent(new AccountChangedEvent(account.getAccountId(), account.getEmail()));
 
         log.info("Password changed for user: {}", account.getEmail());
     }
@@ -133,6 +176,7 @@ public class ProfileService {
         // Soft delete - deactivate account
         account.setIsActive(false);
         accountRepository.save(account);
+        eventPublisher.publishEvent(new AccountChangedEvent(account.getAccountId(), account.getEmail()));
 
         log.info("Account deactivated for user: {}", account.getEmail());
     }
@@ -151,6 +195,7 @@ public class ProfileService {
                 .username(profile != null ? profile.getUsername() : null)
                 .displayName(profile != null ? profile.getDisplayName() : null)
                 .avatarUrl(profile != null ? profile.getAvatarUrl() : null)
+                .avatarThumbnailUrl(profile != null ? profile.getAvatarThumbnailUrl() : null)
                 .bio(profile != null ? profile.getBio() : null)
                 .status(profile != null ? profile.getStatus() : UserStatus.OFFLINE)
                 .roles(account.getRoles().stream()
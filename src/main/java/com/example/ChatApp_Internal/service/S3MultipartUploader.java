@@ -0,0 +1,216 @@
+package com.example.ChatApp_Internal.service;
+
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams an input of unknown length into S3 without spooling it first. The
+ * caller's thread reads the stream into part-sized buffers while up to
+ * {@code parallelParts} earlier parts upload on a shared pool, so one upload
+ * never holds more than {@code parallelParts} buffers. When all buffers are in
+ * flight the reader waits, which pushes back on the client.
+ * <p>
+ * Inputs smaller than one part go up in a single PUT. If anything fails, the
+ * multipart upload is aborted so S3 drops the parts already stored.
+ */
+@Slf4j
+public class S3MultipartUploader {
+
+    private final S3Client s3Client;
+    private final int partSize;
+    private final int parallelParts;
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong uploadedParts = new AtomicLong();
+    private final AtomicLong abortedUploads = new AtomicLong();
+
+    public S3MultipartUploader(S3Client s3Client, int partSize, int parallelParts, int threads) {
+        this.s3Client = s3Client;
+        this.partSize = partSize;
+        this.parallelParts = parallelParts;
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                new NamedThreadFactory());
+    }
+
+    /**
+     * @return the number of bytes stored
+     */
+    public long upload(String bucket, String key, String contentType, InputStream in, long maxBytes) {
+        byte[] first = new byte[partSize];
+        int firstLength = read(in, first);
+        if (firstLength == 0) {
+            throw new RuntimeException("File is empty");
+        }
+        if (firstLength < partSize) {
+            s3Client.putObject(PutObjectRequest.builder()
+                            .bucket(bucket)
+                            .key(key)
+                            .contentType(contentType)
+                            .contentLength((long) firstLength)
+                            .build(),
+                    body(first, firstLength));
+            return firstLength;
+        }
+
+        String uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .contentType(contentType)
+                .build()).uploadId();
+
+        List<Future<CompletedPart>> parts = new ArrayList<>();
+        try {
+            BlockingQueue<byte[]> freeBuffers = new ArrayBlockingQueue<>(parallelParts);
+            int allocated = 1;
+            byte[] buffer = first;
+            int length = firstLength;
+            long total = firstLength;
+
+            while (true) {
+                parts.add(submitPart(bucket, key, uploadId, parts.size() + 1, buffer, length, freeBuffers));
+
+                buffer = freeBuffers.poll();
+                if (buffer == null && allocated < parallelParts) {
+                    buffer = new byte[partSize];
+                    allocated++;
+                } else if (buffer == null) {
+                    buffer = freeBuffers.take();
+                }
+                throwIfAnyFailed(parts);
+
+                length = read(in, buffer);
+                if (length == 0) {
+                    break;
+                }
+                total += length;
+                if (total > maxBytes) {
+                    throw new RuntimeException("File size exceeds maximum limit of " + (maxBytes / 1024 / 1024) + "MB");
+                }
+            }
+
+            List<CompletedPart> completed = new ArrayList<>(parts.size());
+            for (Future<CompletedPart> part : parts) {
+                completed.add(part.get());
+            }
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(completed).build())
+                    .build());
+
+            log.debug("Uploaded {} in {} parts ({} bytes)", key, completed.size(), total);
+            return total;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort(bucket, key, uploadId, parts);
+            throw new RuntimeException("Upload interrupted");
+        } catch (ExecutionException e) {
+            abort(bucket, key, uploadId, parts);
+            throw new RuntimeException("Failed to upload file: " + e.getCause().getMessage(), e.getCause());
+        } catch (RuntimeException e) {
+            abort(bucket, key, uploadId, parts);
+            throw e;
+        }
+    }
+
+    public int getActiveParts() {
+        return executor.getActiveCount();
+    }
+
+    public long getUploadedParts() {
+        return uploadedParts.get();
+    }
+
+    public long getAbortedUploads() {
+        return abortedUploads.get();
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private Future<CompletedPart> submitPart(String bucket, String key, String uploadId, int partNumber,
+                                             byte[] buffer, int length, BlockingQueue<byte[]> freeBuffers) {
+        return executor.submit(() -> {
+            try {
+                UploadPartResponse response = s3Client.uploadPart(UploadPartRequest.builder()
+                                .bucket(bucket)
+                                .key(key)
+                                .uploadId(uploadId)
+                                .partNumber(partNumber)
+                                .contentLength((long) length)
+                                .build(),
+                        body(buffer, length));
+                uploadedParts.incrementAndGet();
+                return CompletedPart.builder().partNumber(partNumber).eTag(response.eTag()).build();
+            } finally {
+                freeBuffers.offer(buffer);
+            }
+        });
+    }
+
+    private static void throwIfAnyFailed(List<Future<CompletedPart>> parts)
+            throws ExecutionException, InterruptedException {
+        for (Future<CompletedPart> part : parts) {
+            if (part.isDone()) {
+                part.get();
+            }
+        }
+    }
+
+    private void abort(String bucket, String key, String uploadId, List<Future<CompletedPart>> parts) {
+        parts.forEach(part -> part.cancel(true));
+        abortedUploads.incrementAndGet();
+        try {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .build());
+        } catch (RuntimeException e) {
+            // Left to the bucket's lifecycle rule for incomplete multipart uploads
+            log.warn("Failed to abort multipart upload {} for {}: {}", uploadId, key, e.getMessage());
+        }
+    }
+
+    /**
+     * Fills {@code buffer} unless the stream ends first.
+     */
+    private static int read(InputStream in, byte[] buffer) {
+        try {
+            return in.readNBytes(buffer, 0, buffer.length);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read upload: " + e.getMessage(), e);
+        }
+    }
+
+    private static RequestBody body(byte[] buffer, int length) {
+        return RequestBody.fromInputStream(new ByteArrayInputStream(buffer, 0, length), length);
+    }
+
+    private static class NamedThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "s3-upload-part-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.ChatApp_Internal.service;
+
+import com.example.ChatApp_Internal.repository.BlacklistedTokenRepository;
+import com.example.ChatApp_Internal.repository.RefreshContextRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.function.IntSupplier;
+
+/**
+ * Deletes expired blacklisted tokens and expired or long-revoked refresh contexts.
+ * Rows are removed in small index-ordered batches, each in its own transaction,
+ * so no run holds locks for long.
+ */
+@Slf4j
+@Service
+public class TokenCleanupService {
+
+    private final BlacklistedTokenRepository blacklistedTokenRepository;
+    private final RefreshContextRepository refreshContextRepository;
+    private final int batchSize;
+    private final long revokedRetentionMs;
+    private final long maxRunMs;
+
+    private volatile long lastRemovedRows;
+    private volatile long lastRunMs;
+
+    public TokenCleanupService(
+            BlacklistedTokenRepository blacklistedTokenRepository,
+            RefreshContextRepository refreshContextRepository,
+            @Value("${app.cleanup.batch-size}") int batchSize,
+            @Value("${app.cleanup.revoked-retention-ms}") long revokedRetentionMs,
+            @Value("${app.cleanup.max-run-ms}") long maxRunMs) {
+        this.blacklistedTokenRepository = blacklistedTokenRepository;
+        this.refreshContextRepository = refreshContextRepository;
+        this.batchSize = batchSize;
+        this.revokedRetentionMs = revokedRetentionMs;
+        this.maxRunMs = maxRunMs;
+    }
+
+    @Scheduled(fixedDelayString = "${app.cleanup.interval-ms}",
+            initialDelayString = "${app.cleanup.initial-delay-ms}")
+    public void purgeExpiredTokens() {
+        long start = System.currentTimeMillis();
+        long deadline = start + maxRunMs;
+
+        long blacklisted = deleteInBatches(
+                () -> blacklistedTokenRepository.deleteExpiredBatch(start, batchSize), deadline);
+        long expiredContexts = deleteInBatches(
+                () -> refreshContextRepository.deleteExpiredBatch(start, batchSize), deadline);
+        long revokedContexts = deleteInBatches(
+                () -> refreshContextRepository.deleteRevokedBatch(start - revokedRetentionMs, batchSize), deadline);
+
+        lastRemovedRows = blacklisted + expiredContexts + revokedContexts;
+        lastRunMs = System.currentTimeMillis() - start;
+
+        log.info("Token cleanup removed {} blacklisted tokens, {} expired and {} revoked refresh contexts in {} ms",
+                blacklisted, expiredContexts, revokedContexts, lastRunMs);
+    }
+
+    public long getLastRemovedRows() {
+        return lastRemovedRows;
+    }
+
+    public long getLastRunMs() {
+        return lastRunMs;
+    }
+
+    private long deleteInBatches(IntSupplier batch, long deadline) {
+        long total = 0;
+        int deleted;
+        do {
+            deleted = batch.getAsInt();
+            total += deleted;
+        } while (deleted == batchSize && System.currentTimeMillis() < deadline);
+        return total;
+    }
+}
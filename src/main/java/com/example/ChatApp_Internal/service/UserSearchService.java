@@ -0,0 +1,85 @@
+package com.example.ChatApp_Internal.service;
+
+import com.example.ChatApp_Internal.event.AccountChangedEvent;
+import com.example.ChatApp_Internal.event.AccountsChangedEvent;
+import com.example.ChatApp_Internal.repository.AccountRepository;
+import com.example.ChatApp_Internal.search.UserSearchIndex;
+import com.example.ChatApp_Internal.search.UserSearchResult;
+import com.example.ChatApp_Internal.search.UserSearchDocument;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the {@link UserSearchIndex} in step with the accounts table. The index is
+ * built at startup, patched after every committed account or profile change made
+ * on this node, and rebuilt periodically to pick up changes made elsewhere.
+ */
+@Slf4j
+@Service
+public class UserSearchService {
+
+    private final AccountRepository accountRepository;
+    private final int maxPageSize;
+    private final UserSearchIndex index = new UserSearchIndex();
+
+    public UserSearchService(
+            AccountRepository accountRepository,
+            @Value("${app.search.max-page-size}") int maxPageSize) {
+        this.accountRepository = accountRepository;
+        this.maxPageSize = maxPageSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.search.rebuild-interval-ms}",
+            initialDelayString = "${app.search.rebuild-interval-ms}")
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        index.replaceAll(accountRepository.findAllSearchDocuments());
+        log.info("Indexed {} accounts for search in {} ms", index.size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountChanged(AccountChangedEvent event) {
+        accountRepository.findSearchDocument(event.accountId())
+                .ifPresentOrElse(index::upsert, () -> index.remove(event.accountId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountsChanged(AccountsChangedEvent event) {
+        List<Long> accountIds = event.accountIds();
+        List<UserSearchDocument> documents = accountRepository.findSearchDocuments(accountIds);
+        Set<Long> found = documents.stream().map(UserSearchDocument::accountId).collect(Collectors.toSet());
+
+        documents.forEach(index::upsert);
+        accountIds.stream().filter(id -> !found.contains(id)).forEach(index::remove);
+    }
+
+    public UserSearchResult search(String keyword, int page, int size) {
+        if (page < 0) {
+            throw new RuntimeException("Page must not be negative");
+        }
+        if (size < 1 || size > maxPageSize) {
+            throw new RuntimeException("Page size must be between 1 and " + maxPageSize);
+        }
+        int offset;
+        try {
+            offset = Math.multiplyExact(page, size);
+        } catch (ArithmeticException e) {
+            throw new RuntimeException("Page is out of range");
+        }
+        return index.search(keyword, offset, size);
+    }
+
+    public int size() {
+        return index.size();
+    }
+}
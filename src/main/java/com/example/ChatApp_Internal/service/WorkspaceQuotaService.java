@@ -0,0 +1,174 @@
+package com.example.ChatApp_Internal.service;
+
+import com.example.ChatApp_Internal.entity.WorkspaceFileQuota;
+import com.example.ChatApp_Internal.repository.WorkspaceFileQuotaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Enforces the workspace storage quota with one conditional UPDATE per
+ * reservation, so concurrent uploads can never take the total past the limit
+ * and nothing is summed on the upload path.
+ * <p>
+ * Bytes are reserved when an upload starts and handed back if it fails, and
+ * when a file is deleted. Inside a transaction both follow its outcome: a
+ * reservation is undone on rollback, a release only happens on commit.
+ * <p>
+ * There is no workspace model yet, so every file counts against the
+ * workspace configured as {@code app.files.quota.workspace-id}.
+ */
+@Slf4j
+@Service
+public class WorkspaceQuotaService {
+
+    private final WorkspaceFileQuotaRepository quotaRepository;
+    private final long workspaceId;
+    private final long defaultMaxBytes;
+    private final long streamReservationBytes;
+
+    public WorkspaceQuotaService(
+            WorkspaceFileQuotaRepository quotaRepository,
+            @Value("${app.files.quota.workspace-id}") long workspaceId,
+            @Value("${app.files.quota.default-max-bytes}") long defaultMaxBytes,
+            @Value("${app.files.quota.stream-reservation-bytes}") long streamReservationBytes) {
+        this.quotaRepository = quotaRepository;
+        this.workspaceId = workspaceId;
+        this.defaultMaxBytes = defaultMaxBytes;
+        this.streamReservationBytes = streamReservationBytes;
+    }
+
+    /**
+     * Call it before opening a transaction: the update takes a connection of
+     * its own, so reserving inside one holds two per upload. Outside a
+     * transaction the caller releases the bytes itself if the upload fails.
+     */
+    public void reserve(long bytes) {
+        if (bytes <= 0) {
+            return;
+        }
+        if (!tryReserve(bytes)) {
+            throw new RuntimeException("Workspace storage quota exceeded");
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        releaseNow(bytes);
+                    }
+                }
+            });
+        }
+    }
+
+    public void release(long bytes) {
+        if (bytes <= 0) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    releaseNow(bytes);
+                }
+            });
+        } else {
+            releaseNow(bytes);
+        }
+    }
+
+    /**
+     * For bodies of unknown length: reserves in steps of
+     * {@code stream-reservation-bytes} as bytes are read and fails the read once
+     * the quota is used up. The caller releases {@link ReservingInputStream#getReserved()}
+     * minus what it keeps.
+     */
+    public ReservingInputStream reserveWhileReading(InputStream in) {
+        return new ReservingInputStream(in);
+    }
+
+    public WorkspaceFileQuota getQuota() {
+        return quotaRepository.findById(workspaceId).orElse(null);
+    }
+
+    private boolean tryReserve(long bytes) {
+        long now = System.currentTimeMillis();
+        if (quotaRepository.tryReserve(workspaceId, bytes, now) == 1) {
+            return true;
+        }
+        // Only a rejected reservation pays for this lookup
+        if (quotaRepository.existsById(workspaceId)) {
+            return false;
+        }
+        try {
+            quotaRepository.create(workspaceId, defaultMaxBytes, now);
+            log.info("Created storage quota of {} bytes for workspace {}", defaultMaxBytes, workspaceId);
+        } catch (DataIntegrityViolationException e) {
+            // Created concurrently
+        }
+        return quotaRepository.tryReserve(workspaceId, bytes, now) == 1;
+    }
+
+    private void releaseNow(long bytes) {
+        try {
+            quotaRepository.release(workspaceId, bytes, System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            log.error("Failed to release {} bytes of workspace {} quota: {}", bytes, workspaceId, e.getMessage());
+        }
+    }
+
+    public final class ReservingInputStream extends FilterInputStream {
+        private long read;
+        private long reserved;
+
+        private ReservingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                advance(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int count = super.read(buffer, offset, length);
+            if (count > 0) {
+                advance(count);
+            }
+            return count;
+        }
+
+        public long getReserved() {
+            return reserved;
+        }
+
+        private void advance(int count) {
+            read += count;
+            while (read > reserved) {
+                // A whole step normally; just the shortfall when the quota is nearly full
+                long shortfall = read - reserved;
+                long step = Math.max(streamReservationBytes, shortfall);
+                if (tryReserve(step)) {
+                    reserved += step;
+                } else if (step > shortfall && tryReserve(shortfall)) {
+                    reserved += shortfall;
+                } else {
+                    throw new RuntimeException("Workspace storage quota exceeded");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.ChatApp_Internal.util;
+
+import java.util.function.Supplier;
+
+/**
+ * A single value recomputed at most once per TTL. Concurrent callers that find
+ * the value expired may each recompute it; the last write wins.
+ */
+public class CachedValue<T> {
+
+    private final Supplier<T> loader;
+    private final long ttlMs;
+    private volatile Entry<T> entry;
+
+    public CachedValue(Supplier<T> loader, long ttlMs) {
+        this.loader = loader;
+        this.ttlMs = ttlMs;
+    }
+
+    public T get() {
+        Entry<T> current = entry;
+        long now = System.currentTimeMillis();
+        if (current != null && current.loadedAt + ttlMs > now) {
+            return current.value;
+        }
+        T value = loader.get();
+        entry = new Entry<>(value, now);
+        return value;
+    }
+
+    public void invalidate() {
+        entry = null;
+    }
+
+    private record Entry<T>(T value, long loadedAt) {
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.ChatApp_Internal.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque continuation tokens for keyset pagination. A token carries the sort key
+ * and id of the last row of a page; the next page starts strictly after it.
+ */
+public class CursorUtil {
+
+    private static final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder decoder = Base64.getUrlDecoder();
+
+    public record Position(long sortKey, long id) {
+    }
+
+    public static String encode(long sortKey, long id) {
+        return encoder.encodeToString((sortKey + ":" + id).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static Position decode(String cursor) {
+        try {
+            String value = new String(decoder.decode(cursor), StandardCharsets.US_ASCII);
+            int separator = value.indexOf(':');
+            return new Position(Long.parseLong(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+}
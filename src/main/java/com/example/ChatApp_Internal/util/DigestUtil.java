@@ -0,0 +1,27 @@
+package com.example.ChatApp_Internal.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+public class DigestUtil {
+
+    private static final Base64.Encoder base64Encoder = Base64.getUrlEncoder().withoutPadding();
+
+    public static String sha256(String value) {
+        return base64Encoder.encodeToString(sha256Bytes(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public static byte[] sha256Bytes(byte[] value) {
+        return newSha256().digest(value);
+    }
+
+    public static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.ChatApp_Internal.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.*;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deactivating 500 accounts in in-memory H2, the statements each path issues:
+ * per id, the single-account endpoint's findById, roles fetch and full-row
+ * update in its own transaction; in bulk, one state read and one {@code IN}
+ * update per chunk of {@code chunkSize} ids, each chunk one transaction.
+ * Every invocation flips the flag so both paths always have work to do.
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=BulkAdminOperationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkAdminOperationBenchmark {
+
+    private static final int ACCOUNTS = 20_000;
+    private static final int TARGETS = 500;
+
+    @Param({"100", "500"})
+    public int chunkSize;
+
+    private Connection connection;
+    private PreparedStatement findById;
+    private PreparedStatement findRoles;
+    private PreparedStatement updateRow;
+    private PreparedStatement loadChunk;
+    private PreparedStatement updateChunk;
+    private boolean active;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:bulk;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            statement.execute("CREATE TABLE accounts (account_id BIGINT PRIMARY KEY, email VARCHAR(100), "
+                    + "password VARCHAR(255), provider VARCHAR(20), is_verified BOOLEAN, is_active BOOLEAN, "
+                    + "created_at BIGINT, updated_at BIGINT)");
+            statement.execute("CREATE TABLE roles (role_id INT PRIMARY KEY, role_name VARCHAR(50))");
+            statement.execute("CREATE TABLE account_roles (account_id BIGINT, role_id INT, PRIMARY KEY (account_id, role_id))");
+            statement.execute("INSERT INTO roles VALUES (1, 'MEMBER')");
+        }
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO accounts VALUES (?, ?, '$2a$10$hash', 'LOCAL', TRUE, TRUE, 0, 0)");
+             PreparedStatement role = connection.prepareStatement("INSERT INTO account_roles VALUES (?, 1)")) {
+            for (int i = 1; i <= ACCOUNTS; i++) {
+                insert.setLong(1, i);
+                insert.setString(2, "user" + i + "@example.com");
+                insert.addBatch();
+                role.setLong(1, i);
+                role.addBatch();
+            }
+            insert.executeBatch();
+            role.executeBatch();
+        }
+        connection.commit();
+
+        findById = connection.prepareStatement("SELECT * FROM accounts WHERE account_id = ?");
+        findRoles = connection.prepareStatement(
+                "SELECT r.* FROM account_roles ar JOIN roles r ON r.role_id = ar.role_id WHERE ar.account_id = ?");
+        updateRow = connection.prepareStatement("UPDATE accounts SET email = ?, password = ?, provider = ?, "
+                + "is_verified = ?, is_active = ?, created_at = ?, updated_at = ? WHERE account_id = ?");
+        String placeholders = String.join(",", Collections.nCopies(chunkSize, "?"));
+        loadChunk = connection.prepareStatement(
+                "SELECT account_id, email, is_active, is_verified FROM accounts WHERE account_id IN (" + placeholders + ")");
+        updateChunk = connection.prepareStatement(
+                "UPDATE accounts SET is_active = ?, updated_at = ? WHERE account_id IN (" + placeholders + ")");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public int perId() throws SQLException {
+        active = !active;
+        int updated = 0;
+        for (long id = 1; id <= TARGETS; id++) {
+            String email;
+            String password;
+            String provider;
+            boolean verified;
+            long createdAt;
+            findById.setLong(1, id);
+            try (ResultSet rs = findById.executeQuery()) {
+                rs.next();
+                email = rs.getString("email");
+                password = rs.getString("password");
+                provider = rs.getString("provider");
+                verified = rs.getBoolean("is_verified");
+                createdAt = rs.getLong("created_at");
+            }
+            findRoles.setLong(1, id);
+            try (ResultSet rs = findRoles.executeQuery()) {
+                while (rs.next()) {
+                    rs.getString("role_name");
+                }
+            }
+            updateRow.setString(1, email);
+            updateRow.setString(2, password);
+            updateRow.setString(3, provider);
+            updateRow.setBoolean(4, verified);
+            updateRow.setBoolean(5, active);
+            updateRow.setLong(6, createdAt);
+            updateRow.setLong(7, System.currentTimeMillis());
+            updateRow.setLong(8, id);
+            updated += updateRow.executeUpdate();
+            connection.commit();
+        }
+        return updated;
+    }
+
+    @Benchmark
+    public int bulk() throws SQLException {
+        active = !active;
+        int updated = 0;
+        for (long from = 1; from <= TARGETS; from += chunkSize) {
+            for (int i = 0; i < chunkSize; i++) {
+                loadChunk.setLong(i + 1, from + i);
+                updateChunk.setLong(i + 3, from + i);
+            }
+            try (ResultSet rs = loadChunk.executeQuery()) {
+                while (rs.next()) {
+                    rs.getString("email");
+                }
+            }
+            updateChunk.setBoolean(1, active);
+            updateChunk.setLong(2, System.currentTimeMillis());
+            updated += updateChunk.executeUpdate();
+            connection.commit();
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.ChatApp_Internal.benchmark;
+
+import com.example.ChatApp_Internal.security.JwtService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token generation and validation throughput, with the claims cache on and off.
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=JwtServiceBenchmark};
+ * the profile enables the GC profiler so allocation per call is reported.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    @Param({"0", "10000"})
+    public int claimsCacheSize;
+
+    private JwtService jwtService;
+    private String accessToken;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(SECRET, 900_000L, 2_592_000_000L, claimsCacheSize);
+        accessToken = jwtService.generateAccessToken("bench@example.com", List.of("MEMBER"), 1L);
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtService.generateAccessToken("bench@example.com", List.of("MEMBER"), 1L);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtService.validateToken(accessToken);
+    }
+
+    /**
+     * The sequence a logout performs on one token: validate, then read claims.
+     */
+    @Benchmark
+    public Object validateAndReadClaims() {
+        if (!jwtService.validateToken(accessToken)) {
+            return null;
+        }
+        jwtService.getEmailFromToken(accessToken);
+        return jwtService.getExpirationDate(accessToken);
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.ChatApp_Internal.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Newest-first account pages over 200k rows in in-memory H2: OFFSET paging plus
+ * the COUNT it needs for totals, against a keyset seek on
+ * {@code (created_at, account_id)} starting from the previous page's cursor.
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=KeysetPaginationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeysetPaginationBenchmark {
+
+    private static final int ACCOUNTS = 200_000;
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"1", "5000"})
+    public int page;
+
+    private Connection connection;
+    private PreparedStatement offsetQuery;
+    private PreparedStatement countQuery;
+    private PreparedStatement keysetQuery;
+    private long cursorCreatedAt;
+    private long cursorAccountId;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:keyset;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS accounts");
+            statement.execute("CREATE TABLE accounts (account_id BIGINT PRIMARY KEY, email VARCHAR(255), created_at BIGINT)");
+            statement.execute("CREATE INDEX idx_accounts_created_at_account_id ON accounts (created_at, account_id)");
+        }
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO accounts VALUES (?, ?, ?)")) {
+            for (int i = 1; i <= ACCOUNTS; i++) {
+                insert.setLong(1, i);
+                insert.setString(2, "user" + i + "@example.com");
+                // Several accounts share a timestamp, so the id tie-breaker matters
+                insert.setLong(3, 1_700_000_000_000L + i / 4);
+                insert.addBatch();
+                if (i % 10_000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+
+        offsetQuery = connection.prepareStatement(
+                "SELECT account_id FROM accounts ORDER BY created_at DESC, account_id DESC LIMIT ? OFFSET ?");
+        countQuery = connection.prepareStatement("SELECT COUNT(*) FROM accounts");
+        keysetQuery = connection.prepareStatement(
+                "SELECT account_id FROM accounts WHERE created_at <= ? AND (created_at < ? OR account_id < ?) "
+                        + "ORDER BY created_at DESC, account_id DESC LIMIT ?");
+
+        // The cursor a client would hold after reading the pages before this one
+        cursorCreatedAt = Long.MAX_VALUE;
+        cursorAccountId = Long.MAX_VALUE;
+        if (page > 1) {
+            try (PreparedStatement previous = connection.prepareStatement(
+                    "SELECT created_at, account_id FROM accounts ORDER BY created_at DESC, account_id DESC LIMIT 1 OFFSET ?")) {
+                previous.setInt(1, (page - 1) * PAGE_SIZE - 1);
+                try (ResultSet rs = previous.executeQuery()) {
+                    rs.next();
+                    cursorCreatedAt = rs.getLong(1);
+                    cursorAccountId = rs.getLong(2);
+                }
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public long offsetWithCount() throws SQLException {
+        offsetQuery.setInt(1, PAGE_SIZE);
+        offsetQuery.setInt(2, (page - 1) * PAGE_SIZE);
+        long sum = drain(offsetQuery);
+        try (ResultSet rs = countQuery.executeQuery()) {
+            rs.next();
+            return sum + rs.getLong(1);
+        }
+    }
+
+    @Benchmark
+    public long keyset() throws SQLException {
+        keysetQuery.setLong(1, cursorCreatedAt);
+        keysetQuery.setLong(2, cursorCreatedAt);
+        keysetQuery.setLong(3, cursorAccountId);
+        keysetQuery.setInt(4, PAGE_SIZE);
+        return drain(keysetQuery);
+    }
+
+    private static long drain(PreparedStatement query) throws SQLException {
+        long sum = 0;
+        try (ResultSet rs = query.executeQuery()) {
+            while (rs.next()) {
+                sum += rs.getLong(1);
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.ChatApp_Internal.benchmark;
+
+import com.example.ChatApp_Internal.search.UserSearchDocument;
+import com.example.ChatApp_Internal.search.UserSearchIndex;
+import com.example.ChatApp_Internal.search.UserSearchResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admin user search over 100k synthetic accounts: the trigram index against the
+ * lower-case-and-contains scan the old implementation ran after loading every
+ * account (the database cost of that load is not included).
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=UserSearchIndexBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserSearchIndexBenchmark {
+
+    private static final int ACCOUNTS = 100_000;
+    private static final String[] FAMILY = {"Nguyễn", "Trần", "Lê", "Phạm", "Hoàng", "Huỳnh", "Phan", "Vũ", "Võ", "Đặng"};
+    private static final String[] MIDDLE = {"Văn", "Thị", "Hữu", "Đức", "Minh", "Ngọc", "Thanh", "Quang"};
+    private static final String[] GIVEN = {"An", "Bình", "Chi", "Dũng", "Giang", "Hiếu", "Khoa", "Linh", "Nam", "Trang"};
+
+    @Param({"hi", "nguyen", "user4242", "zzzz"})
+    public String query;
+
+    private UserSearchIndex index;
+    private List<UserSearchDocument> documents;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        documents = new ArrayList<>(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            String displayName = FAMILY[random.nextInt(FAMILY.length)] + " "
+                    + MIDDLE[random.nextInt(MIDDLE.length)] + " "
+                    + GIVEN[random.nextInt(GIVEN.length)];
+            documents.add(new UserSearchDocument((long) i, "user" + i + "@example.com", "user" + i, displayName));
+        }
+        index = new UserSearchIndex();
+        index.replaceAll(documents);
+    }
+
+    @Benchmark
+    public UserSearchResult indexedSearch() {
+        return index.search(query, 0, 20);
+    }
+
+    @Benchmark
+    public int linearScan() {
+        String term = query.toLowerCase();
+        int matches = 0;
+        for (UserSearchDocument document : documents) {
+            if (document.email().toLowerCase().contains(term)
+                    || document.username().toLowerCase().contains(term)
+                    || document.displayName().toLowerCase().contains(term)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.ChatApp_Internal.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "MANAGEMENT_PORT=0",
+        "AWS_S3_ACCESS_KEY=key",
+        "AWS_S3_SECRET_KEY=secret",
+        "AWS_S3_REGION=us-east-1",
+        "AWS_S3_BUCKET=bucket"
+})
+@ActiveProfiles("h2")
+class ActuatorSecurityTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Test
+    void onlyHealthIsPublic() throws Exception {
+        // Answered, though DOWN (503) here without a mail server
+        int health = get("/actuator/health");
+        assertTrue(health == 200 || health == 503, "health returned " + health);
+        assertEquals(403, get("/actuator/prometheus"));
+        assertEquals(403, get("/actuator/metrics"));
+    }
+
+    private int get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + managementPort + path)).build(),
+                HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
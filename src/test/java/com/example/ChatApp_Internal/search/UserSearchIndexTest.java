@@ -0,0 +1,81 @@
+package com.example.ChatApp_Internal.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserSearchIndexTest {
+
+    private UserSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new UserSearchIndex();
+        index.replaceAll(List.of(
+                new UserSearchDocument(1L, "hieu@example.com", "hieu", "Nguyễn Trọng Hiếu"),
+                new UserSearchDocument(2L, "an.nguyen@example.com", "annguyen", "Nguyễn Văn An"),
+                new UserSearchDocument(3L, "binh@example.com", "binh", "Trần Bình"),
+                new UserSearchDocument(4L, "mai@example.com", "mai_hieu", "Lê Mai"),
+                new UserSearchDocument(5L, "noprofile@example.com", null, null)));
+    }
+
+    @Test
+    void ranksExactMatchAboveInfixMatch() {
+        UserSearchResult result = index.search("hieu", 0, 10);
+
+        // exact username first, then "mai_hieu" where it only appears inside the username
+        assertEquals(List.of(1L, 4L), result.accountIds());
+        assertEquals(2, result.total());
+    }
+
+    @Test
+    void matchesDisplayNamesWithoutDiacritics() {
+        UserSearchResult result = index.search("nguyen", 0, 10);
+
+        assertEquals(2, result.total());
+        // username prefix ranks above a display name prefix
+        assertEquals(List.of(2L, 1L), result.accountIds());
+    }
+
+    @Test
+    void shortQueriesAndAccountsWithoutProfileAreSearchable() {
+        assertEquals(List.of(5L), index.search("nop", 0, 10).accountIds());
+        assertTrue(index.search("bi", 0, 10).accountIds().contains(3L));
+    }
+
+    @Test
+    void pagesThroughRankedResults() {
+        UserSearchResult first = index.search("example", 0, 2);
+        UserSearchResult second = index.search("example", 2, 2);
+        UserSearchResult last = index.search("example", 4, 2);
+
+        assertEquals(5, first.total());
+        assertEquals(2, first.accountIds().size());
+        assertEquals(2, second.accountIds().size());
+        assertEquals(1, last.accountIds().size());
+        assertTrue(first.accountIds().stream().noneMatch(second.accountIds()::contains));
+    }
+
+    @Test
+    void oversizedPagesAreNotPreallocated() {
+        assertEquals(index.search("example", 0, 10).total(),
+                index.search("example", 0, Integer.MAX_VALUE).accountIds().size());
+        assertThrows(ArithmeticException.class, () -> index.search("example", Integer.MAX_VALUE, 1));
+    }
+
+    @Test
+    void upsertAndRemoveKeepTheIndexCurrent() {
+        index.upsert(new UserSearchDocument(3L, "binh@example.com", "binh", "Trần Thanh Bình"));
+        assertEquals(List.of(3L), index.search("thanh", 0, 10).accountIds());
+        assertEquals(List.of(3L), index.search("binh", 0, 10).accountIds());
+
+        index.remove(3L);
+        assertEquals(0, index.search("binh", 0, 10).total());
+        assertEquals(4, index.size());
+    }
+}
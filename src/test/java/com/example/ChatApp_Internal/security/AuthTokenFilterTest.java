@@ -0,0 +1,140 @@
+package com.example.ChatApp_Internal.security;
+
+import com.example.ChatApp_Internal.repository.AccountRepository;
+import com.example.ChatApp_Internal.repository.BlacklistedTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * The filter in stateless mode: the principal comes from the token claims and
+ * the database is only read when the account has changed since the token was issued.
+ */
+class AuthTokenFilterTest {
+
+    private static final String EMAIL = "user@example.com";
+    private static final long VERSION = 1_700_000_000_000L;
+
+    private final JwtService jwtService = new JwtService(
+            "an-hs256-secret-of-at-least-thirty-two-bytes", 60_000, 600_000, 100);
+    private final AccountRepository accountRepository = mock(AccountRepository.class);
+    private final CustomUserDetailsService userDetailsService = mock(CustomUserDetailsService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AuthTokenFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        TokenRevocationIndex revocationIndex = new TokenRevocationIndex(
+                mock(BlacklistedTokenRepository.class), new InMemoryRevocationFeed());
+        AccountStateCache accountStateCache = new AccountStateCache(accountRepository, 60_000, 100);
+        filter = new AuthTokenFilter(jwtService, userDetailsService, revocationIndex,
+                accountStateCache, true, meterRegistry);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void principalIsBuiltFromTheRolesClaimWithoutReadingTheAccount() throws Exception {
+        givenAccount(VERSION, true);
+
+        filter(jwtService.generateAccessToken(EMAIL, List.of("USER", "ADMIN"), VERSION));
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals(EMAIL, authentication.getName());
+        assertEquals(Set.of("ROLE_USER", "ROLE_ADMIN"), authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toSet()));
+        verifyNoInteractions(userDetailsService);
+        assertEquals(1, meterRegistry.timer("app.auth.filter", "outcome", "authenticated").count());
+    }
+
+    @Test
+    void aChangedAccountIsReloadedThroughTheUserDetailsService() throws Exception {
+        givenAccount(VERSION + 1, true);
+        when(userDetailsService.loadUserByUsername(EMAIL)).thenReturn(User.builder()
+                .username(EMAIL)
+                .password("")
+                .roles("USER")
+                .build());
+
+        // The token still claims ADMIN, but the roles now come from the database
+        filter(jwtService.generateAccessToken(EMAIL, List.of("USER", "ADMIN"), VERSION));
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals(Set.of("ROLE_USER"), authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toSet()));
+        verify(userDetailsService).loadUserByUsername(EMAIL);
+    }
+
+    @Test
+    void anInactiveAccountIsRejected() throws Exception {
+        givenAccount(VERSION, false);
+
+        filter(jwtService.generateAccessToken(EMAIL, List.of("USER"), VERSION));
+
+        assertRejected();
+    }
+
+    @Test
+    void aMissingAccountIsRejected() throws Exception {
+        when(accountRepository.findStateByEmail(EMAIL)).thenReturn(Optional.empty());
+
+        filter(jwtService.generateAccessToken(EMAIL, List.of("USER"), VERSION));
+
+        assertRejected();
+    }
+
+    @Test
+    void aRefreshTokenIsNotAcceptedAsAnAccessToken() throws Exception {
+        givenAccount(VERSION, true);
+
+        filter(jwtService.generateRefreshToken(EMAIL, "context-1"));
+
+        assertRejected();
+        verifyNoInteractions(accountRepository);
+    }
+
+    private void givenAccount(long version, boolean active) {
+        when(accountRepository.findStateByEmail(EMAIL)).thenReturn(Optional.of(new AccountState(version, active)));
+    }
+
+    private void filter(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/profile");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // The request always continues down the chain; only the authentication differs
+        assertNotNull(chain.getRequest());
+    }
+
+    private void assertRejected() {
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+        assertEquals(1, meterRegistry.timer("app.auth.filter", "outcome", "rejected").count());
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.ChatApp_Internal.security;
+
+import com.example.ChatApp_Internal.exception.GlobalExceptionHandler;
+import com.example.ChatApp_Internal.exception.TooManyRequestsException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch started = new CountDownLatch(1);
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.shutdown();
+    }
+
+    @Test
+    void callsBeyondThePoolAndQueueAreRejectedAs429() throws Exception {
+        // One thread, one queue slot
+        encoder = new BoundedPasswordEncoder(new BlockingEncoder(), 1, 1, 5_000);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        waitFor(() -> encoder.getQueueDepth() == 1);
+
+        TooManyRequestsException e = assertThrows(TooManyRequestsException.class, () -> encoder.encode("c"));
+        assertEquals(1, encoder.getRejectedCount());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, new GlobalExceptionHandler().handleTooManyRequests(e).getStatusCode());
+
+        release.countDown();
+        assertEquals("hashed-a", running.get(1, TimeUnit.SECONDS));
+        assertEquals("hashed-b", queued.get(1, TimeUnit.SECONDS));
+        assertEquals(2, encoder.getHashCount());
+    }
+
+    @Test
+    void aHashThatTakesTooLongIsRejected() {
+        encoder = new BoundedPasswordEncoder(new BlockingEncoder(), 1, 1, 50);
+
+        assertThrows(TooManyRequestsException.class, () -> encoder.matches("a", "hashed-a"));
+        assertEquals(1, encoder.getRejectedCount());
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 1_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not reached");
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * Holds every hash until the test lets it finish.
+     */
+    private class BlockingEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            await();
+            return "hashed-" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            await();
+            return encodedPassword.equals("hashed-" + rawPassword);
+        }
+
+        private void await() {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
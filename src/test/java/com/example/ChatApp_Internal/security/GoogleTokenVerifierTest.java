@@ -0,0 +1,150 @@
+package com.example.ChatApp_Internal.security;
+
+import com.example.ChatApp_Internal.config.GoogleOAuth2Properties;
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
+import com.sun.net.httpserver.HttpServer;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileInputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.cert.Certificate;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the verifier against a local stand-in for Google's certs endpoint
+ * serving a freshly generated signing certificate.
+ */
+class GoogleTokenVerifierTest {
+
+    private static final String CLIENT_ID = "test-client.apps.googleusercontent.com";
+    private static final char[] PASSWORD = "changeit".toCharArray();
+
+    @TempDir
+    static Path tempDir;
+
+    private static PrivateKey signingKey;
+    private static PrivateKey unknownKey;
+    private static String certsJson;
+
+    private HttpServer server;
+    private final AtomicInteger certRequests = new AtomicInteger();
+    private GoogleOAuth2Properties properties;
+
+    @BeforeAll
+    static void generateKeys() throws Exception {
+        KeyStore signing = generateKeyStore("signing");
+        signingKey = (PrivateKey) signing.getKey("signing", PASSWORD);
+        unknownKey = (PrivateKey) generateKeyStore("unknown").getKey("unknown", PASSWORD);
+
+        Certificate certificate = signing.getCertificate("signing");
+        String pem = "-----BEGIN CERTIFICATE-----\\n"
+                + Base64.getEncoder().encodeToString(certificate.getEncoded())
+                + "\\n-----END CERTIFICATE-----\\n";
+        certsJson = "{\"signing\": \"" + pem + "\"}";
+    }
+
+    @BeforeEach
+    void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/certs", exchange -> {
+            certRequests.incrementAndGet();
+            byte[] body = certsJson.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.getResponseHeaders().add("Cache-Control", "public, max-age=3600");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        properties = new GoogleOAuth2Properties();
+        properties.setClientId(CLIENT_ID);
+        properties.setCertsUrl("http://localhost:" + server.getAddress().getPort() + "/certs");
+        properties.setKeyRefreshAheadMs(15 * 60 * 1000);
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void verificationUsesKeysFetchedInTheBackground() throws Exception {
+        GoogleTokenVerifier verifier = new GoogleTokenVerifier(properties);
+        verifier.refreshKeysIfExpiring();
+        assertEquals(1, certRequests.get());
+
+        for (int i = 0; i < 5; i++) {
+            GoogleIdToken token = verifier.verify(idToken(signingKey, "user" + i + "@example.com"));
+            assertNotNull(token);
+            assertEquals("user" + i + "@example.com", token.getPayload().getEmail());
+        }
+        assertNull(verifier.verify(idToken(unknownKey, "mallory@example.com")));
+
+        // Keys are still fresh, so the scheduled check leaves them alone
+        verifier.refreshKeysIfExpiring();
+        assertEquals(1, certRequests.get());
+        assertTrue(verifier.getKeysExpireAt() > System.currentTimeMillis());
+    }
+
+    @Test
+    void keysAreRefetchedAheadOfExpiry() throws Exception {
+        properties.setKeyRefreshAheadMs(2 * 60 * 60 * 1000);
+        GoogleTokenVerifier verifier = new GoogleTokenVerifier(properties);
+
+        verifier.refreshKeysIfExpiring();
+        verifier.refreshKeysIfExpiring();
+
+        assertEquals(2, certRequests.get());
+        assertNotNull(verifier.verify(idToken(signingKey, "user@example.com")));
+        assertEquals(2, certRequests.get());
+    }
+
+    private static String idToken(PrivateKey key, String email) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .header().keyId("signing").and()
+                .issuer("https://accounts.google.com")
+                .audience().add(CLIENT_ID).and()
+                .subject("1234567890")
+                .claim("email", email)
+                .claim("email_verified", true)
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + 3_600_000))
+                .signWith(key, Jwts.SIG.RS256)
+                .compact();
+    }
+
+    private static KeyStore generateKeyStore(String alias) throws Exception {
+        Path file = tempDir.resolve(alias + ".p12");
+        Path keytool = Path.of(System.getProperty("java.home"), "bin", "keytool");
+        Process process = new ProcessBuilder(keytool.toString(), "-genkeypair", "-alias", alias,
+                "-keyalg", "RSA", "-keysize", "2048", "-dname", "CN=" + alias, "-validity", "1",
+                "-storetype", "PKCS12", "-keystore", file.toString(),
+                "-storepass", new String(PASSWORD), "-keypass", new String(PASSWORD))
+                .inheritIO()
+                .start();
+        assertEquals(0, process.waitFor());
+
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (FileInputStream in = new FileInputStream(file.toFile())) {
+            keyStore.load(in, PASSWORD);
+        }
+        return keyStore;
+    }
+}
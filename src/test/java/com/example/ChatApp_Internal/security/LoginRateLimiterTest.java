@@ -0,0 +1,52 @@
+package com.example.ChatApp_Internal.security;
+
+import com.example.ChatApp_Internal.exception.TooManyRequestsException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginRateLimiterTest {
+
+    @Test
+    void emailBucketRejectsOnceEmptyAndRefillsOverTime() throws Exception {
+        // Two attempts per address, one more every 100 ms
+        LoginRateLimiter limiter = new LoginRateLimiter(2, 600, 100, 600);
+
+        limiter.acquire("User@example.com", "10.0.0.1");
+        limiter.acquire("user@example.com", "10.0.0.2");
+        assertThrows(TooManyRequestsException.class, () -> limiter.acquire("user@example.com", "10.0.0.3"));
+        assertEquals(1, limiter.getRejectedCount());
+
+        // Other addresses are unaffected
+        limiter.acquire("other@example.com", "10.0.0.1");
+
+        Thread.sleep(150);
+        limiter.acquire("user@example.com", "10.0.0.4");
+    }
+
+    @Test
+    void aThrottledIpCreatesNoEmailBuckets() {
+        LoginRateLimiter limiter = new LoginRateLimiter(5, 1, 3, 1);
+
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire("user" + i + "@example.com", "10.0.0.1");
+        }
+        for (int i = 3; i < 50; i++) {
+            String email = "user" + i + "@example.com";
+            assertThrows(TooManyRequestsException.class, () -> limiter.acquire(email, "10.0.0.1"));
+        }
+
+        assertEquals(3, limiter.getEmailBucketCount());
+        assertEquals(47, limiter.getRejectedCount());
+    }
+
+    @Test
+    void pruneKeepsBucketsThatAreStillRefilling() {
+        LoginRateLimiter limiter = new LoginRateLimiter(5, 1, 5, 1);
+        limiter.acquire("user@example.com", "10.0.0.1");
+
+        limiter.prune();
+
+        assertEquals(1, limiter.getEmailBucketCount());
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.ChatApp_Internal.security;
+
+import com.example.ChatApp_Internal.entity.Account;
+import com.example.ChatApp_Internal.entity.AuthProvider;
+import com.example.ChatApp_Internal.entity.BlacklistedToken;
+import com.example.ChatApp_Internal.repository.AccountRepository;
+import com.example.ChatApp_Internal.repository.BlacklistedTokenRepository;
+import com.example.ChatApp_Internal.service.AuthService;
+import com.example.ChatApp_Internal.service.EmailService;
+import com.example.ChatApp_Internal.util.DigestUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({AuthService.class, JwtService.class, TokenRevocationIndex.class, InMemoryRevocationFeed.class})
+class TokenRevocationIndexTest {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private TokenRevocationIndex revocationIndex;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private BlacklistedTokenRepository blacklistedTokenRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private PasswordEncoder passwordEncoder;
+
+    @MockitoBean
+    private AuthenticationManager authenticationManager;
+
+    @MockitoBean
+    private EmailService emailService;
+
+    @MockitoBean
+    private LoginRateLimiter loginRateLimiter;
+
+    @AfterEach
+    void cleanUp() {
+        blacklistedTokenRepository.deleteAll();
+        accountRepository.deleteAll();
+    }
+
+    @Test
+    void logoutRevokesTheTokenOnlyOnceTheBlacklistRowCommits() {
+        accountRepository.save(Account.builder()
+                .email("leaving@example.com")
+                .provider(AuthProvider.LOCAL)
+                .isVerified(true)
+                .isActive(true)
+                .build());
+        String accessToken = jwtService.generateAccessToken("leaving@example.com", List.of("MEMBER"), 0L);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            authService.logout(accessToken, null);
+            status.setRollbackOnly();
+        });
+        assertFalse(revocationIndex.isRevoked(accessToken));
+        assertEquals(0, blacklistedTokenRepository.count());
+
+        authService.logout(accessToken, null);
+        assertTrue(revocationIndex.isRevoked(accessToken));
+    }
+
+    @Test
+    void loadRestoresTheRevocationsThatHaveNotExpired() {
+        long now = System.currentTimeMillis();
+        blacklist("still-valid", now + 60_000);
+        blacklist("no-expiry", null);
+        blacklist("expired", now - 60_000);
+
+        // A node starting up sees only what is in the table
+        TokenRevocationIndex index = new TokenRevocationIndex(blacklistedTokenRepository, new InMemoryRevocationFeed());
+        index.load();
+
+        assertEquals(2, index.size());
+        assertTrue(index.isRevoked("still-valid"));
+        assertTrue(index.isRevoked("no-expiry"));
+        assertFalse(index.isRevoked("expired"));
+    }
+
+    @Test
+    void pruneDropsOnlyExpiredRevocations() throws Exception {
+        TokenRevocationIndex index = new TokenRevocationIndex(blacklistedTokenRepository, new InMemoryRevocationFeed());
+        long now = System.currentTimeMillis();
+        index.revoke("short-lived", now + 50);
+        index.revoke("long-lived", now + 60_000);
+
+        Thread.sleep(100);
+        assertFalse(index.isRevoked("short-lived"));
+        index.prune();
+
+        assertEquals(1, index.size());
+        assertTrue(index.isRevoked("long-lived"));
+    }
+
+    @Test
+    void revocationsFromOtherNodesArriveThroughTheFeed() {
+        InMemoryRevocationFeed feed = new InMemoryRevocationFeed();
+        TokenRevocationIndex local = new TokenRevocationIndex(blacklistedTokenRepository, feed);
+        TokenRevocationIndex remote = new TokenRevocationIndex(blacklistedTokenRepository, feed);
+        long expiresAt = System.currentTimeMillis() + 60_000;
+
+        local.revoke("logged-out-here", expiresAt);
+        feed.publish(DigestUtil.sha256("logged-out-elsewhere"), expiresAt);
+
+        assertTrue(remote.isRevoked("logged-out-here"));
+        assertTrue(local.isRevoked("logged-out-elsewhere"));
+        assertTrue(remote.isRevoked("logged-out-elsewhere"));
+        assertFalse(remote.isRevoked("never-revoked"));
+    }
+
+    private void blacklist(String token, Long expiresAt) {
+        blacklistedTokenRepository.save(BlacklistedToken.builder()
+                .token(token)
+                .reason("logout")
+                .expiresAt(expiresAt)
+                .build());
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.ChatApp_Internal.security;
+
+import com.example.ChatApp_Internal.dto.response.CacheStatsResponse;
+import com.example.ChatApp_Internal.event.AccountChangedEvent;
+import com.example.ChatApp_Internal.event.AccountsChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserDetailsCacheTest {
+
+    @Test
+    void entriesExpireAfterTheTtl() throws Exception {
+        UserDetailsCache cache = new UserDetailsCache(50, 100);
+        cache.put(user("user@example.com"));
+
+        assertNotNull(cache.get("user@example.com"));
+        Thread.sleep(100);
+        assertNull(cache.get("user@example.com"));
+    }
+
+    @Test
+    void eachGetReturnsACopyWithCredentials() {
+        UserDetailsCache cache = new UserDetailsCache(60_000, 100);
+        cache.put(user("user@example.com"));
+
+        UserDetails first = cache.get("user@example.com");
+        ((User) first).eraseCredentials();
+
+        assertEquals("secret", cache.get("user@example.com").getPassword());
+    }
+
+    @Test
+    void accountEventsEvictTheChangedAccounts() {
+        UserDetailsCache cache = new UserDetailsCache(60_000, 100);
+        for (int i = 0; i < 4; i++) {
+            cache.put(user("user" + i + "@example.com"));
+        }
+
+        cache.onAccountChanged(new AccountChangedEvent(1L, "user1@example.com"));
+        cache.onAccountsChanged(new AccountsChangedEvent(List.of(
+                new AccountChangedEvent(2L, "user2@example.com"),
+                new AccountChangedEvent(3L, "user3@example.com"))));
+
+        assertNotNull(cache.get("user0@example.com"));
+        assertNull(cache.get("user1@example.com"));
+        assertNull(cache.get("user2@example.com"));
+        assertNull(cache.get("user3@example.com"));
+        assertEquals(3, cache.getStats().getEvictions());
+    }
+
+    @Test
+    void statsCountHitsMissesAndEvictions() {
+        UserDetailsCache cache = new UserDetailsCache(60_000, 2);
+        cache.put(user("a@example.com"));
+        cache.get("a@example.com");
+        cache.get("a@example.com");
+        cache.get("b@example.com");
+
+        // Evicting an absent entry is not counted
+        cache.evict("b@example.com");
+        cache.evict("a@example.com");
+
+        // A full cache with nothing expired is cleared, and each dropped entry counts
+        cache.put(user("c@example.com"));
+        cache.put(user("d@example.com"));
+        cache.put(user("e@example.com"));
+
+        CacheStatsResponse stats = cache.getStats();
+        assertEquals(2, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(3, stats.getEvictions());
+        assertEquals(1, stats.getSize());
+        assertEquals(2.0 / 3, stats.getHitRate(), 1e-9);
+    }
+
+    private static UserDetails user(String email) {
+        return User.builder()
+                .username(email)
+                .password("secret")
+                .roles("USER")
+                .build();
+    }
+}
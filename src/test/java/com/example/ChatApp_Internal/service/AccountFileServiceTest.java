@@ -0,0 +1,192 @@
+package com.example.ChatApp_Internal.service;
+
+import com.example.ChatApp_Internal.config.AwsS3Config;
+import com.example.ChatApp_Internal.entity.Account;
+import com.example.ChatApp_Internal.entity.AuthProvider;
+import com.example.ChatApp_Internal.entity.FileBlob;
+import com.example.ChatApp_Internal.entity.FileDerivative;
+import com.example.ChatApp_Internal.entity.FileMetadata;
+import com.example.ChatApp_Internal.entity.FileStatus;
+import com.example.ChatApp_Internal.repository.AccountRepository;
+import com.example.ChatApp_Internal.repository.FileBlobRepository;
+import com.example.ChatApp_Internal.repository.FileDerivativeRepository;
+import com.example.ChatApp_Internal.repository.FileMetadataRepository;
+import com.example.ChatApp_Internal.repository.WorkspaceFileQuotaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest(properties = {
+        "app.files.quota.workspace-id=43",
+        "app.files.quota.default-max-bytes=10000"
+})
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({AccountFileService.class, FileBlobStore.class, WorkspaceQuotaService.class})
+class AccountFileServiceTest {
+
+    @Autowired
+    private AccountFileService accountFileService;
+
+    @Autowired
+    private WorkspaceQuotaService workspaceQuota;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private FileMetadataRepository fileMetadataRepository;
+
+    @Autowired
+    private FileBlobRepository fileBlobRepository;
+
+    @Autowired
+    private FileDerivativeRepository fileDerivativeRepository;
+
+    @Autowired
+    private WorkspaceFileQuotaRepository quotaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private S3Client s3Client;
+
+    @MockitoBean
+    private AwsS3Config awsConfig;
+
+    private Account leaving;
+    private FileBlob shared;
+    private FileBlob own;
+    private String thumbnailKey;
+
+    @BeforeEach
+    void setUp() {
+        leaving = account("leaving@example.com");
+        Account staying = account("staying@example.com");
+        shared = blob("shared", 3);
+        own = blob("own", 2);
+
+        file(leaving, shared, 100L, FileStatus.READY, false);
+        FileMetadata image = file(leaving, own, 200L, FileStatus.READY, false);
+        file(leaving, own, 200L, FileStatus.READY, false);
+        file(leaving, null, 50L, FileStatus.PENDING, false);
+        // Already released when it was deleted
+        file(leaving, null, 1000L, FileStatus.READY, true);
+        file(staying, shared, 100L, FileStatus.READY, false);
+        file(staying, shared, 100L, FileStatus.READY, false);
+
+        thumbnailKey = "derivatives/" + image.getFileId() + "/64.jpg";
+        fileDerivativeRepository.save(FileDerivative.builder()
+                .fileId(image.getFileId())
+                .sizePx(64)
+                .s3Key(thumbnailKey)
+                .contentType("image/jpeg")
+                .byteSize(10L)
+                .build());
+
+        workspaceQuota.reserve(750);
+        when(awsConfig.getBucketName()).thenReturn("bucket");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        fileDerivativeRepository.deleteAll();
+        fileMetadataRepository.deleteAll();
+        fileBlobRepository.deleteAll();
+        accountRepository.deleteAll();
+        quotaRepository.deleteAll();
+    }
+
+    @Test
+    void releasesTheQuotaAndBlobReferencesOfLiveFiles() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                accountFileService.releaseFiles(List.of(leaving.getAccountId())));
+
+        // 750 - (100 + 200 + 200 + 50)
+        assertEquals(200, usedBytes());
+        assertEquals(2, fileBlobRepository.findById(shared.getBlobId()).orElseThrow().getRefCount());
+        assertFalse(fileBlobRepository.existsById(own.getBlobId()));
+
+        // The blob nothing else shares, then the pending upload and the thumbnail that no blob tracks
+        ArgumentCaptor<DeleteObjectsRequest> deleted = ArgumentCaptor.forClass(DeleteObjectsRequest.class);
+        verify(s3Client, times(2)).deleteObjects(deleted.capture());
+        assertEquals(Set.of("files/own", "files/direct-50", thumbnailKey), deleted.getAllValues().stream()
+                .flatMap(request -> request.delete().objects().stream())
+                .map(ObjectIdentifier::key)
+                .collect(Collectors.toSet()));
+        verify(s3Client, never()).deleteObject(any(DeleteObjectRequest.class));
+    }
+
+    @Test
+    void nothingIsReleasedIfTheDeleteRollsBack() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            accountFileService.releaseFiles(List.of(leaving.getAccountId()));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(750, usedBytes());
+        assertEquals(3, fileBlobRepository.findById(shared.getBlobId()).orElseThrow().getRefCount());
+        assertEquals(2, fileBlobRepository.findById(own.getBlobId()).orElseThrow().getRefCount());
+        verify(s3Client, never()).deleteObject(any(DeleteObjectRequest.class));
+        verify(s3Client, never()).deleteObjects(any(DeleteObjectsRequest.class));
+    }
+
+    private long usedBytes() {
+        return quotaRepository.findById(43L).orElseThrow().getCurrentUsedBytes();
+    }
+
+    private Account account(String email) {
+        return accountRepository.save(Account.builder()
+                .email(email)
+                .provider(AuthProvider.LOCAL)
+                .isVerified(true)
+                .isActive(true)
+                .build());
+    }
+
+    private FileBlob blob(String name, int refCount) {
+        return fileBlobRepository.save(FileBlob.builder()
+                .sha256(name)
+                .s3Key("files/" + name)
+                .fileSize(100L)
+                .refCount(refCount)
+                .build());
+    }
+
+    private FileMetadata file(Account account, FileBlob blob, long size, FileStatus status, boolean deleted) {
+        return fileMetadataRepository.save(FileMetadata.builder()
+                .account(account)
+                .s3Key(blob != null ? blob.getS3Key() : "files/direct-" + size)
+                .blobId(blob != null ? blob.getBlobId() : null)
+                .fileSize(size)
+                .fileType("DOCUMENT")
+                .status(status)
+                .isDeleted(deleted)
+                .build());
+    }
+}
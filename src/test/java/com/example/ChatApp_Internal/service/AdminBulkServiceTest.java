@@ -0,0 +1,173 @@
+package com.example.ChatApp_Internal.service;
+
+import com.example.ChatApp_Internal.dto.request.BulkUserAction;
+import com.example.ChatApp_Internal.dto.request.BulkUserFilter;
+import com.example.ChatApp_Internal.dto.request.BulkUserOperationRequest;
+import com.example.ChatApp_Internal.dto.response.BulkOperationResponse;
+import com.example.ChatApp_Internal.entity.Account;
+import com.example.ChatApp_Internal.entity.AuthProvider;
+import com.example.ChatApp_Internal.entity.Profile;
+import com.example.ChatApp_Internal.entity.Role;
+import com.example.ChatApp_Internal.repository.AccountRepository;
+import com.example.ChatApp_Internal.repository.ProfileRepository;
+import com.example.ChatApp_Internal.repository.RoleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest(properties = "app.admin.bulk.chunk-size=4")
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(AdminBulkService.class)
+class AdminBulkServiceTest {
+
+    @Autowired
+    private AdminBulkService adminBulkService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private ProfileRepository profileRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @MockitoBean
+    private AccountFileService accountFileService;
+
+    private Role member;
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        member = roleRepository.save(Role.builder().roleName("MEMBER").build());
+        roleRepository.save(Role.builder().roleName("SUPPORT").build());
+
+        for (int i = 0; i < 10; i++) {
+            Account account = Account.builder()
+                    .email("user" + i + (i < 6 ? "@sales.example.com" : "@example.com"))
+                    .provider(AuthProvider.LOCAL)
+                    .isVerified(false)
+                    .isActive(i >= 2)
+                    .roles(Set.of(member))
+                    .build();
+            account.setProfile(Profile.builder()
+                    .account(account)
+                    .username("user" + i)
+                    .displayName("User " + i)
+                    .build());
+            ids.add(accountRepository.save(account).getAccountId());
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        accountRepository.deleteAll();
+        roleRepository.deleteAll();
+        ids.clear();
+    }
+
+    @Test
+    void deactivateReportsAnOutcomeForEveryId() {
+        List<Long> requested = new ArrayList<>(ids);
+        requested.add(-1L);
+
+        BulkOperationResponse response = adminBulkService.apply(BulkUserOperationRequest.builder()
+                .action(BulkUserAction.DEACTIVATE)
+                .accountIds(requested)
+                .build(), ids.get(9));
+
+        Map<Long, BulkOperationResponse.Status> statuses = response.getResults().stream()
+                .collect(Collectors.toMap(BulkOperationResponse.Result::getAccountId,
+                        BulkOperationResponse.Result::getStatus));
+        assertEquals(11, response.getRequested());
+        assertEquals(7, response.getUpdated());
+        assertEquals(2, response.getUnchanged());
+        assertEquals(1, response.getNotFound());
+        assertEquals(1, response.getSkipped());
+        assertEquals(BulkOperationResponse.Status.UNCHANGED, statuses.get(ids.get(0)));
+        assertEquals(BulkOperationResponse.Status.SKIPPED, statuses.get(ids.get(9)));
+        assertEquals(BulkOperationResponse.Status.NOT_FOUND, statuses.get(-1L));
+        assertEquals(1, accountRepository.countActiveAccounts());
+    }
+
+    @Test
+    void assignRolesByFilterReplacesRolesAndBumpsVersion() {
+        Account before = accountRepository.findById(ids.get(3)).orElseThrow();
+
+        BulkOperationResponse response = adminBulkService.apply(BulkUserOperationRequest.builder()
+                .action(BulkUserAction.ASSIGN_ROLES)
+                .filter(BulkUserFilter.builder().emailDomain("sales.example.com").isActive(true).build())
+                .roles(Set.of("SUPPORT"))
+                .build(), null);
+
+        assertEquals(4, response.getUpdated());
+        List<Account> accounts = accountRepository.findAllWithProfileAndRolesByIdIn(ids);
+        for (Account account : accounts) {
+            Set<String> roles = account.getRoles().stream().map(Role::getRoleName).collect(Collectors.toSet());
+            boolean matched = account.getIsActive() && account.getEmail().endsWith("@sales.example.com");
+            assertEquals(matched ? Set.of("SUPPORT") : Set.of("MEMBER"), roles);
+        }
+        Account after = accountRepository.findById(ids.get(3)).orElseThrow();
+        assertTrue(after.getUpdatedAt() >= before.getUpdatedAt());
+    }
+
+    @Test
+    void emailDomainIsMatchedLiterally() {
+        BulkOperationResponse response = adminBulkService.apply(BulkUserOperationRequest.builder()
+                .action(BulkUserAction.VERIFY)
+                .filter(BulkUserFilter.builder().emailDomain("example_com").build())
+                .build(), null);
+
+        assertEquals(0, response.getRequested());
+        response = adminBulkService.apply(BulkUserOperationRequest.builder()
+                .action(BulkUserAction.VERIFY)
+                .filter(BulkUserFilter.builder().emailDomain("%").build())
+                .build(), null);
+        assertEquals(0, response.getRequested());
+        assertTrue(accountRepository.findAll().stream().noneMatch(Account::getIsVerified));
+    }
+
+    @Test
+    void deleteRemovesAccountsWithProfilesButNeverTheCaller() {
+        BulkOperationResponse response = adminBulkService.apply(BulkUserOperationRequest.builder()
+                .action(BulkUserAction.DELETE)
+                .accountIds(ids.subList(0, 6))
+                .build(), ids.get(0));
+
+        assertEquals(5, response.getUpdated());
+        assertEquals(1, response.getSkipped());
+        assertEquals(5, accountRepository.count());
+        assertEquals(5, profileRepository.count());
+        assertTrue(accountRepository.existsById(ids.get(0)));
+        verify(accountFileService).releaseFiles(List.of(ids.get(1), ids.get(2), ids.get(3)));
+        verify(accountFileService).releaseFiles(List.of(ids.get(4), ids.get(5)));
+    }
+
+    @Test
+    void requestNeedsEitherIdsOrAFilter() {
+        assertThrows(RuntimeException.class, () -> adminBulkService.apply(BulkUserOperationRequest.builder()
+                .action(BulkUserAction.VERIFY)
+                .filter(new BulkUserFilter())
+                .build(), null));
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.ChatApp_Internal.service;
+
+import com.example.ChatApp_Internal.dto.response.AdminUserResponse;
+import com.example.ChatApp_Internal.dto.response.PageResponse;
+import com.example.ChatApp_Internal.entity.Account;
+import com.example.ChatApp_Internal.entity.AuthProvider;
+import com.example.ChatApp_Internal.entity.Profile;
+import com.example.ChatApp_Internal.entity.Role;
+import com.example.ChatApp_Internal.repository.AccountRepository;
+import com.example.ChatApp_Internal.repository.RoleRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({AdminService.class, UserSearchService.class})
+class AdminServiceUserListingTest {
+
+    private static final int ACCOUNTS = 40;
+
+    @Autowired
+    private AdminService adminService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @MockitoBean
+    private AccountFileService accountFileService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Role member = roleRepository.save(Role.builder().roleName("MEMBER").build());
+        Role admin = roleRepository.save(Role.builder().roleName("ADMIN").build());
+
+        for (int i = 0; i < ACCOUNTS; i++) {
+            Account account = Account.builder()
+                    .email("user" + i + "@example.com")
+                    .provider(AuthProvider.LOCAL)
+                    .isVerified(true)
+                    .isActive(true)
+                    .roles(i % 2 == 0 ? Set.of(member) : Set.of(member, admin))
+                    .build();
+            account.setProfile(Profile.builder()
+                    .account(account)
+                    .username("user" + i)
+                    .displayName("User " + i)
+                    .build());
+            accountRepository.save(account);
+        }
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        accountRepository.deleteAll();
+        roleRepository.deleteAll();
+    }
+
+    @Test
+    void statementCountDoesNotDependOnPageSize() {
+        // Warm the cached count so both measured calls do the same work
+        adminService.getAllUsers(0, 1, "createdAt", "desc");
+
+        statistics.clear();
+        PageResponse<AdminUserResponse> small = adminService.getAllUsers(0, 5, "createdAt", "desc");
+        long smallStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        PageResponse<AdminUserResponse> large = adminService.getAllUsers(0, 30, "createdAt", "desc");
+        long largeStatements = statistics.getPrepareStatementCount();
+
+        // One query for the page of ids, one for those rows with profile and roles
+        assertEquals(2, smallStatements);
+        assertEquals(2, largeStatements);
+        assertEquals(5, small.getContent().size());
+        assertEquals(30, large.getContent().size());
+        assertEquals(ACCOUNTS, large.getTotalElements().intValue());
+        assertEquals(2, large.getTotalPages().intValue());
+    }
+
+    @Test
+    void pageKeepsTheRequestedOrderAndLoadsProfilesAndRoles() {
+        PageResponse<AdminUserResponse> page = adminService.getAllUsers(1, 10, "email", "asc");
+
+        assertEquals(10, page.getContent().size());
+        for (int i = 1; i < page.getContent().size(); i++) {
+            String previous = page.getContent().get(i - 1).getEmail();
+            String current = page.getContent().get(i).getEmail();
+            assertTrue(previous.compareTo(current) < 0);
+        }
+        page.getContent().forEach(user -> {
+            assertEquals(user.getEmail().replace("@example.com", ""), user.getUsername());
+            assertTrue(user.getRoles().contains("MEMBER"));
+        });
+    }
+
+    @Test
+    void searchRejectsPagesOutsideTheBounds() {
+        assertThrows(RuntimeException.class, () -> adminService.searchUsers("user", -1, 20));
+        assertThrows(RuntimeException.class, () -> adminService.searchUsers("user", 0, 0));
+        assertThrows(RuntimeException.class, () -> adminService.searchUsers("user", 0, 2_000_000_000));
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> adminService.searchUsers("user", Integer.MAX_VALUE, 100));
+        assertEquals("Page is out of range", e.getMessage());
+    }
+
+    @Test
+    void cursorPagesWalkEveryAccountOnceWithTwoStatementsEach() {
+        Set<Long> seen = new HashSet<>();
+        String cursor = "";
+        int pages = 0;
+        PageResponse<AdminUserResponse> page;
+        do {
+            statistics.clear();
+            page = adminService.getUsersByCursor(cursor, 15, false);
+            assertEquals(2, statistics.getPrepareStatementCount());
+            assertNull(page.getTotalElements());
+            page.getContent().forEach(user -> assertTrue(seen.add(user.getAccountId())));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (!page.isLast());
+
+        assertEquals(ACCOUNTS, seen.size());
+        assertEquals(3, pages);
+        assertNull(cursor);
+    }
+}
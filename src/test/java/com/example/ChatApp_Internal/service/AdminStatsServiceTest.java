@@ -0,0 +1,183 @@
+package com.example.ChatApp_Internal.service;
+
+import com.example.ChatApp_Internal.dto.response.SystemStatsResponse;
+import com.example.ChatApp_Internal.entity.Account;
+import com.example.ChatApp_Internal.entity.AuthProvider;
+import com.example.ChatApp_Internal.entity.FileMetadata;
+import com.example.ChatApp_Internal.entity.FileStatus;
+import com.example.ChatApp_Internal.entity.TokenType;
+import com.example.ChatApp_Internal.entity.VerificationToken;
+import com.example.ChatApp_Internal.event.AccountChangedEvent;
+import com.example.ChatApp_Internal.event.FileDeletedEvent;
+import com.example.ChatApp_Internal.event.FileUploadedEvent;
+import com.example.ChatApp_Internal.repository.AccountRepository;
+import com.example.ChatApp_Internal.repository.FileMetadataRepository;
+import com.example.ChatApp_Internal.repository.VerificationTokenRepository;
+import com.example.ChatApp_Internal.security.InMemoryRevocationFeed;
+import com.example.ChatApp_Internal.security.JwtService;
+import com.example.ChatApp_Internal.security.LoginRateLimiter;
+import com.example.ChatApp_Internal.security.TokenRevocationIndex;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({AdminStatsService.class, AdminService.class, UserSearchService.class, AuthService.class,
+        JwtService.class, TokenRevocationIndex.class, InMemoryRevocationFeed.class})
+class AdminStatsServiceTest {
+
+    @Autowired
+    private AdminStatsService adminStatsService;
+
+    @Autowired
+    private AdminService adminService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private VerificationTokenRepository verificationTokenRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private FileMetadataRepository fileMetadataRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private AccountFileService accountFileService;
+
+    @MockitoBean
+    private PasswordEncoder passwordEncoder;
+
+    @MockitoBean
+    private AuthenticationManager authenticationManager;
+
+    @MockitoBean
+    private EmailService emailService;
+
+    @MockitoBean
+    private LoginRateLimiter loginRateLimiter;
+
+    @AfterEach
+    void cleanUp() {
+        verificationTokenRepository.deleteAll();
+        fileMetadataRepository.deleteAll();
+        accountRepository.deleteAll();
+    }
+
+    @Test
+    void totalsComeFromTwoAggregateQueriesAndAreThenCached() {
+        Account local = saveAccount("a@example.com", AuthProvider.LOCAL, true, true);
+        saveAccount("b@example.com", AuthProvider.LOCAL, false, true);
+        saveAccount("c@example.com", AuthProvider.GOOGLE, true, false);
+        saveFile(local, "k1", 100L, false);
+        saveFile(local, "k2", 250L, false);
+        saveFile(local, "k3", 1_000L, true);
+        // Started but never completed
+        fileMetadataRepository.save(FileMetadata.builder()
+                .account(local)
+                .s3Key("k4")
+                .fileSize(5_000L)
+                .fileType("OTHER")
+                .status(FileStatus.PENDING)
+                .isDeleted(false)
+                .build());
+        adminStatsService.onAccountChanged(new AccountChangedEvent(local.getAccountId(), local.getEmail()));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        SystemStatsResponse stats = adminStatsService.getSystemStats();
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(3, stats.getTotalUsers());
+        assertEquals(2, stats.getActiveUsers());
+        assertEquals(2, stats.getVerifiedUsers());
+        assertEquals(2, stats.getProviderStats().getLocalUsers());
+        assertEquals(1, stats.getProviderStats().getGoogleUsers());
+        assertEquals(0, stats.getProviderStats().getSsoUsers());
+        assertEquals(3, stats.getTotalFiles());
+        assertEquals(350, stats.getTotalFileSize());
+
+        statistics.clear();
+        adminStatsService.getSystemStats();
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void uploadedAndDeletedFilesRefreshTheTotals() {
+        Account account = saveAccount("a@example.com", AuthProvider.LOCAL, true, true);
+        adminStatsService.onAccountChanged(new AccountChangedEvent(account.getAccountId(), account.getEmail()));
+        assertEquals(0, adminStatsService.getSystemStats().getTotalFiles());
+
+        FileMetadata file = saveFile(account, "k1", 100L, false);
+        adminStatsService.onFileUploaded(new FileUploadedEvent(file.getFileId(), file.getS3Key(), "text/plain"));
+        assertEquals(1, adminStatsService.getSystemStats().getTotalFiles());
+        assertEquals(100, adminStatsService.getSystemStats().getTotalFileSize());
+
+        file.setIsDeleted(true);
+        fileMetadataRepository.save(file);
+        adminStatsService.onFileDeleted(new FileDeletedEvent(file.getFileId()));
+        assertEquals(0, adminStatsService.getSystemStats().getTotalFileSize());
+    }
+
+    @Test
+    void verifyingAnEmailRefreshesTheVerifiedCount() {
+        Account byAdmin = saveAccount("a@example.com", AuthProvider.LOCAL, false, true);
+        Account byLink = saveAccount("b@example.com", AuthProvider.LOCAL, false, true);
+        verificationTokenRepository.save(VerificationToken.builder()
+                .account(byLink)
+                .token("verify-b")
+                .type(TokenType.EMAIL_VERIFICATION)
+                .expiryDate(System.currentTimeMillis() + 60_000)
+                .used(false)
+                .build());
+        adminStatsService.onAccountChanged(new AccountChangedEvent(byLink.getAccountId(), byLink.getEmail()));
+        assertEquals(0, adminStatsService.getSystemStats().getVerifiedUsers());
+
+        adminService.verifyUserEmail(byAdmin.getAccountId());
+        assertEquals(1, adminStatsService.getSystemStats().getVerifiedUsers());
+
+        authService.verifyEmail("verify-b");
+        assertEquals(2, adminStatsService.getSystemStats().getVerifiedUsers());
+    }
+
+    private Account saveAccount(String email, AuthProvider provider, boolean verified, boolean active) {
+        return accountRepository.save(Account.builder()
+                .email(email)
+                .provider(provider)
+                .isVerified(verified)
+                .isActive(active)
+                .build());
+    }
+
+    private FileMetadata saveFile(Account account, String s3Key, long size, boolean deleted) {
+        return fileMetadataRepository.save(FileMetadata.builder()
+                .account(account)
+                .s3Key(s3Key)
+                .fileSize(size)
+                .fileType("OTHER")
+                .isDeleted(deleted)
+                .build());
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.ChatApp_Internal.service;
+
+import com.example.ChatApp_Internal.entity.Account;
+import com.example.ChatApp_Internal.entity.AuthProvider;
+import com.example.ChatApp_Internal.entity.RefreshContext;
+import com.example.ChatApp_Internal.entity.Role;
+import com.example.ChatApp_Internal.exception.RefreshTokenReuseException;
+import com.example.ChatApp_Internal.repository.AccountRepository;
+import com.example.ChatApp_Internal.repository.RefreshContextRepository;
+import com.example.ChatApp_Internal.repository.RoleRepository;
+import com.example.ChatApp_Internal.security.InMemoryRevocationFeed;
+import com.example.ChatApp_Internal.security.JwtService;
+import com.example.ChatApp_Internal.security.LoginRateLimiter;
+import com.example.ChatApp_Internal.security.TokenRevocationIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({AuthService.class, JwtService.class, TokenRevocationIndex.class, InMemoryRevocationFeed.class})
+class AuthServiceRefreshConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private RefreshContextRepository refreshContextRepository;
+
+    @MockitoBean
+    private PasswordEncoder passwordEncoder;
+
+    @MockitoBean
+    private AuthenticationManager authenticationManager;
+
+    @MockitoBean
+    private EmailService emailService;
+
+    @MockitoBean
+    private LoginRateLimiter loginRateLimiter;
+
+    @AfterEach
+    void cleanUp() {
+        refreshContextRepository.deleteAll();
+        accountRepository.deleteAll();
+        roleRepository.deleteAll();
+    }
+
+    @Test
+    void onlyOneConcurrentRefreshWithTheSameTokenSucceeds() throws Exception {
+        Role member = roleRepository.save(Role.builder().roleName("MEMBER").build());
+        Account account = accountRepository.save(Account.builder()
+                .email("racer@example.com")
+                .provider(AuthProvider.LOCAL)
+                .isVerified(true)
+                .isActive(true)
+                .roles(Set.of(member))
+                .build());
+
+        String contextId = UUID.randomUUID().toString();
+        refreshContextRepository.save(RefreshContext.builder()
+                .account(account)
+                .contextId(contextId)
+                .expiryDate(System.currentTimeMillis() + 60_000)
+                .revoked(false)
+                .build());
+        String refreshToken = jwtService.generateRefreshToken(account.getEmail(), contextId);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger reuseDetected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    authService.refreshToken(refreshToken);
+                    succeeded.incrementAndGet();
+                } catch (RefreshTokenReuseException e) {
+                    reuseDetected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(1, succeeded.get());
+        assertEquals(THREADS - 1, reuseDetected.get());
+        assertEquals(2, refreshContextRepository.count());
+        assertTrue(refreshContextRepository.findByContextId(contextId).orElseThrow().getRevoked());
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.ChatApp_Internal.service;
+
+import com.example.ChatApp_Internal.config.AwsS3Config;
+import com.example.ChatApp_Internal.dto.response.FileResponse;
+import com.example.ChatApp_Internal.entity.Account;
+import com.example.ChatApp_Internal.entity.FileBlob;
+import com.example.ChatApp_Internal.entity.FileMetadata;
+import com.example.ChatApp_Internal.exception.TooManyRequestsException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AwsS3AsyncServiceTest {
+
+    private S3AsyncClient s3AsyncClient;
+    private AwsS3Service awsS3Service;
+    private FileBlobStore fileBlobStore;
+    private WorkspaceQuotaService workspaceQuota;
+    private AwsS3AsyncService service;
+
+    @BeforeEach
+    void setUp() {
+        AwsS3Config config = new AwsS3Config();
+        config.setBucketName("bucket");
+        config.getAsync().setMaxInFlight(2);
+        config.getAsync().setAcquireTimeoutMs(50);
+        config.getAsync().setCallbackThreads(1);
+
+        s3AsyncClient = mock(S3AsyncClient.class);
+        awsS3Service = mock(AwsS3Service.class);
+        fileBlobStore = mock(FileBlobStore.class);
+        workspaceQuota = mock(WorkspaceQuotaService.class);
+        service = new AwsS3AsyncService(s3AsyncClient, config, awsS3Service, fileBlobStore, workspaceQuota);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void requestsBeyondTheLimitAreRefusedUntilOneCompletes() {
+        CompletableFuture<DeleteObjectResponse> first = new CompletableFuture<>();
+        CompletableFuture<DeleteObjectResponse> second = new CompletableFuture<>();
+        when(s3AsyncClient.deleteObject(any(DeleteObjectRequest.class)))
+                .thenReturn(first, second, CompletableFuture.completedFuture(DeleteObjectResponse.builder().build()));
+
+        CompletableFuture<Void> a = service.deleteObject("a");
+        service.deleteObject("b");
+        assertEquals(2, service.getInFlight());
+
+        assertThrows(TooManyRequestsException.class, () -> service.deleteObject("c"));
+        assertEquals(1, service.getRejectedCount());
+        verify(s3AsyncClient, times(2)).deleteObject(any(DeleteObjectRequest.class));
+
+        first.complete(DeleteObjectResponse.builder().build());
+        assertTrue(a.isDone());
+        assertEquals(1, service.getInFlight());
+
+        assertTrue(service.deleteObject("c").isDone());
+        assertEquals(1, service.getInFlight());
+    }
+
+    @Test
+    void failedRequestsGiveTheirSlotBack() {
+        when(s3AsyncClient.deleteObject(any(DeleteObjectRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("connection reset")));
+
+        CompletableFuture<Void> result = service.deleteObject("a");
+
+        assertTrue(result.isCompletedExceptionally());
+        assertEquals(0, service.getInFlight());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void aDownloadHoldsItsSlotUntilTheBodyIsClosed() throws Exception {
+        ResponseInputStream<GetObjectResponse> object = new ResponseInputStream<>(
+                GetObjectResponse.builder().contentLength(5L).build(),
+                AbortableInputStream.create(new ByteArrayInputStream("hello".getBytes(StandardCharsets.UTF_8))));
+        when(s3AsyncClient.getObject(any(GetObjectRequest.class), any(AsyncResponseTransformer.class)))
+                .thenReturn(CompletableFuture.completedFuture(object));
+
+        ResponseInputStream<GetObjectResponse> body = service.getObject(GetObjectRequest.builder()
+                .bucket("bucket")
+                .key("files/a.txt")
+                .build()).get(1, TimeUnit.SECONDS);
+        assertEquals(1, service.getInFlight());
+
+        assertEquals("hello", new String(body.readAllBytes(), StandardCharsets.UTF_8));
+        body.close();
+        body.close();
+        assertEquals(0, service.getInFlight());
+    }
+
+    @Test
+    void newContentIsPutAndRecordedOffTheCallersThread() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "report.pdf", "application/pdf",
+                "quarterly numbers".getBytes(StandardCharsets.UTF_8));
+        Account account = Account.builder().accountId(1L).email("owner@example.com").build();
+        FileBlob blob = FileBlob.builder().blobId(7L).s3Key("files/new.pdf").build();
+        FileMetadata metadata = FileMetadata.builder().fileId(3L).s3Key("files/new.pdf").build();
+        when(awsS3Service.getCurrentAccount()).thenReturn(account);
+        when(awsS3Service.getFileExtension("report.pdf")).thenReturn("pdf");
+        when(awsS3Service.generateS3Key("files", "pdf")).thenReturn("files/new.pdf");
+        when(fileBlobStore.acquire(anyString())).thenReturn(Optional.empty());
+        when(awsS3Service.registerUploaded(anyString(), eq("files/new.pdf"), eq(file.getSize()))).thenReturn(blob);
+        when(awsS3Service.saveUploaded(account, "report.pdf", "application/pdf", file.getSize(), blob))
+                .thenReturn(metadata);
+        when(awsS3Service.mapToFileResponse(metadata)).thenReturn(FileResponse.builder().fileId(3L).build());
+
+        CompletableFuture<PutObjectResponse> put = new CompletableFuture<>();
+        when(s3AsyncClient.putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class))).thenReturn(put);
+
+        CompletableFuture<FileResponse> result = service.uploadFile(file, "files");
+        assertFalse(result.isDone());
+        verify(awsS3Service, never()).saveUploaded(any(), any(), any(), anyLong(), any());
+
+        put.complete(PutObjectResponse.builder().build());
+        assertEquals(3L, result.get(1, TimeUnit.SECONDS).getFileId());
+        assertEquals(0, service.getInFlight());
+        verify(workspaceQuota).reserve(file.getSize());
+        verify(workspaceQuota, never()).release(anyLong());
+    }
+
+    @Test
+    void aFailedPutGivesTheQuotaBack() {
+        MockMultipartFile file = new MockMultipartFile("file", "report.pdf", "application/pdf",
+                "quarterly numbers".getBytes(StandardCharsets.UTF_8));
+        when(fileBlobStore.acquire(anyString())).thenReturn(Optional.empty());
+        when(awsS3Service.generateS3Key(any(), any())).thenReturn("files/new.pdf");
+        when(s3AsyncClient.putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("connection reset")));
+
+        CompletableFuture<FileResponse> result = service.uploadFile(file, "files");
+
+        assertThrows(ExecutionException.class, () -> result.get(1, TimeUnit.SECONDS));
+        verify(workspaceQuota).release(file.getSize());
+        verify(awsS3Service, never()).registerUploaded(any(), any(), anyLong());
+    }
+
+    @Test
+    void duplicateContentSkipsThePut() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "report.pdf", "application/pdf",
+                "quarterly numbers".getBytes(StandardCharsets.UTF_8));
+        FileBlob blob = FileBlob.builder().blobId(7L).s3Key("files/old.pdf").build();
+        FileMetadata metadata = FileMetadata.builder().fileId(4L).build();
+        when(fileBlobStore.acquire(anyString())).thenReturn(Optional.of(blob));
+        when(awsS3Service.saveUploaded(any(), any(), any(), anyLong(), eq(blob))).thenReturn(metadata);
+        when(awsS3Service.mapToFileResponse(metadata)).thenReturn(FileResponse.builder().fileId(4L).build());
+
+        assertEquals(4L, service.uploadFile(file, "files").get(1, TimeUnit.SECONDS).getFileId());
+        verifyNoInteractions(s3AsyncClient);
+    }
+}
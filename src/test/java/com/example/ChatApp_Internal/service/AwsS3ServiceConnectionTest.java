@@ -0,0 +1,86 @@
+package com.example.ChatApp_Internal.service;
+
+import com.example.ChatApp_Internal.dto.request.InitiateUploadRequest;
+import com.example.ChatApp_Internal.entity.FileMetadata;
+import com.example.ChatApp_Internal.entity.WorkspaceFileQuota;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.TestPropertySource;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * With a single pooled connection, an upload that needed a second one (a quota
+ * update or blob registration inside its own transaction) would time out.
+ */
+@TestPropertySource(properties = {
+        "spring.datasource.hikari.maximum-pool-size=1",
+        "spring.datasource.hikari.connection-timeout=250",
+        "app.files.quota.workspace-id=44"
+})
+class AwsS3ServiceConnectionTest extends AwsS3ServiceTestSupport {
+
+    @Autowired
+    private WorkspaceQuotaService workspaceQuota;
+
+    @BeforeEach
+    void setUp() {
+        when(uploadConfig.getMaxFileSize()).thenReturn(10_000L);
+        when(uploadConfig.getAllowedExtensionsList()).thenReturn(List.of("pdf"));
+    }
+
+    @Test
+    void anUploadNeedsOnlyOneConnectionAtATime() {
+        long usedBefore = usedBytes();
+
+        FileMetadata file = awsS3Service.uploadFile(pdf("report.pdf", "quarterly report"), "files");
+
+        assertTrue(fileMetadataRepository.existsById(file.getFileId()));
+        assertEquals(usedBefore + file.getFileSize(), usedBytes());
+    }
+
+    @Test
+    void aDirectUploadIsInitiatedWithOneConnection() {
+        long usedBefore = usedBytes();
+
+        awsS3Service.initiateUpload(InitiateUploadRequest.builder()
+                .fileName("report.pdf")
+                .contentType("application/pdf")
+                .fileSize(1234L)
+                .build(), "files");
+
+        assertEquals(usedBefore + 1234L, usedBytes());
+    }
+
+    @Test
+    void aFailedUploadGivesItsQuotaBack() {
+        long usedBefore = usedBytes();
+        when(s3Client.putObject(any(PutObjectRequest.class), any(RequestBody.class)))
+                .thenThrow(SdkClientException.create("connection reset"));
+
+        assertThrows(SdkClientException.class,
+                () -> awsS3Service.uploadFile(pdf("report.pdf", "never stored"), "files"));
+
+        assertEquals(usedBefore, usedBytes());
+        assertEquals(0, fileMetadataRepository.count());
+        assertEquals(0, fileBlobRepository.count());
+    }
+
+    private long usedBytes() {
+        WorkspaceFileQuota quota = workspaceQuota.getQuota();
+        return quota == null ? 0 : quota.getCurrentUsedBytes();
+    }
+
+    private static MockMultipartFile pdf(String name, String content) {
+        return new MockMultipartFile("file", name, "application/pdf", content.getBytes());
+    }
+}
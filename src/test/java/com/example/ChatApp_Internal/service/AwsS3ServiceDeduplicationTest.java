@@ -0,0 +1,111 @@
+package com.example.ChatApp_Internal.service;
+
+import com.example.ChatApp_Internal.dto.response.FileResponse;
+import com.example.ChatApp_Internal.entity.FileBlob;
+import com.example.ChatApp_Internal.entity.FileMetadata;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AwsS3ServiceDeduplicationTest extends AwsS3ServiceTestSupport {
+
+    private static final byte[] CONTENT = "the same quarterly report".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        when(uploadConfig.getMaxFileSize()).thenReturn(10_000L);
+        when(uploadConfig.getStreamMaxFileSize()).thenReturn(10_000L);
+        when(uploadConfig.getAllowedExtensionsList()).thenReturn(List.of("pdf"));
+    }
+
+    @Test
+    void identicalUploadsShareOneObjectUntilTheLastIsDeleted() {
+        FileMetadata first = awsS3Service.uploadFile(pdf("report.pdf"), "files");
+        FileMetadata second = awsS3Service.uploadFile(pdf("report (1).pdf"), "files");
+
+        verify(s3Client, times(1)).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+        assertEquals(first.getS3Key(), second.getS3Key());
+        assertEquals(first.getBlobId(), second.getBlobId());
+        assertEquals(2, fileBlobRepository.findById(first.getBlobId()).orElseThrow().getRefCount());
+
+        awsS3Service.deleteFile(first.getFileId());
+        verify(s3Client, never()).deleteObject(any(DeleteObjectRequest.class));
+        assertEquals(1, fileBlobRepository.findById(first.getBlobId()).orElseThrow().getRefCount());
+
+        awsS3Service.deleteFile(second.getFileId());
+        ArgumentCaptor<DeleteObjectRequest> deleted = ArgumentCaptor.forClass(DeleteObjectRequest.class);
+        verify(s3Client).deleteObject(deleted.capture());
+        assertEquals(first.getS3Key(), deleted.getValue().key());
+        assertFalse(fileBlobRepository.existsById(first.getBlobId()));
+
+        // The content can be stored again afterwards
+        awsS3Service.uploadFile(pdf("report.pdf"), "files");
+        verify(s3Client, times(2)).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+    }
+
+    @Test
+    void streamedDuplicateIsDroppedInFavourOfTheStoredObject() {
+        when(multipartUploader.upload(anyString(), anyString(), any(), any(InputStream.class), anyLong()))
+                .thenAnswer(invocation -> (long) invocation.getArgument(3, InputStream.class).readAllBytes().length);
+
+        FileMetadata stored = awsS3Service.uploadFile(pdf("report.pdf"), "files");
+        FileResponse streamed = awsS3Service.uploadStream(new ByteArrayInputStream(CONTENT),
+                "forwarded.pdf", "application/pdf", "files");
+
+        ArgumentCaptor<String> uploadedKey = ArgumentCaptor.forClass(String.class);
+        verify(multipartUploader).upload(anyString(), uploadedKey.capture(), any(), any(InputStream.class), anyLong());
+        ArgumentCaptor<DeleteObjectRequest> deleted = ArgumentCaptor.forClass(DeleteObjectRequest.class);
+        verify(s3Client).deleteObject(deleted.capture());
+        assertEquals(uploadedKey.getValue(), deleted.getValue().key());
+
+        FileMetadata duplicate = fileMetadataRepository.findById(streamed.getFileId()).orElseThrow();
+        assertEquals(stored.getS3Key(), duplicate.getS3Key());
+        FileBlob blob = fileBlobRepository.findById(stored.getBlobId()).orElseThrow();
+        assertEquals(2, blob.getRefCount());
+        assertEquals(CONTENT.length, blob.getFileSize());
+    }
+
+    @Test
+    void aRolledBackUploadDoesNotKeepItsBlob() {
+        assertThrows(IllegalStateException.class, () -> new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> {
+                    awsS3Service.uploadFile(pdf("avatar.pdf"), "files");
+                    throw new IllegalStateException("profile update failed");
+                }));
+
+        assertEquals(0, fileBlobRepository.count());
+        ArgumentCaptor<PutObjectRequest> put = ArgumentCaptor.forClass(PutObjectRequest.class);
+        verify(s3Client).putObject(put.capture(), any(RequestBody.class));
+        ArgumentCaptor<DeleteObjectRequest> deleted = ArgumentCaptor.forClass(DeleteObjectRequest.class);
+        verify(s3Client).deleteObject(deleted.capture());
+        assertEquals(put.getValue().key(), deleted.getValue().key());
+
+        // The same content is stored afresh next time
+        awsS3Service.uploadFile(pdf("avatar.pdf"), "files");
+        verify(s3Client, times(2)).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+        assertEquals(1, fileBlobRepository.findAll().get(0).getRefCount());
+    }
+
+    private static MockMultipartFile pdf(String name) {
+        return new MockMultipartFile("file", name, "application/pdf", CONTENT);
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.ChatApp_Internal.service;
+
+import com.example.ChatApp_Internal.dto.request.InitiateUploadRequest;
+import com.example.ChatApp_Internal.dto.response.UploadTicketResponse;
+import com.example.ChatApp_Internal.entity.FileMetadata;
+import com.example.ChatApp_Internal.entity.FileStatus;
+import com.example.ChatApp_Internal.repository.FileMetadataRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@Import(PendingUploadCleanupService.class)
+@MockitoSpyBean(types = FileMetadataRepository.class)
+class AwsS3ServiceDirectUploadTest extends AwsS3ServiceTestSupport {
+
+    @Autowired
+    private PendingUploadCleanupService cleanupService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        when(uploadConfig.getMaxFileSize()).thenReturn(10_000L);
+        when(uploadConfig.getAllowedExtensionsList()).thenReturn(List.of("png", "pdf"));
+        when(uploadConfig.getAllowedImageExtensionsList()).thenReturn(List.of("png"));
+    }
+
+    @Test
+    void initiateRecordsAPendingFileAndSignsAPutWithItsSizeAndType() {
+        UploadTicketResponse ticket = awsS3Service.initiateUpload(upload("report.pdf", 1234L), "files");
+
+        FileMetadata file = fileMetadataRepository.findById(ticket.getFileId()).orElseThrow();
+        assertEquals(FileStatus.PENDING, file.getStatus());
+        assertEquals("PUT", ticket.getMethod());
+        assertTrue(ticket.getUploadUrl().contains(file.getS3Key()));
+        assertTrue(ticket.getUploadUrl().contains("X-Amz-Signature="));
+        assertEquals("application/pdf", ticket.getHeaders().get("content-type"));
+        assertEquals("1234", ticket.getHeaders().get("content-length"));
+        verifyNoInteractions(s3Client);
+
+        // Not listed or downloadable until completed
+        assertTrue(awsS3Service.listFiles(null, 10, false).getContent().isEmpty());
+        assertThrows(RuntimeException.class, () -> awsS3Service.generatePresignedUrl(ticket.getFileId(), 60));
+    }
+
+    @Test
+    void initiateRejectsOversizedFilesAndDisallowedTypes() {
+        assertThrows(RuntimeException.class, () -> awsS3Service.initiateUpload(upload("big.pdf", 20_000L), "files"));
+        assertThrows(RuntimeException.class, () -> awsS3Service.initiateUpload(upload("run.exe", 10L), "files"));
+        assertThrows(RuntimeException.class, () -> awsS3Service.initiateImageUpload(upload("cv.pdf", 10L), "avatars"));
+        assertEquals(0, fileMetadataRepository.count());
+    }
+
+    @Test
+    void completeChecksTheObjectWithAHeadAndMarksTheFileReady() {
+        UploadTicketResponse ticket = awsS3Service.initiateUpload(upload("report.pdf", 1234L), "files");
+        when(s3Client.headObject(any(HeadObjectRequest.class)))
+                .thenThrow(S3Exception.builder().statusCode(404).build())
+                .thenReturn(HeadObjectResponse.builder().contentLength(1234L).contentType("application/pdf").build());
+
+        assertThrows(RuntimeException.class, () -> awsS3Service.completeUpload(ticket.getFileId(), "files"));
+        assertEquals(FileStatus.PENDING, fileMetadataRepository.findById(ticket.getFileId()).orElseThrow().getStatus());
+
+        awsS3Service.completeUpload(ticket.getFileId(), "files");
+        assertEquals(FileStatus.READY, fileMetadataRepository.findById(ticket.getFileId()).orElseThrow().getStatus());
+        assertEquals(1, awsS3Service.listFiles(null, 10, false).getContent().size());
+
+        // Completing again is a no-op
+        awsS3Service.completeUpload(ticket.getFileId(), "files");
+        verify(s3Client, times(2)).headObject(any(HeadObjectRequest.class));
+    }
+
+    @Test
+    void completeRejectsASizeMismatchAndAnotherFolder() {
+        UploadTicketResponse ticket = awsS3Service.initiateUpload(upload("photo.png", 500L), "files");
+        when(s3Client.headObject(any(HeadObjectRequest.class)))
+                .thenReturn(HeadObjectResponse.builder().contentLength(9_999L).build());
+
+        assertThrows(RuntimeException.class, () -> awsS3Service.completeUpload(ticket.getFileId(), "avatars"));
+        assertThrows(RuntimeException.class, () -> awsS3Service.completeUpload(ticket.getFileId(), "files"));
+
+        verify(s3Client).deleteObject(any(DeleteObjectRequest.class));
+        assertEquals(FileStatus.PENDING, fileMetadataRepository.findById(ticket.getFileId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void cleanupRemovesOnlyAbandonedPendingUploads() {
+        Long abandoned = awsS3Service.initiateUpload(upload("old.pdf", 10L), "files").getFileId();
+        Long recent = awsS3Service.initiateUpload(upload("new.pdf", 10L), "files").getFileId();
+        jdbcTemplate.update("UPDATE file_metadata SET created_at = 0 WHERE file_id = ?", abandoned);
+
+        cleanupService.purgeAbandonedUploads();
+
+        assertFalse(fileMetadataRepository.existsById(abandoned));
+        assertTrue(fileMetadataRepository.existsById(recent));
+        verify(s3Client).deleteObjects(any(DeleteObjectsRequest.class));
+    }
+
+    @Test
+    void cleanupKeepsTheObjectOfAnUploadCompletedMeanwhile() {
+        Long abandoned = awsS3Service.initiateUpload(upload("old.pdf", 10L), "files").getFileId();
+        Long completed = awsS3Service.initiateUpload(upload("late.pdf", 10L), "files").getFileId();
+        String abandonedKey = fileMetadataRepository.findById(abandoned).orElseThrow().getS3Key();
+        jdbcTemplate.update("UPDATE file_metadata SET created_at = 0");
+        // Completed after the cleanup read its batch, before the rows are deleted
+        doAnswer(invocation -> {
+            jdbcTemplate.update("UPDATE file_metadata SET status = 'READY' WHERE file_id = ?", completed);
+            // The spy wraps a repository proxy, so its default answer is what delegates to it
+            return mockingDetails(fileMetadataRepository).getMockCreationSettings().getDefaultAnswer()
+                    .answer(invocation);
+        }).when(fileMetadataRepository).deletePending(any());
+
+        cleanupService.purgeAbandonedUploads();
+
+        assertFalse(fileMetadataRepository.existsById(abandoned));
+        assertTrue(fileMetadataRepository.existsById(completed));
+        ArgumentCaptor<DeleteObjectsRequest> deleted = ArgumentCaptor.forClass(DeleteObjectsRequest.class);
+        verify(s3Client).deleteObjects(deleted.capture());
+        assertEquals(List.of(abandonedKey), deleted.getValue().delete().objects().stream()
+                .map(ObjectIdentifier::key)
+                .toList());
+    }
+
+    private static InitiateUploadRequest upload(String fileName, long size) {
+        return InitiateUploadRequest.builder()
+                .fileName(fileName)
+                .contentType(fileName.endsWith(".png") ? "image/png" : "application/pdf")
+                .fileSize(size)
+                .build();
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.ChatApp_Internal.service;
+
+import com.example.ChatApp_Internal.entity.FileMetadata;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.http.SdkHttpResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AwsS3ServiceDownloadTest extends AwsS3ServiceTestSupport {
+
+    private Long fileId;
+
+    @BeforeEach
+    void setUp() {
+        saveAccount("other@example.com");
+        fileId = fileMetadataRepository.save(FileMetadata.builder()
+                .account(owner)
+                .s3Key("files/report.pdf")
+                .originalFileName("report.pdf")
+                .contentType("application/pdf")
+                .fileSize(100L)
+                .fileType("PDF")
+                .isDeleted(false)
+                .build()).getFileId();
+    }
+
+    @Test
+    void singleRangeAndETagAreForwardedAndTheBodyIsStreamed() throws Exception {
+        byte[] content = "0123456789".getBytes(StandardCharsets.UTF_8);
+        when(s3Client.getObject(any(GetObjectRequest.class))).thenReturn(new ResponseInputStream<>(
+                GetObjectResponse.builder()
+                        .contentLength(10L)
+                        .contentRange("bytes 0-9/100")
+                        .eTag("\"abc\"")
+                        .build(),
+                AbortableInputStream.create(new ByteArrayInputStream(content))));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (FileDownload download = awsS3Service.openDownload(fileId, "bytes=0-9", "\"old\"")) {
+            assertEquals(206, download.status());
+            assertEquals("bytes 0-9/100", download.contentRange());
+            assertEquals("application/pdf", download.contentType());
+            download.transferTo(out);
+        }
+        assertArrayEquals(content, out.toByteArray());
+
+        ArgumentCaptor<GetObjectRequest> request = ArgumentCaptor.forClass(GetObjectRequest.class);
+        verify(s3Client).getObject(request.capture());
+        assertEquals("bytes=0-9", request.getValue().range());
+        assertEquals("\"old\"", request.getValue().ifNoneMatch());
+    }
+
+    @Test
+    void multipleOrMalformedRangesFetchTheWholeObject() {
+        when(s3Client.getObject(any(GetObjectRequest.class))).thenAnswer(invocation -> new ResponseInputStream<>(
+                GetObjectResponse.builder().contentLength(100L).build(),
+                AbortableInputStream.create(new ByteArrayInputStream(new byte[100]))));
+
+        for (String range : List.of("bytes=0-1,5-6", "lines=1-2")) {
+            try (FileDownload download = awsS3Service.openDownload(fileId, range, null)) {
+                assertEquals(200, download.status());
+            } catch (Exception e) {
+                fail(e);
+            }
+        }
+
+        ArgumentCaptor<GetObjectRequest> request = ArgumentCaptor.forClass(GetObjectRequest.class);
+        verify(s3Client, times(2)).getObject(request.capture());
+        request.getAllValues().forEach(value -> assertNull(value.range()));
+    }
+
+    @Test
+    void notModifiedAndUnsatisfiableRangeHaveNoBody() throws Exception {
+        when(s3Client.getObject(any(GetObjectRequest.class)))
+                .thenThrow(s3Error(304, "\"abc\""))
+                .thenThrow(s3Error(416, null));
+
+        try (FileDownload notModified = awsS3Service.openDownload(fileId, null, "\"abc\"")) {
+            assertEquals(304, notModified.status());
+            assertEquals("\"abc\"", notModified.eTag());
+            assertFalse(notModified.hasBody());
+        }
+        try (FileDownload unsatisfiable = awsS3Service.openDownload(fileId, "bytes=500-", null)) {
+            assertEquals(416, unsatisfiable.status());
+            assertEquals("bytes */100", unsatisfiable.contentRange());
+            assertFalse(unsatisfiable.hasBody());
+        }
+    }
+
+    @Test
+    void otherAccountsCannotDownload() {
+        signInAs("other@example.com");
+
+        assertThrows(RuntimeException.class, () -> awsS3Service.openDownload(fileId, null, null));
+        verifyNoInteractions(s3Client);
+    }
+
+    private static S3Exception s3Error(int status, String eTag) {
+        SdkHttpResponse.Builder response = SdkHttpResponse.builder().statusCode(status);
+        if (eTag != null) {
+            response.putHeader("ETag", eTag);
+        }
+        return (S3Exception) S3Exception.builder()
+                .statusCode(status)
+                .awsErrorDetails(AwsErrorDetails.builder().sdkHttpResponse(response.build()).build())
+                .build();
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.ChatApp_Internal.service;
+
+import com.example.ChatApp_Internal.entity.FileMetadata;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.files.presign.safety-margin-ms=60000"
+})
+class AwsS3ServicePresignTest extends AwsS3ServiceTestSupport {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoSpyBean
+    private S3Presigner s3Presigner;
+
+    private final List<Long> fileIds = new ArrayList<>();
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 5; i++) {
+            fileIds.add(fileMetadataRepository.save(FileMetadata.builder()
+                    .account(owner)
+                    .s3Key("files/image-" + i + ".png")
+                    .fileSize(100L)
+                    .fileType("IMAGE")
+                    .isDeleted(i == 4)
+                    .build()).getFileId());
+        }
+        saveAccount("other@example.com");
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void repeatedRequestsReuseTheSignedUrlWithoutAQuery() {
+        String first = awsS3Service.generatePresignedUrl(fileIds.get(0), 60);
+        statistics.clear();
+        String second = awsS3Service.generatePresignedUrl(fileIds.get(0), 60);
+
+        assertEquals(first, second);
+        assertEquals(0, statistics.getQueryExecutionCount() + statistics.getEntityLoadCount());
+        assertTrue(first.contains("image-0.png"));
+        verify(s3Presigner, times(1)).presignGetObject(any(GetObjectPresignRequest.class));
+
+        // A different lifetime is a different URL
+        assertNotEquals(first, awsS3Service.generatePresignedUrl(fileIds.get(0), 120));
+
+        // Deleting the file drops its cached URLs
+        awsS3Service.deleteFile(fileIds.get(0));
+        assertThrows(RuntimeException.class, () -> awsS3Service.generatePresignedUrl(fileIds.get(0), 60));
+    }
+
+    @Test
+    void lifetimesWithinTheSafetyMarginAreNotCached() {
+        awsS3Service.generatePresignedUrl(fileIds.get(0), 1);
+        awsS3Service.generatePresignedUrl(fileIds.get(0), 1);
+
+        verify(s3Presigner, times(2)).presignGetObject(any(GetObjectPresignRequest.class));
+    }
+
+    @Test
+    void batchSignsMissesWithOneQueryAndSkipsDeletedFiles() {
+        awsS3Service.generatePresignedUrl(fileIds.get(0), 60);
+        clearInvocations(s3Presigner);
+
+        statistics.clear();
+        Map<Long, String> urls = awsS3Service.generatePresignedUrls(fileIds, 60);
+
+        // The caller's account, then every requested file at once
+        assertEquals(2, statistics.getQueryExecutionCount());
+        assertEquals(fileIds.subList(0, 4).stream().sorted().toList(), urls.keySet().stream().sorted().toList());
+        verify(s3Presigner, times(3)).presignGetObject(any(GetObjectPresignRequest.class));
+
+        // All hits now, so nothing is read
+        statistics.clear();
+        assertEquals(urls, awsS3Service.generatePresignedUrls(fileIds.subList(0, 4), 60));
+        assertEquals(0, statistics.getQueryExecutionCount() + statistics.getEntityLoadCount());
+        verify(s3Presigner, times(3)).presignGetObject(any(GetObjectPresignRequest.class));
+    }
+
+    @Test
+    void otherUsersFilesAreNeverSigned() {
+        // Cached for the owner first, so a cache hit cannot skip the check
+        awsS3Service.generatePresignedUrl(fileIds.get(0), 60);
+        clearInvocations(s3Presigner);
+        signInAs("other@example.com");
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> awsS3Service.generatePresignedUrl(fileIds.get(0), 60));
+        assertEquals("You don't have permission to download this file", e.getMessage());
+        assertTrue(awsS3Service.generatePresignedUrls(fileIds, 60).isEmpty());
+        verifyNoInteractions(s3Presigner);
+    }
+}
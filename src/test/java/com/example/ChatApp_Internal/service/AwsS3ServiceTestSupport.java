@@ -0,0 +1,113 @@
+package com.example.ChatApp_Internal.service;
+
+import com.example.ChatApp_Internal.config.AwsS3Config;
+import com.example.ChatApp_Internal.config.UploadConfig;
+import com.example.ChatApp_Internal.entity.Account;
+import com.example.ChatApp_Internal.entity.AuthProvider;
+import com.example.ChatApp_Internal.repository.AccountRepository;
+import com.example.ChatApp_Internal.repository.FileBlobRepository;
+import com.example.ChatApp_Internal.repository.FileMetadataRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+
+/**
+ * Shared fixture for the {@link AwsS3Service} tests: the service on H2 with S3
+ * mocked (presigning is real and offline), and {@code owner@example.com} signed in.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({AwsS3Service.class, PresignedUrlCache.class, FileBlobStore.class, WorkspaceQuotaService.class,
+        AwsS3ServiceTestSupport.PresignerConfig.class})
+abstract class AwsS3ServiceTestSupport {
+
+    @Autowired
+    protected AwsS3Service awsS3Service;
+
+    @Autowired
+    protected AccountRepository accountRepository;
+
+    @Autowired
+    protected FileMetadataRepository fileMetadataRepository;
+
+    @Autowired
+    protected FileBlobRepository fileBlobRepository;
+
+    @MockitoBean
+    protected S3Client s3Client;
+
+    @MockitoBean
+    protected AwsS3Config awsConfig;
+
+    @MockitoBean
+    protected UploadConfig uploadConfig;
+
+    @MockitoBean
+    protected S3MultipartUploader multipartUploader;
+
+    protected Account owner;
+
+    @BeforeEach
+    void setUpOwner() {
+        owner = saveAccount("owner@example.com");
+        when(awsConfig.getBucketName()).thenReturn("bucket");
+        when(awsConfig.getBaseUrl()).thenReturn("https://bucket.s3.amazonaws.com");
+        signInAs(owner.getEmail());
+    }
+
+    @AfterEach
+    void cleanUpFiles() {
+        SecurityContextHolder.clearContext();
+        fileMetadataRepository.deleteAll();
+        fileBlobRepository.deleteAll();
+        accountRepository.deleteAll();
+    }
+
+    protected Account saveAccount(String email) {
+        return accountRepository.save(Account.builder()
+                .email(email)
+                .provider(AuthProvider.LOCAL)
+                .isVerified(true)
+                .isActive(true)
+                .build());
+    }
+
+    protected static void signInAs(String email) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(email, null, List.of()));
+    }
+
+    @TestConfiguration
+    static class PresignerConfig {
+
+        @Bean
+        S3Presigner s3Presigner() {
+            return S3Presigner.builder()
+                    .region(Region.US_EAST_1)
+                    .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("key", "secret")))
+                    .build();
+        }
+    }
+}
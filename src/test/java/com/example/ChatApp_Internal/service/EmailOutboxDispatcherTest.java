@@ -0,0 +1,149 @@
+package com.example.ChatApp_Internal.service;
+
+import com.example.ChatApp_Internal.entity.EmailStatus;
+import com.example.ChatApp_Internal.entity.OutboxEmail;
+import com.example.ChatApp_Internal.repository.OutboxEmailRepository;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({EmailService.class, EmailOutboxDispatcher.class, EmailOutboxDispatcherTest.SmtpStubConfig.class})
+class EmailOutboxDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private EmailOutboxDispatcher dispatcher;
+
+    @Autowired
+    private OutboxEmailRepository outboxEmailRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        outboxEmailRepository.deleteAll();
+    }
+
+    @Test
+    void queuedEmailsAreDeliveredAndRemoved() {
+        transactionTemplate.executeWithoutResult(status -> {
+            emailService.sendVerificationEmail("a@example.com", "token-a");
+            emailService.sendVerificationEmail("b@example.com", "token-b");
+            emailService.sendPasswordResetEmail("c@example.com", "token-c");
+        });
+
+        dispatcher.dispatch();
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(3, received.length);
+        assertEquals(0, outboxEmailRepository.count());
+    }
+
+    @Test
+    void rolledBackTransactionQueuesNothing() {
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            emailService.sendVerificationEmail("a@example.com", "token-a");
+            throw new IllegalStateException("registration failed");
+        }));
+
+        assertEquals(0, outboxEmailRepository.count());
+    }
+
+    @Test
+    void unreachableServerSchedulesRetryWithBackoff() {
+        greenMail.stop();
+        transactionTemplate.executeWithoutResult(status ->
+                emailService.sendVerificationEmail("a@example.com", "token-a"));
+        long before = System.currentTimeMillis();
+
+        dispatcher.dispatch();
+
+        List<OutboxEmail> pending = outboxEmailRepository.findAll();
+        assertEquals(1, pending.size());
+        OutboxEmail email = pending.get(0);
+        assertEquals(EmailStatus.PENDING, email.getStatus());
+        assertEquals(1, email.getAttempts());
+        assertNotNull(email.getLastError());
+        assertTrue(email.getNextAttemptAt() > before);
+    }
+
+    @Test
+    void aClaimedBatchIsNotPickedUpAgainUntilTheClaimRunsOut() {
+        transactionTemplate.executeWithoutResult(status -> {
+            emailService.sendVerificationEmail("a@example.com", "token-a");
+            emailService.sendVerificationEmail("b@example.com", "token-b");
+        });
+
+        // Claimed by one node, which then dies before sending
+        assertEquals(2, dispatcher.claimDue().size());
+        assertTrue(dispatcher.claimDue().isEmpty());
+        dispatcher.dispatch();
+        assertEquals(0, greenMail.getReceivedMessages().length);
+
+        outboxEmailRepository.findAll().forEach(email -> {
+            email.setNextAttemptAt(System.currentTimeMillis() - 1);
+            outboxEmailRepository.save(email);
+        });
+        dispatcher.dispatch();
+        assertEquals(2, greenMail.getReceivedMessages().length);
+        assertEquals(0, outboxEmailRepository.count());
+    }
+
+    @Test
+    void pendingCountIsReadOncePerTtlAndRefreshedAfterABatch() {
+        greenMail.stop();
+        transactionTemplate.executeWithoutResult(status ->
+                emailService.sendVerificationEmail("a@example.com", "token-a"));
+        dispatcher.dispatch();
+        assertEquals(1, dispatcher.getPendingCount());
+
+        // Queued since the last read, but the gauge keeps its value until the TTL or the next batch
+        transactionTemplate.executeWithoutResult(status ->
+                emailService.sendVerificationEmail("b@example.com", "token-b"));
+        assertEquals(1, dispatcher.getPendingCount());
+
+        dispatcher.dispatch();
+        assertEquals(2, dispatcher.getPendingCount());
+    }
+
+    @TestConfiguration
+    static class SmtpStubConfig {
+
+        @Bean
+        JavaMailSender javaMailSender() {
+            JavaMailSenderImpl sender = new JavaMailSenderImpl();
+            sender.setHost("localhost");
+            sender.setPort(ServerSetupTest.SMTP.getPort());
+            return sender;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.ChatApp_Internal.service;
+
+import com.example.ChatApp_Internal.config.GoogleHttpClientConfig;
+import com.example.ChatApp_Internal.config.GoogleOAuth2Properties;
+import com.example.ChatApp_Internal.dto.google.GoogleTokenResponse;
+import com.example.ChatApp_Internal.exception.TooManyRequestsException;
+import com.example.ChatApp_Internal.exception.UpstreamUnavailableException;
+import com.example.ChatApp_Internal.security.GoogleTokenVerifier;
+import com.example.ChatApp_Internal.util.CircuitBreaker;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exercises the Google HTTP client against a local server standing in for Google.
+ */
+class GoogleApiClientTest {
+
+    private HttpServer server;
+    private String baseUrl;
+    private final AtomicInteger brokenCalls = new AtomicInteger();
+    private final CountDownLatch releaseSlow = new CountDownLatch(1);
+    private CloseableHttpClient httpClient;
+    private SimpleMeterRegistry meterRegistry;
+    private GoogleApiClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/token", exchange -> respond(exchange, 200,
+                "{\"access_token\":\"ya29.token\",\"expires_in\":3599,\"token_type\":\"Bearer\"}"));
+        server.createContext("/broken", exchange -> {
+            brokenCalls.incrementAndGet();
+            respond(exchange, 503, "{}");
+        });
+        server.createContext("/slow", exchange -> {
+            try {
+                releaseSlow.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, "{}");
+        });
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+
+        GoogleHttpClientConfig config = new GoogleHttpClientConfig();
+        config.setConnectTimeoutMs(1000);
+        config.setReadTimeoutMs(300);
+        config.setMaxConnections(4);
+        config.setMaxInFlight(1);
+        config.setAcquireTimeoutMs(50);
+        config.setBreakerFailureThreshold(3);
+        config.setBreakerOpenMs(60_000);
+        httpClient = config.googleHttpClient();
+        meterRegistry = new SimpleMeterRegistry();
+        client = new GoogleApiClient(config.googleRestTemplate(httpClient), meterRegistry, config);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        releaseSlow.countDown();
+        httpClient.close();
+        server.stop(0);
+    }
+
+    @Test
+    void tokenExchangeGoesToTheConfiguredEndpoint() {
+        GoogleOAuth2Properties properties = new GoogleOAuth2Properties();
+        properties.setClientId("client");
+        properties.setTokenUrl(baseUrl + "/token");
+        properties.setCertsUrl(baseUrl + "/certs");
+        GoogleOAuth2Service service = new GoogleOAuth2Service(properties, new GoogleTokenVerifier(properties), client);
+
+        GoogleTokenResponse response = service.exchangeCodeForToken("code", "http://localhost/callback");
+
+        assertEquals("ya29.token", response.getAccessToken());
+        assertEquals(1, meterRegistry.get("app.google.http")
+                .tags("endpoint", "token", "outcome", "success").timer().count());
+    }
+
+    @Test
+    void slowUpstreamTimesOutInsteadOfHoldingTheThread() {
+        long start = System.currentTimeMillis();
+
+        assertThrows(ResourceAccessException.class, () -> call("/slow"));
+
+        assertTrue(System.currentTimeMillis() - start < 2_000);
+        assertEquals(1, meterRegistry.get("app.google.http").tags("outcome", "io_error").timer().count());
+    }
+
+    @Test
+    void circuitOpensAfterRepeatedServerErrors() {
+        for (int i = 0; i < 3; i++) {
+            assertThrows(HttpServerErrorException.class, () -> call("/broken"));
+        }
+
+        assertThrows(UpstreamUnavailableException.class, () -> call("/broken"));
+        assertEquals(3, brokenCalls.get());
+        assertEquals(CircuitBreaker.State.OPEN, client.getCircuitState());
+    }
+
+    @Test
+    void callsBeyondTheInFlightLimitAreRejected() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> pending = executor.submit(() -> assertThrows(ResourceAccessException.class, () -> call("/slow")));
+            while (client.getInFlight() == 0) {
+                Thread.onSpinWait();
+            }
+
+            assertThrows(TooManyRequestsException.class, () -> call("/token"));
+            pending.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Object call(String path) {
+        return client.exchange(path, baseUrl + path, HttpMethod.GET, HttpEntity.EMPTY, String.class);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.ChatApp_Internal.service;
+
+import com.example.ChatApp_Internal.dto.google.GoogleUserInfo;
+import com.example.ChatApp_Internal.dto.request.GoogleIdTokenRequest;
+import com.example.ChatApp_Internal.entity.Account;
+import com.example.ChatApp_Internal.entity.AuthProvider;
+import com.example.ChatApp_Internal.entity.Profile;
+import com.example.ChatApp_Internal.entity.Role;
+import com.example.ChatApp_Internal.repository.AccountRepository;
+import com.example.ChatApp_Internal.repository.ProfileRepository;
+import com.example.ChatApp_Internal.repository.RefreshContextRepository;
+import com.example.ChatApp_Internal.repository.RoleRepository;
+import com.example.ChatApp_Internal.security.JwtService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({GoogleAuthService.class, JwtService.class})
+class GoogleAuthServiceSignUpTest {
+
+    private static final int THREADS = 12;
+
+    @Autowired
+    private GoogleAuthService googleAuthService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private ProfileRepository profileRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private RefreshContextRepository refreshContextRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private GoogleOAuth2Service googleOAuth2Service;
+
+    @BeforeEach
+    void setUp() {
+        roleRepository.save(Role.builder().roleName("MEMBER").build());
+        // The "ID token" is the email; every user is called John
+        when(googleOAuth2Service.verifyIdToken(anyString())).thenAnswer(invocation -> GoogleUserInfo.builder()
+                .id(invocation.getArgument(0))
+                .email(invocation.getArgument(0))
+                .emailVerified(true)
+                .name("John Doe")
+                .givenName("John")
+                .build());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        refreshContextRepository.deleteAll();
+        profileRepository.deleteAll();
+        accountRepository.deleteAll();
+        roleRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentSignUpsWithTheSameGivenNameGetDistinctUsernames() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                String email = "john" + i + "@example.com";
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return googleAuthService.authenticateWithIdToken(new GoogleIdTokenRequest(email));
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Set<String> usernames = profileRepository.findAll().stream()
+                .map(Profile::getUsername)
+                .collect(Collectors.toSet());
+        assertEquals(THREADS, usernames.size());
+        assertTrue(usernames.contains("john"));
+        assertTrue(usernames.stream().allMatch(name -> name.matches("john\\d*")));
+    }
+
+    @Test
+    void signUpCostDoesNotGrowWithCollisions() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        googleAuthService.authenticateWithIdToken(new GoogleIdTokenRequest("john0@example.com"));
+        long firstJohn = statistics.getPrepareStatementCount();
+
+        for (int i = 1; i < 30; i++) {
+            googleAuthService.authenticateWithIdToken(new GoogleIdTokenRequest("john" + i + "@example.com"));
+        }
+
+        statistics.clear();
+        googleAuthService.authenticateWithIdToken(new GoogleIdTokenRequest("john30@example.com"));
+
+        assertEquals(firstJohn, statistics.getPrepareStatementCount());
+        assertEquals("john30", profileRepository.findById(
+                accountRepository.findByEmail("john30@example.com").orElseThrow().getAccountId())
+                .orElseThrow().getUsername());
+    }
+
+    @Test
+    void onlyTheBareNameAndNumberedNamesCount() {
+        for (String username : List.of("johnny", "john007", "john12x", "john3", "john")) {
+            Account account = Account.builder()
+                    .email(username + "@elsewhere.example.com")
+                    .provider(AuthProvider.LOCAL)
+                    .isVerified(true)
+                    .isActive(true)
+                    .build();
+            account.setProfile(Profile.builder()
+                    .account(account)
+                    .username(username)
+                    .displayName(username)
+                    .build());
+            accountRepository.save(account);
+        }
+
+        assertEquals("john3", profileRepository.findHighestNumberedUsername("john").orElseThrow());
+        assertTrue(profileRepository.findHighestNumberedUsername("jane").isEmpty());
+
+        googleAuthService.authenticateWithIdToken(new GoogleIdTokenRequest("john@example.com"));
+        assertEquals("john4", profileRepository.findById(
+                accountRepository.findByEmail("john@example.com").orElseThrow().getAccountId())
+                .orElseThrow().getUsername());
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.ChatApp_Internal.service;
+
+import com.example.ChatApp_Internal.config.AwsS3Config;
+import com.example.ChatApp_Internal.entity.Account;
+import com.example.ChatApp_Internal.entity.AuthProvider;
+import com.example.ChatApp_Internal.entity.FileDerivative;
+import com.example.ChatApp_Internal.entity.FileMetadata;
+import com.example.ChatApp_Internal.entity.Profile;
+import com.example.ChatApp_Internal.event.FileDeletedEvent;
+import com.example.ChatApp_Internal.repository.AccountRepository;
+import com.example.ChatApp_Internal.repository.FileDerivativeRepository;
+import com.example.ChatApp_Internal.repository.FileMetadataRepository;
+import com.example.ChatApp_Internal.repository.ProfileRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest(properties = "app.files.derivatives.max-source-pixels=1000000")
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(ImageDerivativeService.class)
+class ImageDerivativeServiceTest {
+
+    @Autowired
+    private ImageDerivativeService imageDerivativeService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private ProfileRepository profileRepository;
+
+    @Autowired
+    private FileMetadataRepository fileMetadataRepository;
+
+    @Autowired
+    private FileDerivativeRepository fileDerivativeRepository;
+
+    @MockitoBean
+    private S3Client s3Client;
+
+    @MockitoBean
+    private AwsS3Config awsConfig;
+
+    private Long accountId;
+    private Long fileId;
+
+    @BeforeEach
+    void setUp() {
+        Account account = Account.builder()
+                .email("owner@example.com")
+                .provider(AuthProvider.LOCAL)
+                .isVerified(true)
+                .isActive(true)
+                .build();
+        account.setProfile(Profile.builder()
+                .account(account)
+                .username("owner")
+                .displayName("Owner")
+                .build());
+        account = accountRepository.save(account);
+        accountId = account.getAccountId();
+
+        fileId = fileMetadataRepository.save(FileMetadata.builder()
+                .account(account)
+                .s3Key("avatars/photo.png")
+                .contentType("image/png")
+                .fileSize(100L)
+                .fileType("IMAGE")
+                .isDeleted(false)
+                .build()).getFileId();
+
+        Profile profile = profileRepository.findById(accountId).orElseThrow();
+        profile.setAvatarFileId(fileId);
+        profileRepository.save(profile);
+
+        when(awsConfig.getBucketName()).thenReturn("bucket");
+        when(awsConfig.getBaseUrl()).thenReturn("https://bucket.s3.amazonaws.com");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        fileDerivativeRepository.deleteAll();
+        fileMetadataRepository.deleteAll();
+        accountRepository.deleteAll();
+    }
+
+    @Test
+    void rendersEverySizeAsJpegAndSetsTheAvatarThumbnail() throws Exception {
+        stubSource(image(800, 600, BufferedImage.TYPE_INT_RGB));
+        long generated = imageDerivativeService.getGeneratedCount();
+
+        imageDerivativeService.generate(fileId, "avatars/photo.png");
+
+        ArgumentCaptor<PutObjectRequest> puts = ArgumentCaptor.forClass(PutObjectRequest.class);
+        ArgumentCaptor<RequestBody> bodies = ArgumentCaptor.forClass(RequestBody.class);
+        verify(s3Client, times(3)).putObject(puts.capture(), bodies.capture());
+        assertEquals(List.of("derivatives/" + fileId + "/256.jpg", "derivatives/" + fileId + "/64.jpg",
+                "derivatives/" + fileId + "/32.jpg"), puts.getAllValues().stream().map(PutObjectRequest::key).toList());
+
+        BufferedImage smallest = ImageIO.read(bodies.getAllValues().get(2).contentStreamProvider().newStream());
+        assertEquals(32, smallest.getWidth());
+        assertEquals(32, smallest.getHeight());
+
+        List<FileDerivative> derivatives = new ArrayList<>(fileDerivativeRepository.findByFileId(fileId));
+        derivatives.sort(Comparator.comparing(FileDerivative::getSizePx));
+        assertEquals(List.of(32, 64, 256), derivatives.stream().map(FileDerivative::getSizePx).toList());
+        assertTrue(derivatives.stream().allMatch(derivative -> derivative.getContentType().equals("image/jpeg")));
+
+        assertEquals("https://bucket.s3.amazonaws.com/derivatives/" + fileId + "/64.jpg",
+                profileRepository.findById(accountId).orElseThrow().getAvatarThumbnailUrl());
+        assertEquals(generated + 1, imageDerivativeService.getGeneratedCount());
+    }
+
+    @Test
+    void transparentImagesStayPng() throws Exception {
+        stubSource(image(100, 100, BufferedImage.TYPE_INT_ARGB));
+
+        imageDerivativeService.generate(fileId, "avatars/photo.png");
+
+        assertTrue(fileDerivativeRepository.findByFileId(fileId).stream()
+                .allMatch(derivative -> derivative.getS3Key().endsWith(".png")
+                        && derivative.getContentType().equals("image/png")));
+    }
+
+    @Test
+    void imagesOverThePixelLimitAreRefusedBeforeDecoding() throws Exception {
+        stubSource(image(2000, 1000, BufferedImage.TYPE_INT_RGB));
+        long failed = imageDerivativeService.getFailedCount();
+
+        imageDerivativeService.generate(fileId, "avatars/photo.png");
+
+        verify(s3Client, never()).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+        assertTrue(fileDerivativeRepository.findByFileId(fileId).isEmpty());
+        assertEquals(failed + 1, imageDerivativeService.getFailedCount());
+    }
+
+    @Test
+    void deletingTheFileRemovesItsThumbnails() throws Exception {
+        stubSource(image(300, 300, BufferedImage.TYPE_INT_RGB));
+        imageDerivativeService.generate(fileId, "avatars/photo.png");
+
+        imageDerivativeService.onFileDeleted(new FileDeletedEvent(fileId));
+
+        ArgumentCaptor<DeleteObjectsRequest> deleted = ArgumentCaptor.forClass(DeleteObjectsRequest.class);
+        verify(s3Client).deleteObjects(deleted.capture());
+        assertEquals(3, deleted.getValue().delete().objects().size());
+        assertTrue(fileDerivativeRepository.findByFileId(fileId).isEmpty());
+    }
+
+    private void stubSource(byte[] content) {
+        when(s3Client.getObject(any(GetObjectRequest.class))).thenAnswer(invocation -> new ResponseInputStream<>(
+                GetObjectResponse.builder().contentLength((long) content.length).build(),
+                AbortableInputStream.create(new ByteArrayInputStream(content))));
+    }
+
+    private static byte[] image(int width, int height, int type) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, type);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                image.setRGB(x, y, 0x80000000 | (x % 256) << 16 | (y % 256) << 8);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
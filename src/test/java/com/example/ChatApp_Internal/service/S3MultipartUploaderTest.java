@@ -0,0 +1,185 @@
+package com.example.ChatApp_Internal.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class S3MultipartUploaderTest {
+
+    private static final int PART_SIZE = 64 * 1024;
+    private static final int PARALLEL_PARTS = 3;
+
+    private final StubS3Client s3 = new StubS3Client();
+    private final S3MultipartUploader uploader = new S3MultipartUploader(s3, PART_SIZE, PARALLEL_PARTS, 8);
+
+    @AfterEach
+    void tearDown() {
+        uploader.shutdown();
+    }
+
+    @Test
+    void largeStreamIsStoredInPartsWithBoundedConcurrency() {
+        byte[] content = randomBytes(PART_SIZE * 10 + 123);
+
+        long size = uploader.upload("bucket", "files/big.zip", "application/zip",
+                new ByteArrayInputStream(content), Long.MAX_VALUE);
+
+        assertEquals(content.length, size);
+        assertArrayEquals(content, s3.objects.get("files/big.zip"));
+        assertEquals(11, s3.partsUploaded.get());
+        assertTrue(s3.maxConcurrentParts.get() <= PARALLEL_PARTS);
+        assertTrue(s3.maxConcurrentParts.get() > 1);
+        assertTrue(s3.uploads.isEmpty());
+    }
+
+    @Test
+    void streamSmallerThanOnePartIsASinglePut() {
+        byte[] content = randomBytes(1000);
+
+        uploader.upload("bucket", "files/small.txt", "text/plain", new ByteArrayInputStream(content), Long.MAX_VALUE);
+
+        assertArrayEquals(content, s3.objects.get("files/small.txt"));
+        assertEquals(0, s3.partsUploaded.get());
+    }
+
+    @Test
+    void failedPartAbortsTheUpload() {
+        s3.failPart = 4;
+
+        assertThrows(RuntimeException.class, () -> uploader.upload("bucket", "files/broken.zip", "application/zip",
+                new ByteArrayInputStream(randomBytes(PART_SIZE * 8)), Long.MAX_VALUE));
+
+        assertFalse(s3.objects.containsKey("files/broken.zip"));
+        assertEquals(Set.of("files/broken.zip"), s3.aborted);
+        assertTrue(s3.uploads.isEmpty());
+        assertEquals(1, uploader.getAbortedUploads());
+    }
+
+    @Test
+    void oversizedOrBrokenStreamAbortsTheUpload() {
+        assertThrows(RuntimeException.class, () -> uploader.upload("bucket", "files/huge.zip", "application/zip",
+                new ByteArrayInputStream(randomBytes(PART_SIZE * 5)), PART_SIZE * 3L));
+
+        InputStream broken = new InputStream() {
+            private int remaining = PART_SIZE * 2 + 10;
+
+            @Override
+            public int read() throws IOException {
+                if (remaining-- == 0) {
+                    throw new IOException("Connection reset");
+                }
+                return 7;
+            }
+        };
+        assertThrows(RuntimeException.class, () -> uploader.upload("bucket", "files/reset.zip", "application/zip",
+                broken, Long.MAX_VALUE));
+
+        assertEquals(Set.of("files/huge.zip", "files/reset.zip"), s3.aborted);
+        assertTrue(s3.objects.isEmpty());
+        assertTrue(s3.uploads.isEmpty());
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+
+    /**
+     * Keeps objects and in-progress multipart uploads in memory, with enough of
+     * the S3 contract to check what the uploader sends.
+     */
+    private static class StubS3Client implements S3Client {
+        final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+        final Map<String, Map<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+        final Set<String> aborted = ConcurrentHashMap.newKeySet();
+        final AtomicInteger partsUploaded = new AtomicInteger();
+        final AtomicInteger concurrentParts = new AtomicInteger();
+        final AtomicInteger maxConcurrentParts = new AtomicInteger();
+        volatile int failPart = -1;
+
+        @Override
+        public PutObjectResponse putObject(PutObjectRequest request, RequestBody body) {
+            objects.put(request.key(), read(body));
+            return PutObjectResponse.builder().eTag("etag").build();
+        }
+
+        @Override
+        public CreateMultipartUploadResponse createMultipartUpload(CreateMultipartUploadRequest request) {
+            uploads.put(request.key(), new ConcurrentHashMap<>());
+            return CreateMultipartUploadResponse.builder().uploadId(request.key()).build();
+        }
+
+        @Override
+        public UploadPartResponse uploadPart(UploadPartRequest request, RequestBody body) {
+            maxConcurrentParts.accumulateAndGet(concurrentParts.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+                if (request.partNumber() == failPart) {
+                    throw S3Exception.builder().message("Internal error").statusCode(500).build();
+                }
+                byte[] bytes = read(body);
+                assertEquals(request.contentLength(), bytes.length);
+                uploads.get(request.uploadId()).put(request.partNumber(), bytes);
+                partsUploaded.incrementAndGet();
+                return UploadPartResponse.builder().eTag("etag-" + request.partNumber()).build();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } finally {
+                concurrentParts.decrementAndGet();
+            }
+        }
+
+        @Override
+        public CompleteMultipartUploadResponse completeMultipartUpload(CompleteMultipartUploadRequest request) {
+            Map<Integer, byte[]> parts = new TreeMap<>(uploads.remove(request.uploadId()));
+            assertEquals(parts.keySet().stream().toList(), request.multipartUpload().parts().stream()
+                    .map(CompletedPart::partNumber).toList());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            parts.values().forEach(out::writeBytes);
+            objects.put(request.key(), out.toByteArray());
+            return CompleteMultipartUploadResponse.builder().build();
+        }
+
+        @Override
+        public AbortMultipartUploadResponse abortMultipartUpload(AbortMultipartUploadRequest request) {
+            uploads.remove(request.uploadId());
+            aborted.add(request.key());
+            return AbortMultipartUploadResponse.builder().build();
+        }
+
+        @Override
+        public String serviceName() {
+            return "s3";
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private static byte[] read(RequestBody body) {
+            try (InputStream in = body.contentStreamProvider().newStream()) {
+                return in.readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.ChatApp_Internal.service;
+
+import com.example.ChatApp_Internal.entity.Account;
+import com.example.ChatApp_Internal.entity.AuthProvider;
+import com.example.ChatApp_Internal.entity.BlacklistedToken;
+import com.example.ChatApp_Internal.entity.RefreshContext;
+import com.example.ChatApp_Internal.repository.AccountRepository;
+import com.example.ChatApp_Internal.repository.BlacklistedTokenRepository;
+import com.example.ChatApp_Internal.repository.RefreshContextRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the batch deletes against H2 in MySQL mode, both directly and through
+ * the cleanup loop.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TokenCleanupServiceTest {
+
+    private static final long HOUR = 3_600_000L;
+    private static final long RETENTION = 24 * HOUR;
+
+    @Autowired
+    private BlacklistedTokenRepository blacklistedTokenRepository;
+
+    @Autowired
+    private RefreshContextRepository refreshContextRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Account account;
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        now = System.currentTimeMillis();
+        account = accountRepository.save(Account.builder()
+                .email("user@example.com")
+                .provider(AuthProvider.LOCAL)
+                .isVerified(true)
+                .isActive(true)
+                .build());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        blacklistedTokenRepository.deleteAll();
+        refreshContextRepository.deleteAll();
+        accountRepository.deleteAll();
+    }
+
+    @Test
+    void batchesDeleteTheOldestMatchingRowsFirst() {
+        for (int i = 1; i <= 4; i++) {
+            blacklist("expired-" + i, now - i * HOUR);
+            context("expired-" + i, now - i * HOUR, false, now);
+            context("revoked-" + i, now + HOUR, true, now - RETENTION - i * HOUR);
+        }
+        blacklist("active", now + HOUR);
+        context("recently-revoked", now + HOUR, true, now - HOUR);
+
+        assertEquals(2, blacklistedTokenRepository.deleteExpiredBatch(now, 2));
+        assertEquals(2, refreshContextRepository.deleteExpiredBatch(now, 2));
+        assertEquals(2, refreshContextRepository.deleteRevokedBatch(now - RETENTION, 2));
+
+        assertEquals(Set.of("expired-1", "expired-2", "active"), blacklistedTokenRepository.findAll().stream()
+                .map(BlacklistedToken::getToken)
+                .collect(Collectors.toSet()));
+        assertEquals(Set.of("expired-1", "expired-2", "revoked-1", "revoked-2", "recently-revoked"),
+                refreshContextRepository.findAll().stream()
+                        .map(RefreshContext::getContextId)
+                        .collect(Collectors.toSet()));
+    }
+
+    @Test
+    void aRunRemovesEveryStaleRowInBatches() {
+        givenStaleRows();
+        TokenCleanupService cleanup = new TokenCleanupService(
+                blacklistedTokenRepository, refreshContextRepository, 2, RETENTION, 60_000);
+
+        cleanup.purgeExpiredTokens();
+
+        assertEquals(5 + 3 + 3, cleanup.getLastRemovedRows());
+        assertEquals(List.of("active"), blacklistedTokenRepository.findAll().stream()
+                .map(BlacklistedToken::getToken)
+                .toList());
+        assertEquals(Set.of("active", "recently-revoked"), refreshContextRepository.findAll().stream()
+                .map(RefreshContext::getContextId)
+                .collect(Collectors.toSet()));
+    }
+
+    @Test
+    void aRunPastItsTimeBudgetStopsAfterOneBatchOfEachKind() {
+        givenStaleRows();
+        TokenCleanupService cleanup = new TokenCleanupService(
+                blacklistedTokenRepository, refreshContextRepository, 2, RETENTION, 0);
+
+        cleanup.purgeExpiredTokens();
+        assertEquals(2 + 2 + 2, cleanup.getLastRemovedRows());
+
+        // The next run picks up where this one stopped
+        cleanup.purgeExpiredTokens();
+        assertEquals(2 + 1 + 1, cleanup.getLastRemovedRows());
+    }
+
+    private void givenStaleRows() {
+        for (int i = 1; i <= 5; i++) {
+            blacklist("expired-" + i, now - i * HOUR);
+        }
+        blacklist("active", now + HOUR);
+        for (int i = 1; i <= 3; i++) {
+            context("expired-" + i, now - i * HOUR, false, now);
+            context("revoked-" + i, now + HOUR, true, now - RETENTION - i * HOUR);
+        }
+        context("active", now + HOUR, false, now);
+        context("recently-revoked", now + HOUR, true, now - HOUR);
+    }
+
+    private void blacklist(String token, long expiresAt) {
+        blacklistedTokenRepository.save(BlacklistedToken.builder()
+                .token(token)
+                .account(account)
+                .reason("logout")
+                .expiresAt(expiresAt)
+                .build());
+    }
+
+    private void context(String contextId, long expiryDate, boolean revoked, long createdAt) {
+        RefreshContext context = refreshContextRepository.save(RefreshContext.builder()
+                .account(account)
+                .contextId(contextId)
+                .expiryDate(expiryDate)
+                .revoked(revoked)
+                .build());
+        // created_at is stamped on insert, so back-date it directly
+        jdbcTemplate.update("UPDATE refresh_contexts SET created_at = ? WHERE id = ?", createdAt, context.getId());
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.ChatApp_Internal.service;
+
+import com.example.ChatApp_Internal.dto.request.UpdateUserRolesRequest;
+import com.example.ChatApp_Internal.entity.Account;
+import com.example.ChatApp_Internal.entity.AuthProvider;
+import com.example.ChatApp_Internal.entity.Profile;
+import com.example.ChatApp_Internal.entity.Role;
+import com.example.ChatApp_Internal.repository.AccountRepository;
+import com.example.ChatApp_Internal.repository.RoleRepository;
+import com.example.ChatApp_Internal.security.CustomUserDetailsService;
+import com.example.ChatApp_Internal.security.UserDetailsCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Every account change an admin or the user can make is visible to the next
+ * {@link CustomUserDetailsService#loadUserByUsername} despite the cached entry.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({AdminService.class, UserSearchService.class, ProfileService.class,
+        CustomUserDetailsService.class, UserDetailsCache.class})
+class UserDetailsCacheInvalidationTest {
+
+    private static final String EMAIL = "user@example.com";
+
+    @Autowired
+    private AdminService adminService;
+
+    @Autowired
+    private ProfileService profileService;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @MockitoBean
+    private AccountFileService accountFileService;
+
+    @MockitoBean
+    private AwsS3Service awsS3Service;
+
+    @MockitoBean
+    private PasswordEncoder passwordEncoder;
+
+    private Long accountId;
+
+    @BeforeEach
+    void setUp() {
+        Role member = roleRepository.save(Role.builder().roleName("MEMBER").build());
+        roleRepository.save(Role.builder().roleName("ADMIN").build());
+
+        Account account = Account.builder()
+                .email(EMAIL)
+                .password("hash")
+                .provider(AuthProvider.LOCAL)
+                .isVerified(true)
+                .isActive(true)
+                .roles(Set.of(member))
+                .build();
+        account.setProfile(Profile.builder()
+                .account(account)
+                .username("user")
+                .displayName("User")
+                .build());
+        accountId = accountRepository.save(account).getAccountId();
+
+        // Cache the current state, so each test proves the entry was dropped
+        userDetailsService.loadUserByUsername(EMAIL);
+        assertNotNull(userDetailsCache.get(EMAIL));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        SecurityContextHolder.clearContext();
+        accountRepository.deleteAll();
+        roleRepository.deleteAll();
+    }
+
+    @Test
+    void updatedRolesAreLoadedOnTheNextRequest() {
+        adminService.updateUserRoles(accountId, UpdateUserRolesRequest.builder()
+                .roles(Set.of("MEMBER", "ADMIN"))
+                .build());
+
+        assertEquals(Set.of("ROLE_MEMBER", "ROLE_ADMIN"), userDetailsService.loadUserByUsername(EMAIL)
+                .getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toSet()));
+    }
+
+    @Test
+    void aDeactivatedAccountIsRejectedOnTheNextRequest() {
+        adminService.deactivateUser(accountId);
+
+        assertThrows(RuntimeException.class, () -> userDetailsService.loadUserByUsername(EMAIL));
+    }
+
+    @Test
+    void aReactivatedAccountIsAcceptedOnTheNextRequest() {
+        adminService.deactivateUser(accountId);
+        assertThrows(RuntimeException.class, () -> userDetailsService.loadUserByUsername(EMAIL));
+
+        adminService.activateUser(accountId);
+
+        assertEquals(EMAIL, userDetailsService.loadUserByUsername(EMAIL).getUsername());
+    }
+
+    @Test
+    void aDeletedAccountIsNotFoundOnTheNextRequest() {
+        adminService.deleteUser(accountId);
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername(EMAIL));
+    }
+
+    @Test
+    void anAccountClosedByItsOwnerIsRejectedOnTheNextRequest() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(EMAIL, null, List.of()));
+
+        profileService.deleteAccount();
+
+        assertNull(userDetailsCache.get(EMAIL));
+        assertThrows(RuntimeException.class, () -> userDetailsService.loadUserByUsername(EMAIL));
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.ChatApp_Internal.service;
+
+import com.example.ChatApp_Internal.entity.WorkspaceFileQuota;
+import com.example.ChatApp_Internal.repository.WorkspaceFileQuotaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "app.files.quota.workspace-id=42",
+        "app.files.quota.default-max-bytes=1000",
+        "app.files.quota.stream-reservation-bytes=300"
+})
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(WorkspaceQuotaService.class)
+class WorkspaceQuotaServiceTest {
+
+    @Autowired
+    private WorkspaceQuotaService workspaceQuota;
+
+    @Autowired
+    private WorkspaceFileQuotaRepository quotaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        quotaRepository.deleteAll();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        quotaRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentReservationsNeverOvershootTheQuota() throws Exception {
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < 40; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        workspaceQuota.reserve(70);
+                        accepted.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        refused.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // 14 x 70 = 980 fits in 1000, a 15th would not
+        assertEquals(14, accepted.get());
+        assertEquals(26, refused.get());
+        assertEquals(980, usedBytes());
+    }
+
+    @Test
+    void aRolledBackReservationIsGivenBack() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        assertThrows(IllegalStateException.class, () -> transaction.executeWithoutResult(status -> {
+            workspaceQuota.reserve(400);
+            // Already visible to other uploads while the transaction runs
+            assertEquals(400, usedBytes());
+            throw new IllegalStateException("upload failed");
+        }));
+        assertEquals(0, usedBytes());
+
+        transaction.executeWithoutResult(status -> workspaceQuota.reserve(400));
+        assertEquals(400, usedBytes());
+    }
+
+    @Test
+    void releaseInsideATransactionWaitsForCommit() {
+        workspaceQuota.reserve(500);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        transaction.executeWithoutResult(status -> {
+            workspaceQuota.release(200);
+            status.setRollbackOnly();
+        });
+        assertEquals(500, usedBytes());
+
+        transaction.executeWithoutResult(status -> {
+            workspaceQuota.release(200);
+            assertEquals(500, usedBytes());
+        });
+        assertEquals(300, usedBytes());
+
+        // Never below zero
+        workspaceQuota.release(10_000);
+        assertEquals(0, usedBytes());
+    }
+
+    @Test
+    void streamedBodiesReserveInStepsAndFailOnceTheQuotaIsUsedUp() throws Exception {
+        WorkspaceQuotaService.ReservingInputStream small = workspaceQuota.reserveWhileReading(body(350));
+        assertEquals(350, drain(small));
+        assertEquals(600, small.getReserved());
+        workspaceQuota.release(small.getReserved() - 350);
+        assertEquals(350, usedBytes());
+
+        // 650 left: two full steps fit, then only the exact shortfall
+        WorkspaceQuotaService.ReservingInputStream exact = workspaceQuota.reserveWhileReading(body(650));
+        assertEquals(650, drain(exact));
+        assertEquals(1000, usedBytes());
+        assertEquals(650, exact.getReserved());
+
+        WorkspaceQuotaService.ReservingInputStream tooLarge = workspaceQuota.reserveWhileReading(body(1));
+        assertThrows(RuntimeException.class, () -> drain(tooLarge));
+        assertEquals(1000, usedBytes());
+    }
+
+    private long usedBytes() {
+        return quotaRepository.findById(42L).map(WorkspaceFileQuota::getCurrentUsedBytes).orElse(0L);
+    }
+
+    /**
+     * Reads in small chunks, as an upload arrives.
+     */
+    private static int drain(InputStream in) throws IOException {
+        byte[] buffer = new byte[100];
+        int total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            total += read;
+        }
+        return total;
+    }
+
+    private static InputStream body(int size) {
+        return new ByteArrayInputStream(new byte[size]);
+    }
+}